@@ -0,0 +1,82 @@
+/**
+    Copyright (C) 2020 Forrest Guice
+    This file is part of SuntimesWidget.
+
+    SuntimesWidget is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    SuntimesWidget is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with SuntimesWidget.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package com.forrestguice.suntimeswidget;
+
+import android.app.Instrumentation;
+import android.content.Context;
+import android.support.test.InstrumentationRegistry;
+import android.support.test.runner.AndroidJUnit4;
+
+import com.forrestguice.suntimeswidget.calculator.SuntimesRiseSetDataset;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.assertTrue;
+
+@RunWith(AndroidJUnit4.class)
+public class LightMapViewTest
+{
+    private Context context;
+    private Instrumentation instrumentation;
+
+    @Before
+    public void setup()
+    {
+        instrumentation = InstrumentationRegistry.getInstrumentation();
+        context = InstrumentationRegistry.getTargetContext();
+    }
+
+    /**
+     * test_updateViews_coalesce
+     * updates that arrive while a draw is running should be coalesced; the last one is drawn when the running task finishes.
+     */
+    @Test
+    public void test_updateViews_coalesce() throws InterruptedException
+    {
+        final SuntimesRiseSetDataset[] data = new SuntimesRiseSetDataset[] { new SuntimesRiseSetDataset(context), new SuntimesRiseSetDataset(context), new SuntimesRiseSetDataset(context) };
+        final LightMapView[] view = new LightMapView[1];
+        instrumentation.runOnMainSync(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                view[0] = new LightMapView(context);
+                view[0].updateViews(data[0]);    // starts a draw
+                view[0].updateViews(data[1]);    // two updates during the draw
+                view[0].updateViews(data[2]);
+            }
+        });
+
+        final SuntimesRiseSetDataset[] drawn = new SuntimesRiseSetDataset[1];
+        for (int i=0; i<50 && drawn[0] != data[2]; i++)
+        {
+            Thread.sleep(100);
+            instrumentation.runOnMainSync(new Runnable()
+            {
+                @Override
+                public void run() {
+                    drawn[0] = view[0].getDrawnData();
+                }
+            });
+        }
+        assertTrue("the last update should be drawn", drawn[0] == data[2]);
+    }
+}
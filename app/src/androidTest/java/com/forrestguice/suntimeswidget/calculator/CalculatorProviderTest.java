@@ -57,6 +57,10 @@ import static com.forrestguice.suntimeswidget.calculator.core.CalculatorProvider
 import static com.forrestguice.suntimeswidget.calculator.core.CalculatorProviderContract.COLUMN_CONFIG_APP_THEME;
 import static com.forrestguice.suntimeswidget.calculator.core.CalculatorProviderContract.COLUMN_CONFIG_APP_VERSION;
 import static com.forrestguice.suntimeswidget.calculator.core.CalculatorProviderContract.COLUMN_CONFIG_APP_VERSION_CODE;
+import static com.forrestguice.suntimeswidget.calculator.core.CalculatorProviderContract.COLUMN_CONFIG_CACHE_EVICTIONS;
+import static com.forrestguice.suntimeswidget.calculator.core.CalculatorProviderContract.COLUMN_CONFIG_CACHE_HITS;
+import static com.forrestguice.suntimeswidget.calculator.core.CalculatorProviderContract.COLUMN_CONFIG_CACHE_MISSES;
+import static com.forrestguice.suntimeswidget.calculator.core.CalculatorProviderContract.COLUMN_CONFIG_CACHE_SIZE;
 import static com.forrestguice.suntimeswidget.calculator.core.CalculatorProviderContract.COLUMN_CONFIG_CALCULATOR;
 import static com.forrestguice.suntimeswidget.calculator.core.CalculatorProviderContract.COLUMN_CONFIG_CALCULATOR_FEATURES;
 import static com.forrestguice.suntimeswidget.calculator.core.CalculatorProviderContract.COLUMN_CONFIG_LATITUDE;
@@ -269,6 +273,29 @@ public class CalculatorProviderTest
         cursor.close();
     }
 
+    @Test
+    public void test_query_config_cache()
+    {
+        ContentResolver resolver = mockContext.getContentResolver();
+        Uri uri = Uri.parse("content://" + AUTHORITY + "/" + QUERY_CONFIG);
+        String[] projection = new String[] { COLUMN_CONFIG_CACHE_SIZE, COLUMN_CONFIG_CACHE_HITS, COLUMN_CONFIG_CACHE_MISSES, COLUMN_CONFIG_CACHE_EVICTIONS };
+        String selection = COLUMN_CONFIG_LATITUDE + "=? AND " + COLUMN_CONFIG_LONGITUDE + "=?";
+        String[] selectionArgs = new String[] {"33.45", "-111.94"};
+
+        Cursor cursor0 = resolver.query(uri, projection, selection, selectionArgs, null);
+        test_cursorHasColumns("QUERY_CONFIG", cursor0, projection);
+        cursor0.moveToFirst();
+        int hits0 = cursor0.getInt(cursor0.getColumnIndex(COLUMN_CONFIG_CACHE_HITS));
+        assertTrue("COLUMN_CONFIG_CACHE_SIZE should be > 0", cursor0.getInt(cursor0.getColumnIndex(COLUMN_CONFIG_CACHE_SIZE)) > 0);
+        cursor0.close();
+
+        Cursor cursor1 = resolver.query(uri, projection, selection, selectionArgs, null);    // same selection; reuses the calculator
+        cursor1.moveToFirst();
+        int hits1 = cursor1.getInt(cursor1.getColumnIndex(COLUMN_CONFIG_CACHE_HITS));
+        assertTrue("COLUMN_CONFIG_CACHE_HITS should increase (" + hits0 + " -> " + hits1 + ")", hits1 > hits0);
+        cursor1.close();
+    }
+
     ////////////////////////////////////////////////////////////////////////////////////////////////
     // SEASONS
     ////////////////////////////////////////////////////////////////////////////////////////////////
@@ -696,6 +723,53 @@ public class CalculatorProviderTest
         }
     }
 
+    ////////////////////////////////////////////////////////////////////////////////////////////////
+    // RANGE
+    ////////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * test_query_sun_range
+     * a range query should have one row per day (in day order) that matches the calculator.
+     */
+    @Test
+    public void test_query_sun_range()
+    {
+        ContentResolver resolver = mockContext.getContentResolver();
+        assertTrue("Unable to getContentResolver!", resolver != null);
+
+        int numDays = 45;
+        Calendar start = Calendar.getInstance(sunCalculator.getTimeZone());
+        start.set(2018, 0, 1, 0, 0, 0);
+        Calendar end = (Calendar) start.clone();
+        end.add(Calendar.DAY_OF_YEAR, numDays - 1);
+
+        String[] projection = new String[] { COLUMN_SUN_ACTUAL_RISE, COLUMN_SUN_NOON, COLUMN_SUN_ACTUAL_SET };
+        Uri uri = Uri.parse("content://" + AUTHORITY + "/" + QUERY_SUN + "/" + start.getTimeInMillis() + "-" + end.getTimeInMillis());
+        Cursor cursor = resolver.query(uri, projection, null, null, null);
+        assertNotNull(cursor);
+        assertTrue("getCount should be " + numDays + " (was " + cursor.getCount() + ")", cursor.getCount() == numDays);
+
+        Calendar day = (Calendar) start.clone();
+        cursor.moveToPosition(-1);
+        while (cursor.moveToNext())
+        {
+            test_rangeRow(cursor, 0, sunCalculator.getOfficialSunriseCalendarForDate(day));
+            test_rangeRow(cursor, 1, sunCalculator.getSolarNoonCalendarForDate(day));
+            test_rangeRow(cursor, 2, sunCalculator.getOfficialSunsetCalendarForDate(day));
+            day.add(Calendar.DAY_OF_YEAR, 1);
+        }
+        cursor.close();
+    }
+
+    private void test_rangeRow(Cursor cursor, int column, Calendar expected)
+    {
+        String tag = cursor.getColumnName(column) + " (row " + cursor.getPosition() + ")";
+        assertTrue(tag + " isNull should match", cursor.isNull(column) == (expected == null));
+        if (expected != null) {
+            assertTrue(tag + " should match", cursor.getLong(column) == expected.getTimeInMillis());
+        }
+    }
+
     ////////////////////////////////////////////////////////////////////////////////////////////////
     // MOONPOS
     ////////////////////////////////////////////////////////////////////////////////////////////////
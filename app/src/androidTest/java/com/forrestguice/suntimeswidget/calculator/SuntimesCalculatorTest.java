@@ -25,14 +25,21 @@ import android.test.RenamingDelegatingContext;
 
 import com.forrestguice.suntimeswidget.calculator.core.Location;
 import com.forrestguice.suntimeswidget.calculator.core.SuntimesCalculator;
+import com.forrestguice.suntimeswidget.settings.WidgetTimezones;
 
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 
+import java.util.Calendar;
 import java.util.TimeZone;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 @RunWith(AndroidJUnit4.class)
@@ -79,4 +86,156 @@ public class SuntimesCalculatorTest
         assertTrue("calculator name (" + calculator.name() + ") should match descriptor (" + descriptor.getName() + ")", calculator.name().equals(descriptor.getName()));
     }
 
+    @Test
+    public void test_computeDay()
+    {
+        TimeZone timezone = TimeZone.getDefault();
+        for (Location location : locations)
+        {
+            test_computeDay(location, timezone, com.forrestguice.suntimeswidget.calculator.sunrisesunset_java.SunriseSunsetSuntimesCalculator.getDescriptor());
+            test_computeDay(location, timezone, com.forrestguice.suntimeswidget.calculator.ca.rmen.sunrisesunset.SunriseSunsetSuntimesCalculator.getDescriptor());
+            test_computeDay(location, timezone, com.forrestguice.suntimeswidget.calculator.time4a.Time4ASimpleSuntimesCalculator.getDescriptor());
+            test_computeDay(location, timezone, com.forrestguice.suntimeswidget.calculator.time4a.Time4ANOAASuntimesCalculator.getDescriptor());
+            test_computeDay(location, timezone, com.forrestguice.suntimeswidget.calculator.time4a.Time4ACCSuntimesCalculator.getDescriptor());
+            test_computeDay(location, timezone, com.forrestguice.suntimeswidget.calculator.time4a.Time4A4JSuntimesCalculator.getDescriptor());
+        }
+    }
+    public void test_computeDay(Location location, TimeZone timezone, SuntimesCalculatorDescriptor descriptor)
+    {
+        SuntimesCalculatorFactory calculatorFactory = new SuntimesCalculatorFactory(mockContext, descriptor);
+        SuntimesCalculator calculator = calculatorFactory.createCalculator(location, timezone);
+        Calendar date = Calendar.getInstance(timezone);
+
+        SuntimesCalculator.SolarDay expected = SuntimesCalculator.SolarDay.compute(calculator, date, SuntimesCalculator.SolarDay.ALL_EVENTS);
+        SuntimesCalculator.SolarDay day = calculator.computeDay(date, SuntimesCalculator.SolarDay.ALL_EVENTS);
+        assertNotNull(day);
+        assertTrue(day.hasEvents(SuntimesCalculator.SolarDay.ALL_EVENTS));
+
+        for (int event=0; event<SuntimesCalculator.SolarDay.NUM_EVENTS; event++)
+        {
+            Calendar event0 = expected.getEvent(event);
+            Calendar event1 = day.getEvent(event);
+            String message = calculator.name() + " :: event " + event + " should match per event result";
+            if (event0 == null) {
+                assertNull(message, event1);
+            } else {
+                assertNotNull(message, event1);
+                assertEquals(message, event0.getTimeInMillis(), event1.getTimeInMillis());
+            }
+        }
+
+        SuntimesCalculator.SolarDay partial = calculator.computeDay(date, SuntimesCalculator.SolarDay.flag(SuntimesCalculator.SolarDay.NOON));
+        assertTrue(partial.hasEvents(SuntimesCalculator.SolarDay.flag(SuntimesCalculator.SolarDay.NOON)));
+        assertTrue(partial.isSameDay(date));
+    }
+
+    @Test
+    public void test_createCalculator_pool()
+    {
+        SuntimesCalculatorFactory.clearPool();
+        TimeZone timezone = TimeZone.getTimeZone("America/Phoenix");
+        SuntimesCalculatorDescriptor descriptor = com.forrestguice.suntimeswidget.calculator.time4a.Time4ANOAASuntimesCalculator.getDescriptor();
+        SuntimesCalculatorFactory calculatorFactory = new SuntimesCalculatorFactory(mockContext, descriptor);
+
+        int misses = SuntimesCalculatorFactory.poolMissCount();
+        SuntimesCalculator calculator0 = calculatorFactory.createCalculator(locations[3], timezone);
+        assertEquals(misses + 1, SuntimesCalculatorFactory.poolMissCount());
+
+        int hits = SuntimesCalculatorFactory.poolHitCount();
+        SuntimesCalculator calculator1 = new SuntimesCalculatorFactory(mockContext, descriptor).createCalculator(new Location("test3a", "35", "-112", "14"), TimeZone.getTimeZone("America/Phoenix"));
+        assertSame("same setup should return the pooled calculator", calculator0, calculator1);
+        assertEquals(hits + 1, SuntimesCalculatorFactory.poolHitCount());
+
+        assertNotSame(calculator0, calculatorFactory.createCalculator(locations[4], timezone));
+        assertNotSame(calculator0, calculatorFactory.createCalculator(locations[3], TimeZone.getTimeZone("UTC")));
+        assertNotSame(calculator0, new SuntimesCalculatorFactory(mockContext, com.forrestguice.suntimeswidget.calculator.time4a.Time4ACCSuntimesCalculator.getDescriptor()).createCalculator(locations[3], timezone));
+        assertNotSame(calculator0, calculatorFactory.newCalculator(locations[3], timezone));
+
+        // plugins are not pooled (may not be thread-safe)
+        SuntimesCalculatorDescriptor plugin = new SuntimesCalculatorDescriptor("test", "test", com.forrestguice.suntimeswidget.calculator.time4a.Time4ANOAASuntimesCalculator.REF);
+        plugin.setIsPlugin(true);
+        assertFalse(SuntimesCalculatorFactory.isPoolable(plugin));
+        assertTrue(SuntimesCalculatorFactory.isPoolable(descriptor));
+        SuntimesCalculatorFactory pluginFactory = new SuntimesCalculatorFactory(mockContext, plugin);
+        assertNotSame(pluginFactory.createCalculator(locations[3], timezone), pluginFactory.createCalculator(locations[3], timezone));
+
+        // apparent solar time includes the calculator used by the equation of time
+        TimeZone solarTime0 = new WidgetTimezones.ApparentSolarTime(-112, "test", calculator0);
+        TimeZone solarTime1 = new WidgetTimezones.ApparentSolarTime(-112, "test", null);
+        assertNotSame(calculatorFactory.createCalculator(locations[3], solarTime0), calculatorFactory.createCalculator(locations[3], solarTime1));
+
+        SuntimesCalculatorFactory.clearPool();
+        assertEquals(0, SuntimesCalculatorFactory.poolSize());
+    }
+
+    @Test
+    public void test_moonTimeline()
+    {
+        TimeZone timezone = TimeZone.getTimeZone("America/Phoenix");
+        SuntimesCalculator calculator = new SuntimesCalculatorFactory(mockContext, com.forrestguice.suntimeswidget.calculator.time4a.Time4A4JSuntimesCalculator.getDescriptor()).newCalculator(locations[3], timezone);
+        MoonTimeline timeline = MoonTimeline.getTimeline(calculator);
+        assertSame(timeline, MoonTimeline.getTimeline(calculator));
+
+        Calendar date = Calendar.getInstance(timezone);
+        for (int i=0; i<90; i += 3)     // forward
+        {
+            test_moonTimeline(calculator, timeline, date);
+            date.add(Calendar.DAY_OF_YEAR, 3);
+        }
+        for (int i=0; i<90; i += 5)     // and back again
+        {
+            test_moonTimeline(calculator, timeline, date);
+            date.add(Calendar.DAY_OF_YEAR, -5);
+        }
+    }
+    public void test_moonTimeline(SuntimesCalculator calculator, MoonTimeline timeline, Calendar date)
+    {
+        for (SuntimesCalculator.MoonPhase phase : SuntimesCalculator.MoonPhase.values()) {
+            assertSameTime(calculator.getMoonPhaseNextDate(phase, date), timeline.getMoonPhaseNextDate(phase, date));
+        }
+        assertSameTime(calculator.getMoonApogeeNextDate(date), timeline.getMoonApogeeNextDate(date));
+        assertSameTime(calculator.getMoonPerigeeNextDate(date), timeline.getMoonPerigeeNextDate(date));
+
+        SuntimesCalculator.MoonTimes expected = calculator.getMoonTimesForDate(date);
+        SuntimesCalculator.MoonTimes times = timeline.getMoonTimesForDate(date);
+        assertSameTime(expected.riseTime, times.riseTime);
+        assertSameTime(expected.setTime, times.setTime);
+    }
+    private void assertSameTime(Calendar expected, Calendar value)
+    {
+        if (expected == null) {
+            assertNull(value);
+        } else {
+            assertNotNull(value);
+            assertTrue("expected " + expected.getTimeInMillis() + " (was " + value.getTimeInMillis() + ")", Math.abs(expected.getTimeInMillis() - value.getTimeInMillis()) < 60 * 1000);
+        }
+    }
+
+    @Test
+    public void test_moonLunations()
+    {
+        SuntimesCalculator calculator = new SuntimesCalculatorFactory(mockContext, com.forrestguice.suntimeswidget.calculator.time4a.Time4A4JSuntimesCalculator.getDescriptor()).newCalculator(locations[3], TimeZone.getTimeZone("UTC"));
+        MoonLunations lunations = new MoonLunations(calculator);
+
+        Calendar lunation1 = lunations.getPhase(1, SuntimesCalculator.MoonPhase.NEW);
+        assertNotNull(lunation1);
+        assertTrue("lunation 1 should begin 1923-01-17 02:41", Math.abs(lunation1.getTimeInMillis() - MoonLunations.LUNATION_1) < 60 * 60 * 1000);
+
+        Calendar now = Calendar.getInstance(TimeZone.getTimeZone("UTC"));
+        int lunation = lunations.lunationOf(now);
+        assertTrue(!lunations.getPhase(lunation, SuntimesCalculator.MoonPhase.NEW).after(now));
+        assertTrue(lunations.getPhase(lunation + 1, SuntimesCalculator.MoonPhase.NEW).after(now));
+
+        for (int n = lunation - 20; n < lunation + 40; n += 3)
+        {
+            Calendar newMoon = lunations.getPhase(n, SuntimesCalculator.MoonPhase.NEW);
+            Calendar firstQuarter = lunations.getPhase(n, SuntimesCalculator.MoonPhase.FIRST_QUARTER);
+            Calendar full = lunations.getPhase(n, SuntimesCalculator.MoonPhase.FULL);
+            Calendar thirdQuarter = lunations.getPhase(n, SuntimesCalculator.MoonPhase.THIRD_QUARTER);
+            Calendar nextNewMoon = lunations.getPhase(n + 1, SuntimesCalculator.MoonPhase.NEW);
+            assertTrue(newMoon.before(firstQuarter) && firstQuarter.before(full) && full.before(thirdQuarter) && thirdQuarter.before(nextNewMoon));
+            assertSameTime(calculator.getMoonPhaseNextDate(SuntimesCalculator.MoonPhase.NEW, thirdQuarter), nextNewMoon);
+        }
+    }
+
 }
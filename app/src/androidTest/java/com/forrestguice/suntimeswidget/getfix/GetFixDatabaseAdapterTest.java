@@ -18,7 +18,6 @@
 
 package com.forrestguice.suntimeswidget.getfix;
 
-import android.content.ContentValues;
 import android.content.Context;
 
 import android.database.Cursor;
@@ -26,18 +25,21 @@ import android.support.test.InstrumentationRegistry;
 import android.support.test.runner.AndroidJUnit4;
 import android.test.RenamingDelegatingContext;
 
+import com.forrestguice.suntimeswidget.CSVReader;
+import com.forrestguice.suntimeswidget.CSVWriter;
 import com.forrestguice.suntimeswidget.calculator.core.Location;
 
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 
-import static com.forrestguice.suntimeswidget.getfix.GetFixDatabaseAdapter.KEY_PLACE_ALTITUDE;
-import static com.forrestguice.suntimeswidget.getfix.GetFixDatabaseAdapter.KEY_PLACE_COMMENT;
-import static com.forrestguice.suntimeswidget.getfix.GetFixDatabaseAdapter.KEY_PLACE_LATITUDE;
-import static com.forrestguice.suntimeswidget.getfix.GetFixDatabaseAdapter.KEY_PLACE_LONGITUDE;
 import static com.forrestguice.suntimeswidget.getfix.GetFixDatabaseAdapter.KEY_PLACE_NAME;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
@@ -84,25 +86,43 @@ public class GetFixDatabaseAdapterTest
     }
 
     @Test
-    public void test_addPlaceCSV()
+    public void test_writePlaceCSV() throws IOException
     {
-        String csvHeader = db.addPlaceCSV_header();
-        String expectedHeader = "name, latitude, longitude, altitude, comment";
-        assertTrue("unexpected header: " + csvHeader + " ||vs|| " + expectedHeader, csvHeader.equals(expectedHeader));
+        db.open();
+        populateDatabase();
+        Cursor cursor = db.getAllPlaces(-1, true);
+        StringWriter out = new StringWriter();
+        CSVWriter csvWriter = new CSVWriter(out, "\n");
+        GetFixDatabaseAdapter.writePlaceCSV_header(csvWriter);
+        while (!cursor.isAfterLast())
+        {
+            GetFixDatabaseAdapter.writePlaceCSV_row(csvWriter, cursor);
+            cursor.moveToNext();
+        }
+        cursor.close();
+        db.close();
 
-        for (int i=0; i<locations.length; i++)
+        CSVReader csvReader = new CSVReader(new StringReader(out.toString()));
+        assertTrue("csv should have a header", csvReader.nextRow() && csvReader.getString(0).equals(KEY_PLACE_NAME));
+        for (int i=locations.length-1; i>=0; i--)        // read back (getAllPlaces is ordered by _id DESC; names contain quotes and commas)
         {
-            ContentValues place = new ContentValues();
-            place.put(KEY_PLACE_NAME, locations[i].getLabel());
-            place.put(KEY_PLACE_LATITUDE, locations[i].getLatitude());
-            place.put(KEY_PLACE_LONGITUDE, locations[i].getLongitude());
-            place.put(KEY_PLACE_ALTITUDE, locations[i].getAltitude());
-            place.put(KEY_PLACE_COMMENT, "");
-
-            String csvRow = db.addPlaceCSV_row(place);
-            String expectedRow = "\"" + locations[i].getLabel() + "\", " + locations[i].getLatitude() + ", " + locations[i].getLongitude() + ", " + locations[i].getAltitude() + ", ";
-            assertTrue("unexpected row: " + csvRow + " ||vs|| " + expectedRow, csvRow.equals(expectedRow));
+            Location location = locations[i];
+            assertTrue("csv should have a row for " + location.getLabel(), csvReader.nextRow());
+            assertTrue("row should have 5 fields (has " + csvReader.getFieldCount() + ")", csvReader.getFieldCount() == 5);
+            assertTrue("label should match: " + csvReader.getString(0), csvReader.getString(0).equals(location.getLabel()));
+            assertTrue("latitude should match", csvReader.getDouble(1) == Double.parseDouble(location.getLatitude()));
+            assertTrue("longitude should match", csvReader.getDouble(2) == Double.parseDouble(location.getLongitude()));
+            assertTrue("altitude should match", csvReader.getDouble(3) == Double.parseDouble(location.getAltitude()));
         }
+        assertTrue("csv should have no more rows", !csvReader.nextRow());
+
+        csvReader = new CSVReader(new StringReader("\"Test\"s Loc3\", 38.5, -1.25e2, 0.000001, 12345678901234567890\n"));    // legacy (unescaped) quotes
+        assertTrue(csvReader.nextRow());
+        assertTrue("label should match: " + csvReader.getString(0), csvReader.getString(0).equals("Test\"s Loc3"));
+        assertTrue(csvReader.getDouble(1) == 38.5);
+        assertTrue(csvReader.getDouble(2) == -125);
+        assertTrue(csvReader.getDouble(3) == 0.000001);
+        assertTrue(csvReader.getDouble(4) == 12345678901234567890d);
     }
 
     protected long[] populateDatabase()
@@ -291,6 +311,67 @@ public class GetFixDatabaseAdapterTest
         db.close();
     }
 
+    @Test
+    public void test_addPlaces()
+    {
+        db.open();
+        int added = db.addPlaces(Arrays.asList(locations).iterator(), "", true);
+        assertTrue("addPlaces should add " + locations.length + " places (added " + added + ")", added == locations.length);
+        assertTrue("database should contain " + locations.length + " entries", db.getPlaceCount() == locations.length);
+
+        added = db.addPlaces(Arrays.asList(locations).iterator(), "", true);    // already in database
+        assertTrue("addPlaces should skip existing places (added " + added + ")", added == 0);
+        assertTrue("database should contain " + locations.length + " entries", db.getPlaceCount() == locations.length);
+
+        added = db.addPlaces(Arrays.asList(locations).iterator(), "", false);    // repeated places
+        assertTrue("addPlaces should skip repeated places (added " + added + ")", added == 0);
+        assertTrue("database should contain " + locations.length + " entries", db.getPlaceCount() == locations.length);
+        db.close();
+    }
+
+    @Test
+    public void test_getPlacesByPrefix()
+    {
+        db.open();
+        populateDatabase();
+
+        Cursor cursor0 = db.getPlacesByPrefix(" test", 0, false);
+        assertTrue("cursor should have " + locations.length + " entries (has " + cursor0.getCount() + ")", cursor0.getCount() == locations.length);
+
+        Cursor cursor1 = db.getPlacesByPrefix("TEST LOC", 0, true);
+        assertTrue("cursor should have 2 entries (has " + cursor1.getCount() + ")", cursor1.getCount() == 2);
+        verifyPlace(cursor1, true, cursor1.getLong(0), locations[0]);
+
+        Cursor cursor2 = db.getPlacesByPrefix("not in database", 0, false);
+        assertTrue("cursor should be empty", cursor2.getCount() == 0);
+        db.close();
+    }
+
+    @Test
+    public void test_findNearestPlaces()
+    {
+        db.open();
+        long[] rowID = populateDatabase();
+
+        List<PlaceItem> nearest = db.findNearestPlaces(35.1, -112.1, 1, 0);    // near Loc0
+        assertTrue("should find 1 place (found " + nearest.size() + ")", nearest.size() == 1);
+        assertTrue("nearest place should be Loc0", nearest.get(0).rowID == rowID[0]);
+
+        nearest = db.findNearestPlaces(35.1, -112.1, 3, 0);                   // ordered by distance
+        assertTrue("should find 3 places (found " + nearest.size() + ")", nearest.size() == 3);
+        assertTrue("places should be ordered by distance", nearest.get(0).rowID == rowID[0] && nearest.get(1).rowID == rowID[1] && nearest.get(2).rowID == rowID[2]);
+
+        nearest = db.findNearestPlaces(35.1, -112.1, 3, 50000);               // within 50km
+        assertTrue("should find 1 place within 50km (found " + nearest.size() + ")", nearest.size() == 1);
+
+        nearest = db.findNearestPlaces(-35, 170, 10, 0);                      // far from everything
+        assertTrue("should find every place (found " + nearest.size() + ")", nearest.size() == locations.length);
+
+        nearest = db.findNearestPlaces(0, 0, 1, 1000);
+        assertTrue("should find nothing within 1km", nearest.isEmpty());
+        db.close();
+    }
+
     @Test
     public void test_updatePlace()
     {
@@ -21,6 +21,7 @@ package com.forrestguice.suntimeswidget.settings;
 import android.content.Context;
 import android.content.SharedPreferences;
 import android.graphics.Color;
+import android.support.test.InstrumentationRegistry;
 import android.support.test.rule.ActivityTestRule;
 import android.support.test.runner.AndroidJUnit4;
 import android.util.Log;
@@ -50,6 +51,10 @@ import java.util.Set;
 import java.util.TreeSet;
 
 import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertFalse;
+import static junit.framework.Assert.assertNotNull;
+import static junit.framework.Assert.assertNotSame;
+import static junit.framework.Assert.assertSame;
 import static junit.framework.Assert.assertTrue;
 
 @SuppressWarnings("ConstantConditions")
@@ -152,6 +157,29 @@ public class WidgetSettingsTest extends SuntimesActivityTestBase
         assertTrue("pref should be default but was " + pref0, pref0.getName().equals(WidgetSettings.PREF_DEF_GENERAL_CALCULATOR));
     }
 
+    @Test
+    public void test_snapshot()
+    {
+        WidgetSettings.saveTimeModePref(context, appWidgetId, WidgetSettings.TimeMode.CIVIL);
+        InstrumentationRegistry.getInstrumentation().waitForIdleSync();    // change listener runs on the main thread
+        WidgetSettings.Snapshot snapshot0 = WidgetSettings.loadSnapshot(context, appWidgetId);
+        assertEquals(WidgetSettings.TimeMode.CIVIL, snapshot0.timeMode());
+        assertEquals(WidgetSettings.loadLocationPref(context, appWidgetId), snapshot0.location());
+
+        WidgetSettings.saveNextSuggestedUpdate(context, appWidgetId, 10);     // unrelated pref; snapshot is kept
+        InstrumentationRegistry.getInstrumentation().waitForIdleSync();
+        assertSame(snapshot0, WidgetSettings.loadSnapshot(context, appWidgetId));
+
+        WidgetSettings.saveTimeModePref(context, appWidgetId, WidgetSettings.TimeMode.NAUTICAL);    // snapshot is invalidated
+        InstrumentationRegistry.getInstrumentation().waitForIdleSync();
+        WidgetSettings.Snapshot snapshot1 = WidgetSettings.loadSnapshot(context, appWidgetId);
+        assertNotSame(snapshot0, snapshot1);
+        assertEquals(WidgetSettings.TimeMode.NAUTICAL, snapshot1.timeMode());
+
+        WidgetSettings.deleteTimeModePref(context, appWidgetId);
+        WidgetSettings.deleteNextSuggestedUpdate(context, appWidgetId);
+    }
+
     @Test
     public void test_timeModePref()
     {
@@ -356,6 +384,27 @@ public class WidgetSettingsTest extends SuntimesActivityTestBase
         assertEquals(1d, loc6.getLongitudeAsDouble());
     }
 
+    @Test public void test_location_equals()
+    {
+        Location loc0 = new Location("test", "35", "-112", "100");
+        Location loc1 = new Location(loc0);
+        assertEquals(loc0, loc1);
+        assertEquals(loc0.hashCode(), loc1.hashCode());
+        assertEquals(loc0.coordinateKey(), loc1.coordinateKey());
+
+        Location loc2 = new Location("other", "35.0", "-112.00", "100");
+        assertFalse(loc0.equals(loc2));
+        assertEquals(loc0.coordinateKey(), loc2.coordinateKey());
+
+        loc2.setUseAltitude(false);
+        assertFalse(loc0.coordinateKey().equals(loc2.coordinateKey()));
+        assertEquals(0d, loc2.getAltitudeAsDouble());
+
+        Location loc3 = new Location("test", "invalid", "-112", "100");
+        assertFalse(loc0.equals(loc3));
+        assertNotNull(loc3.coordinateKey());
+    }
+
     @Test
     public void test_locationModePref()
     {
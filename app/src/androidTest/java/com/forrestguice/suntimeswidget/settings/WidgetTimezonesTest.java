@@ -154,6 +154,38 @@ public class WidgetTimezonesTest extends SuntimesActivityTestBase
 
     }
 
+    @Test
+    public void test_eotTable()
+    {
+        SuntimesCalculatorFactory factory = new SuntimesCalculatorFactory(context, Time4A4JSuntimesCalculator.getDescriptor());
+        SuntimesCalculator calculator = factory.createCalculator(new Location("test","35", "-112"), TimeZone.getDefault());
+        WidgetTimezones.EquationOfTimeTable table = WidgetTimezones.EquationOfTimeTable.getTable(calculator);
+        assertTrue(table == WidgetTimezones.EquationOfTimeTable.getTable(calculator));
+
+        Calendar calendar = Calendar.getInstance();
+        for (int i=0; i<400; i++)
+        {
+            long date = calendar.getTimeInMillis();
+            int expected = WidgetTimezones.ApparentSolarTime.equationOfTimeOffset(date, calculator);
+            assertTrue("interpolated eot should be within 1s", Math.abs(table.offset(date) - expected) < 1000);
+            calendar.add(Calendar.HOUR_OF_DAY, 25);
+        }
+
+        long[] dates = new long[] { Calendar.getInstance().getTimeInMillis(), 0L, 4102444800000L };    // now, 1970, 2100 (alternating)
+        for (int i=0; i<3; i++)
+        {
+            for (long date : dates)
+            {
+                int expected = WidgetTimezones.ApparentSolarTime.equationOfTimeOffset(date, calculator);
+                assertTrue("interpolated eot should be within 1s", Math.abs(table.offset(date) - expected) < 1000);
+            }
+        }
+
+        assertEquals(0, WidgetTimezones.EquationOfTimeTable.daysFromCivil(1970, 1, 1));
+        assertEquals(18262, WidgetTimezones.EquationOfTimeTable.daysFromCivil(2020, 1, 1));
+        assertEquals(-1, WidgetTimezones.EquationOfTimeTable.daysFromCivil(1969, 12, 31));
+    }
+
     @Test
     public void test_timezone_localMeanTime()
     {
@@ -62,6 +62,24 @@ public class SuntimesThemeTest extends SuntimesActivityTestBase
         verifyInit(theme, darkTheme);    // verify deleted (init should be to default: darkTheme)
     }
 
+    @Test
+    public void test_loadTheme()
+    {
+        Context context = activityRule.getActivity();
+        SuntimesTheme testTheme = new TestTheme(context);
+        testTheme.saveTheme(context, WidgetThemes.PREFS_THEMES);
+
+        SuntimesTheme theme0 = WidgetThemes.loadTheme(context, TESTDEF_NAME);
+        verifyInit(theme0, testTheme);
+        assertTrue("loaded theme should be reused", WidgetThemes.loadTheme(context, TESTDEF_NAME) == theme0);
+
+        testTheme.themeTitleColor = Color.MAGENTA;
+        testTheme.saveTheme(context, WidgetThemes.PREFS_THEMES);
+        SuntimesTheme theme1 = WidgetThemes.loadTheme(context, TESTDEF_NAME);
+        assertTrue("saving should discard the loaded theme", theme1 != theme0);
+        verifyInit(theme1, testTheme);
+    }
+
     protected void verifyInit(SuntimesTheme theme, SuntimesTheme truth)
     {
         assertTrue("theme name should match " + truth.themeName() + " (was " + theme.themeName() + ")", theme.themeName().equals(truth.themeName()));
@@ -0,0 +1,338 @@
+/**
+    Copyright (C) 2020 Forrest Guice
+    This file is part of SuntimesWidget.
+
+    SuntimesWidget is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    SuntimesWidget is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with SuntimesWidget.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package com.forrestguice.suntimeswidget;
+
+import android.support.annotation.NonNull;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * CSVReader
+ * Reads csv rows one at a time (only the current row is kept; see MAX_ROW_LENGTH). Fields may be quoted, and
+ * quotes within quoted fields are doubled (""). Unquoted fields are trimmed. A quote that is followed by anything
+ * other than a quote, separator, whitespace, or the end of the row is kept as part of the field (as written by
+ * older exports that didn't escape quotes).
+ *
+ * Numeric fields are parsed directly from the row (see getDouble, getLong).
+ */
+public class CSVReader implements Closeable
+{
+    public static final int MAX_ROW_LENGTH = 64 * 1024;
+    private static final int BUFFER_SIZE = 8 * 1024;
+    private static final int MAX_EXACT_DIGITS = 15;
+    private static final double[] POW10 = { 1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22 };
+
+    private final Reader in;
+    private final char separator, quote;
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private int bufferPos = 0, bufferLen = 0;
+
+    private final StringBuilder row = new StringBuilder();
+    private int[] starts = new int[16], ends = new int[16];
+    private int fieldCount = 0;
+    private int lineNumber = 0;
+
+    public CSVReader(@NonNull Reader in) {
+        this(in, ',', '"');
+    }
+
+    public CSVReader(@NonNull Reader in, char separator, char quote)
+    {
+        this.in = in;
+        this.separator = separator;
+        this.quote = quote;
+    }
+
+    /**
+     * Advances to the next row (blank lines are skipped).
+     * @return true if a row was read, false at the end of input
+     * @throws IOException if reading fails, or a row exceeds MAX_ROW_LENGTH
+     */
+    public boolean nextRow() throws IOException
+    {
+        int c;
+        do {
+            c = read();
+            if (c == -1) {
+                return false;
+            }
+            if (c == '\r' && peek() == '\n') {
+                read();
+            }
+            if (c == '\r' || c == '\n') {
+                lineNumber++;
+            }
+        } while (c == '\r' || c == '\n');
+
+        row.setLength(0);
+        fieldCount = 0;
+        lineNumber++;
+
+        int fieldStart = 0;
+        boolean inQuotes = false, wasQuoted = false;
+        while (true)
+        {
+            if (row.length() > MAX_ROW_LENGTH) {
+                throw new IOException("row " + lineNumber + " exceeds " + MAX_ROW_LENGTH + " characters");
+            }
+
+            if (inQuotes)
+            {
+                if (c == -1) {                            // unterminated quote
+                    endField(fieldStart, true);
+                    return true;
+                }
+                if (c == quote)
+                {
+                    int next = peek();
+                    if (next == quote) {
+                        read();
+                        row.append(quote);
+
+                    } else if (next == -1 || next == separator || next == '\r' || next == '\n' || Character.isWhitespace(next)) {
+                        inQuotes = false;
+
+                    } else {
+                        row.append(quote);               // stray (unescaped) quote
+                    }
+                } else {
+                    if (c == '\n') {
+                        lineNumber++;
+                    }
+                    row.append((char) c);
+                }
+
+            } else {
+                if (c == -1 || c == '\n' || c == '\r')
+                {
+                    if (c == '\r' && peek() == '\n') {
+                        read();
+                    }
+                    endField(fieldStart, wasQuoted);
+                    return true;
+
+                } else if (c == separator) {
+                    endField(fieldStart, wasQuoted);
+                    fieldStart = row.length();
+                    wasQuoted = false;
+
+                } else if (c == quote && !wasQuoted && isBlank(fieldStart)) {
+                    row.setLength(fieldStart);
+                    inQuotes = wasQuoted = true;
+
+                } else if (!wasQuoted || !Character.isWhitespace(c)) {    // whitespace following a quoted field is ignored
+                    row.append((char) c);
+                }
+            }
+            c = read();
+        }
+    }
+
+    /**
+     * @return the number of fields in the current row
+     */
+    public int getFieldCount() {
+        return fieldCount;
+    }
+
+    /**
+     * @return the line number where the current row began (starting from 1)
+     */
+    public int getLineNumber() {
+        return lineNumber;
+    }
+
+    public boolean isEmpty(int i) {
+        return (ends[checkField(i)] <= starts[i]);
+    }
+
+    @NonNull
+    public String getString(int i) {
+        return row.substring(starts[checkField(i)], ends[i]);
+    }
+
+    /**
+     * @param i field index
+     * @return the field parsed as a double (parsed in place when exact; other values fall back to Double.parseDouble)
+     * @throws NumberFormatException if the field isn't a number
+     */
+    public double getDouble(int i) throws NumberFormatException
+    {
+        int p = starts[checkField(i)];
+        int end = ends[i];
+        boolean negative = false;
+        if (p < end && (row.charAt(p) == '-' || row.charAt(p) == '+')) {
+            negative = (row.charAt(p++) == '-');
+        }
+
+        long mantissa = 0;
+        int digits = 0, scale = 0;
+        boolean hasDigits = false, hasPoint = false;
+        for (; p < end; p++)
+        {
+            char c = row.charAt(p);
+            if (c >= '0' && c <= '9')
+            {
+                hasDigits = true;
+                if (mantissa != 0 || c != '0') {
+                    digits++;
+                }
+                mantissa = mantissa * 10 + (c - '0');
+                if (hasPoint) {
+                    scale--;
+                }
+                if (digits > MAX_EXACT_DIGITS) {
+                    return Double.parseDouble(getString(i));
+                }
+            } else if (c == '.' && !hasPoint) {
+                hasPoint = true;
+            } else break;
+        }
+
+        if (hasDigits && p < end && (row.charAt(p) == 'e' || row.charAt(p) == 'E'))
+        {
+            int q = p + 1;
+            boolean negativeExponent = false;
+            if (q < end && (row.charAt(q) == '-' || row.charAt(q) == '+')) {
+                negativeExponent = (row.charAt(q++) == '-');
+            }
+            int exponent = 0;
+            int exponentStart = q;
+            for (; q < end && row.charAt(q) >= '0' && row.charAt(q) <= '9' && exponent < 1000; q++) {
+                exponent = exponent * 10 + (row.charAt(q) - '0');
+            }
+            if (q > exponentStart)
+            {
+                scale += (negativeExponent ? -exponent : exponent);
+                p = q;
+            }
+        }
+
+        if (!hasDigits || p != end || scale < -22 || scale > 22) {
+            return Double.parseDouble(getString(i));      // NaN, Infinity, or values that can't be calculated exactly (or not a number)
+        }
+        double value = (scale < 0 ? mantissa / POW10[-scale] : mantissa * POW10[scale]);
+        return (negative ? -value : value);
+    }
+
+    /**
+     * @param i field index
+     * @return the field parsed as a long
+     * @throws NumberFormatException if the field isn't an integer
+     */
+    public long getLong(int i) throws NumberFormatException
+    {
+        int p = starts[checkField(i)];
+        int end = ends[i];
+        boolean negative = false;
+        if (p < end && (row.charAt(p) == '-' || row.charAt(p) == '+')) {
+            negative = (row.charAt(p++) == '-');
+        }
+        if (p == end || end - p > 18) {
+            return Long.parseLong(getString(i));
+        }
+
+        long value = 0;
+        for (; p < end; p++)
+        {
+            char c = row.charAt(p);
+            if (c < '0' || c > '9') {
+                throw new NumberFormatException("For input string: \"" + getString(i) + "\"");
+            }
+            value = value * 10 + (c - '0');
+        }
+        return (negative ? -value : value);
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    private int checkField(int i)
+    {
+        if (i < 0 || i >= fieldCount) {
+            throw new IndexOutOfBoundsException("field " + i + " (row " + lineNumber + " has " + fieldCount + " fields)");
+        }
+        return i;
+    }
+
+    private void endField(int start, boolean quoted)
+    {
+        int end = row.length();
+        if (!quoted)
+        {
+            while (start < end && Character.isWhitespace(row.charAt(start))) {
+                start++;
+            }
+            while (end > start && Character.isWhitespace(row.charAt(end - 1))) {
+                end--;
+            }
+        }
+
+        if (fieldCount == starts.length)
+        {
+            int[] starts1 = new int[fieldCount * 2];
+            int[] ends1 = new int[fieldCount * 2];
+            System.arraycopy(starts, 0, starts1, 0, fieldCount);
+            System.arraycopy(ends, 0, ends1, 0, fieldCount);
+            starts = starts1;
+            ends = ends1;
+        }
+        starts[fieldCount] = start;
+        ends[fieldCount] = end;
+        fieldCount++;
+    }
+
+    private boolean isBlank(int start)
+    {
+        for (int i=start; i<row.length(); i++) {
+            if (!Character.isWhitespace(row.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int read() throws IOException
+    {
+        if (bufferPos >= bufferLen && !fill()) {
+            return -1;
+        }
+        return buffer[bufferPos++];
+    }
+
+    private int peek() throws IOException
+    {
+        if (bufferPos >= bufferLen && !fill()) {
+            return -1;
+        }
+        return buffer[bufferPos];
+    }
+
+    private boolean fill() throws IOException
+    {
+        int n = in.read(buffer, 0, buffer.length);
+        bufferPos = 0;
+        bufferLen = Math.max(n, 0);
+        return (n > 0);
+    }
+}
@@ -0,0 +1,146 @@
+/**
+    Copyright (C) 2020 Forrest Guice
+    This file is part of SuntimesWidget.
+
+    SuntimesWidget is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    SuntimesWidget is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with SuntimesWidget.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package com.forrestguice.suntimeswidget;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * CSVWriter
+ * Writes csv rows field by field directly to the underlying writer (see CSVReader).
+ */
+public class CSVWriter implements Closeable, Flushable
+{
+    public static final String DEFAULT_SEPARATOR = ", ";
+
+    private final Writer out;
+    private final String separator, newLine;
+    private final char quote = '"';
+    private boolean startOfRow = true;
+
+    public CSVWriter(@NonNull Writer out, @NonNull String newLine) {
+        this(out, DEFAULT_SEPARATOR, newLine);
+    }
+
+    public CSVWriter(@NonNull Writer out, @NonNull String separator, @NonNull String newLine)
+    {
+        this.out = out;
+        this.separator = separator;
+        this.newLine = newLine;
+    }
+
+    /**
+     * Writes a field (quoted only if it needs to be).
+     */
+    public CSVWriter writeField(@Nullable String value) throws IOException
+    {
+        if (value != null && needsQuotes(value)) {
+            return writeQuoted(value);
+        }
+        startField();
+        if (value != null) {
+            out.write(value);
+        }
+        return this;
+    }
+
+    public CSVWriter writeField(long value) throws IOException
+    {
+        startField();
+        out.write(Long.toString(value));
+        return this;
+    }
+
+    public CSVWriter writeField(double value) throws IOException
+    {
+        startField();
+        out.write(Double.toString(value));
+        return this;
+    }
+
+    /**
+     * Writes a quoted field (quotes within the value are doubled).
+     */
+    public CSVWriter writeQuoted(@Nullable String value) throws IOException
+    {
+        startField();
+        out.write(quote);
+        if (value != null)
+        {
+            int start = 0;
+            for (int i=0; i<value.length(); i++)
+            {
+                if (value.charAt(i) == quote)
+                {
+                    out.write(value, start, i + 1 - start);
+                    out.write(quote);
+                    start = i + 1;
+                }
+            }
+            out.write(value, start, value.length() - start);
+        }
+        out.write(quote);
+        return this;
+    }
+
+    public void endRow() throws IOException
+    {
+        out.write(newLine);
+        startOfRow = true;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+
+    private void startField() throws IOException
+    {
+        if (!startOfRow) {
+            out.write(separator);
+        }
+        startOfRow = false;
+    }
+
+    private boolean needsQuotes(@NonNull String value)
+    {
+        int n = value.length();
+        if (n > 0 && (Character.isWhitespace(value.charAt(0)) || Character.isWhitespace(value.charAt(n - 1)))) {
+            return true;
+        }
+        for (int i=0; i<n; i++)
+        {
+            char c = value.charAt(i);
+            if (c == quote || c == ',' || c == '\n' || c == '\r' || (separator.indexOf(c) >= 0 && !Character.isWhitespace(c))) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
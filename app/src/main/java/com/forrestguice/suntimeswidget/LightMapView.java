@@ -28,15 +28,19 @@ import android.os.AsyncTask;
 //import android.os.Bundle;
 import android.support.annotation.NonNull;
 import android.support.v4.content.ContextCompat;
+import android.support.v4.util.LruCache;
 
 import android.util.AttributeSet;
 import android.util.Log;
 
+import com.forrestguice.suntimeswidget.calculator.SuntimesCalculatorDescriptor;
+import com.forrestguice.suntimeswidget.calculator.core.Location;
 import com.forrestguice.suntimeswidget.calculator.core.SuntimesCalculator;
 import com.forrestguice.suntimeswidget.calculator.SuntimesRiseSetData;
 import com.forrestguice.suntimeswidget.calculator.SuntimesRiseSetDataset;
 import com.forrestguice.suntimeswidget.themes.SuntimesTheme;
 
+import java.util.ArrayList;
 import java.util.Calendar;
 
 /**
@@ -159,18 +163,48 @@ public class LightMapView extends android.support.v7.widget.AppCompatImageView
 
         if (drawTask != null && drawTask.getStatus() == AsyncTask.Status.RUNNING)
         {
-            drawTask.cancel(true);
+            pendingUpdate = true;    // coalesce; redrawn (using the latest data) when the running task finishes
+            return;
         }
+
+        pendingUpdate = false;
+        drawingData = data;
         drawTask = new LightMapTask();
-        drawTask.setListener(new LightMapTaskListener()
+        drawTask.setBitmapPool(bitmapPool);
+        drawTask.setListener(drawListener);
+        drawTask.execute(data, getWidth(), getHeight(), colors);
+    }
+
+    private boolean pendingUpdate = false;
+    private SuntimesRiseSetDataset drawingData = null, drawnData = null;    // data used by the running task, and by the displayed bitmap
+    private final LightMapBitmapPool bitmapPool = new LightMapBitmapPool(2);
+    private Bitmap bitmap = null;
+
+    private final LightMapTaskListener drawListener = new LightMapTaskListener()
+    {
+        @Override
+        public void onFinished(Bitmap result)
         {
-            @Override
-            public void onFinished(Bitmap result)
-            {
-                setImageBitmap(result);
+            Bitmap previous = bitmap;
+            setImageBitmap(result);
+            bitmap = result;
+            drawnData = drawingData;
+            if (previous != null && previous != result) {
+                bitmapPool.release(previous);    // no longer displayed
             }
-        });
-        drawTask.execute(data, getWidth(), getHeight(), colors);
+
+            drawTask = null;    // still RUNNING until onPostExecute returns
+            if (pendingUpdate) {
+                updateViews(data);
+            }
+        }
+    };
+
+    /**
+     * @return the data used by the displayed bitmap (null if nothing has been drawn yet)
+     */
+    SuntimesRiseSetDataset getDrawnData() {
+        return drawnData;
     }
 
     /**
@@ -221,7 +255,15 @@ public class LightMapView extends android.support.v7.widget.AppCompatImageView
      */
     public static class LightMapTask extends AsyncTask<Object, Void, Bitmap>
     {
+        public static final int MAX_CACHED_LAYERS = 8;
+        private static final LruCache<String, Bitmap> layerCache = new LruCache<>(MAX_CACHED_LAYERS);    // static twilight layers; never displayed directly
+
         private LightMapColors colors;
+        private LightMapBitmapPool bitmapPool = null;
+
+        public void setBitmapPool( LightMapBitmapPool pool ) {
+            bitmapPool = pool;
+        }
 
         /**
          * @param params 0: SuntimesRiseSetDataset,
@@ -262,6 +304,70 @@ public class LightMapView extends android.support.v7.widget.AppCompatImageView
             //long bench_start = System.nanoTime();
 
             this.colors = colors;
+            String key = layerKey(data, w, h, colors);
+            Bitmap layers = layerCache.get(key);
+            if (layers == null)
+            {
+                layers = makeLayers(data, w, h, colors);
+                layerCache.put(key, layers);
+            }
+
+            Bitmap b = (bitmapPool != null ? bitmapPool.obtain(w, h) : Bitmap.createBitmap(w, h, Bitmap.Config.RGB_565));
+            Canvas c = new Canvas(b);
+            c.drawBitmap(layers, 0, 0, null);
+
+            if (data != null)
+            {
+                // draw now marker
+                if (colors.option_drawNow > 0)
+                {
+                    Paint p = new Paint(Paint.ANTI_ALIAS_FLAG);
+                    int pointRadius = Math.min( (int)Math.ceil(c.getWidth() / 96d),      // a circle that is 1/2 hr wide
+                            (int)Math.ceil(c.getHeight() / 4d) );    // a circle that is 1/2 the height of the graph
+                    int pointStroke = (int)Math.ceil(pointRadius / 3d);
+
+                    switch (colors.option_drawNow) {
+                        case LightMapColors.DRAW_SUN2:
+                            DashPathEffect dashed = new DashPathEffect(new float[] {4, 2}, 0);
+                            drawPoint(data.now(), pointRadius, pointStroke, c, p, Color.TRANSPARENT, colors.colorPointStroke, dashed);
+                            break;
+
+                        case LightMapColors.DRAW_SUN1:
+                        default:
+                            drawPoint(data.now(), pointRadius, pointStroke, c, p, colors.colorPointFill, colors.colorPointStroke, null);
+                            break;
+                    }
+                }
+            }
+
+            //long bench_end = System.nanoTime();
+            //Log.d("BENCH", "make lightmap :: " + ((bench_end - bench_start) / 1000000.0) + " ms");
+            return b;
+        }
+
+        /**
+         * @return a key identifying the static layers (date, location, calculator, size, and colors)
+         */
+        protected static String layerKey(SuntimesRiseSetDataset data, int w, int h, @NonNull LightMapColors colors)
+        {
+            String key = w + "x" + h + "_" + colors.colorNight + "_" + colors.colorAstro + "_" + colors.colorNautical + "_" + colors.colorCivil + "_" + colors.colorDay;
+            if (data != null)
+            {
+                Calendar date = data.calendar();
+                Location location = data.location();
+                SuntimesCalculatorDescriptor calculator = data.calculatorMode();
+                key += "_" + date.getTimeZone().getID() + "_" + date.get(Calendar.YEAR) + "_" + date.get(Calendar.DAY_OF_YEAR)
+                        + "_" + (location != null ? location.coordinateKey() : "")
+                        + "_" + (calculator != null ? calculator.getName() : "");
+            }
+            return key;
+        }
+
+        /**
+         * @return a bitmap containing the static layers (night, twilight, and day); does not include the "now" marker
+         */
+        protected Bitmap makeLayers(SuntimesRiseSetDataset data, int w, int h, @NonNull LightMapColors colors)
+        {
             Bitmap b = Bitmap.createBitmap(w, h, Bitmap.Config.RGB_565);
             Canvas c = new Canvas(b);
             Paint p = new Paint(Paint.ANTI_ALIAS_FLAG);
@@ -341,30 +447,7 @@ public class LightMapView extends android.support.v7.widget.AppCompatImageView
                         }
                     }
                 }
-
-                // draw now marker
-                if (colors.option_drawNow > 0)
-                {
-                    int pointRadius = Math.min( (int)Math.ceil(c.getWidth() / 96d),      // a circle that is 1/2 hr wide
-                            (int)Math.ceil(c.getHeight() / 4d) );    // a circle that is 1/2 the height of the graph
-                    int pointStroke = (int)Math.ceil(pointRadius / 3d);
-
-                    switch (colors.option_drawNow) {
-                        case LightMapColors.DRAW_SUN2:
-                            DashPathEffect dashed = new DashPathEffect(new float[] {4, 2}, 0);
-                            drawPoint(data.now(), pointRadius, pointStroke, c, p, Color.TRANSPARENT, colors.colorPointStroke, dashed);
-                            break;
-
-                        case LightMapColors.DRAW_SUN1:
-                        default:
-                            drawPoint(data.now(), pointRadius, pointStroke, c, p, colors.colorPointFill, colors.colorPointStroke, null);
-                            break;
-                    }
-                }
             }
-
-            //long bench_end = System.nanoTime();
-            //Log.d("BENCH", "make lightmap :: " + ((bench_end - bench_start) / 1000000.0) + " ms");
             return b;
         }
 
@@ -496,6 +579,39 @@ public class LightMapView extends android.support.v7.widget.AppCompatImageView
         }
     }
 
+    /**
+     * LightMapBitmapPool
+     * A small pool of bitmaps that are no longer displayed (reused by later tasks of the same size).
+     */
+    public static class LightMapBitmapPool
+    {
+        private final ArrayList<Bitmap> bitmaps = new ArrayList<>();
+        private final int maxSize;
+
+        public LightMapBitmapPool(int maxSize) {
+            this.maxSize = maxSize;
+        }
+
+        public synchronized Bitmap obtain(int w, int h)
+        {
+            for (int i = bitmaps.size() - 1; i >= 0; i--)
+            {
+                Bitmap b = bitmaps.remove(i);
+                if (!b.isRecycled() && b.getWidth() == w && b.getHeight() == h) {
+                    return b;
+                }
+            }
+            return Bitmap.createBitmap(w, h, Bitmap.Config.RGB_565);
+        }
+
+        public synchronized void release(Bitmap b)
+        {
+            if (b != null && !b.isRecycled() && bitmaps.size() < maxSize) {
+                bitmaps.add(b);
+            }
+        }
+    }
+
     /**
      * LightMapTaskListener
      */
@@ -42,6 +42,7 @@ import android.widget.ImageView;
 import android.widget.LinearLayout;
 import android.widget.TextView;
 
+import com.forrestguice.suntimeswidget.calculator.MoonLunations;
 import com.forrestguice.suntimeswidget.calculator.MoonPhaseDisplay;
 import com.forrestguice.suntimeswidget.calculator.SuntimesMoonData1;
 import com.forrestguice.suntimeswidget.calculator.core.SuntimesCalculator;
@@ -53,7 +54,6 @@ import com.github.rubensousa.gravitysnaphelper.GravitySnapHelper;
 
 import java.lang.ref.WeakReference;
 import java.util.Calendar;
-import java.util.HashMap;
 
 @SuppressWarnings("Convert2Diamond")
 public class MoonPhasesView1 extends LinearLayout
@@ -206,7 +206,7 @@ public class MoonPhasesView1 extends LinearLayout
 
         boolean hasSupport = false;
         if (card_adapter != null) {
-            SuntimesMoonData1 data = card_adapter.initData(context, PhaseAdapter.CENTER_POSITION);
+            SuntimesMoonData1 data = card_adapter.initData(context);
             hasSupport = (data != null && data.isCalculated());
         }
         showEmptyView( !hasSupport );
@@ -275,9 +275,10 @@ public class MoonPhasesView1 extends LinearLayout
         public static final int CENTER_POSITION = 100;
 
         private WeakReference<Context> contextRef;
-        @SuppressLint("UseSparseArrays")
-        private HashMap<Integer, SuntimesMoonData1> data = new HashMap<>();
-        private SuntimesCalculator.MoonPhase nextPhase = SuntimesCalculator.MoonPhase.FULL;
+        private SuntimesMoonData1 data = null;
+        private MoonLunations lunations = null;
+        private int baseLunation = 0;          // the lunation containing "now"
+        private int nextPhaseIndex = 0;        // index of the upcoming phase (counted from the new moon of baseLunation)
 
         private int colorNote, colorTitle, colorTime, colorText, colorWaxing, colorWaning, colorFull, colorNew, colorDisabled;
         private float strokePixelsNew, strokePixelsFull;
@@ -317,30 +318,19 @@ public class MoonPhasesView1 extends LinearLayout
                 holder.resizeField(itemWidth);
             }
 
-            int phaseOffset = (position - CENTER_POSITION) % 4;
-            int phaseOrdinal = nextPhase.ordinal() + phaseOffset;
-            while (phaseOrdinal >= 4) {
-                phaseOrdinal = phaseOrdinal - 4;
-            }
-            while (phaseOrdinal < 0) {
-                phaseOrdinal = phaseOrdinal + 4;
-            }
-            holder.phase = SuntimesCalculator.MoonPhase.values()[phaseOrdinal];
+            SuntimesMoonData1 moon = initData(context);
+            int index = (position - CENTER_POSITION) + nextPhaseIndex;
+            holder.phase = phaseAt(index);
 
-            SuntimesMoonData1 moon = initData(context, position);
-            Calendar phaseDate = moon.moonPhaseCalendar(holder.phase);
-            boolean isAgo = moon.now().after(phaseDate);
+            Calendar phaseDate = phaseDateAt(index);
+            boolean isAgo = (phaseDate != null && moon.now().after(phaseDate));
             themeViews(context, holder, isAgo);
 
-            holder.bindDataToPosition(context, moon, holder.phase, position);
+            holder.bindDataToPosition(context, moon, holder.phase, phaseDate, position);
         }
 
         @Override
-        public void onViewRecycled(PhaseField holder)
-        {
-            if (holder.position >= 0 && (holder.position < CENTER_POSITION - 1 || holder.position > CENTER_POSITION + 2)) {
-                data.remove(holder.position);
-            }
+        public void onViewRecycled(PhaseField holder) {
             holder.position = RecyclerView.NO_POSITION;
         }
 
@@ -349,49 +339,51 @@ public class MoonPhasesView1 extends LinearLayout
             return MAX_POSITIONS;
         }
 
-        protected void initData( Context context ) {
-            SuntimesMoonData1 moon = initData(context, CENTER_POSITION);
-            nextPhase = moon.nextPhase(moon.calendar());
-        }
-
-        protected SuntimesMoonData1 initData( Context context, int position )
+        /**
+         * @return data for "now" (calculated once); page dates are looked up by lunation (see phaseDateAt)
+         */
+        protected SuntimesMoonData1 initData( Context context )
         {
-            int offset = (position - CENTER_POSITION) % 4;
-            int firstPosition = position;
-            if (offset > 0) {
-                firstPosition = position - (offset);
-            } else if (offset < 0) {
-                firstPosition = position - (4 + (offset));
-            }
-
-            SuntimesMoonData1 moon = data.get(firstPosition);
-            if (moon == null)
+            if (data == null)
             {
-                moon = createData(context, firstPosition);
-                for (int i=0; i<4; i++) {
-                    data.put(firstPosition + i, moon);
+                data = new SuntimesMoonData1(context, 0, "moon");
+                data.calculate();
+
+                if (data.isCalculated())
+                {
+                    lunations = new MoonLunations(data.calculator());
+                    baseLunation = lunations.lunationOf(data.now());
+
+                    nextPhaseIndex = 0;
+                    Calendar phaseDate;
+                    while (nextPhaseIndex < 8 && ((phaseDate = phaseDateAt(nextPhaseIndex)) == null || !phaseDate.after(data.now()))) {
+                        nextPhaseIndex++;
+                    }
                 }
             }
-            return moon;
+            return data;
         }
 
-        protected SuntimesMoonData1 createData(Context context, int position )
-        {
-            SuntimesMoonData1 moon = new SuntimesMoonData1(context, 0, "moon");
-
-            if (position != CENTER_POSITION)
-            {
-                SuntimesMoonData1 moon0 = initData(context, CENTER_POSITION);
+        /**
+         * @param index phase index (counted from the new moon of the lunation containing "now")
+         * @return the major phase at index
+         */
+        protected static SuntimesCalculator.MoonPhase phaseAt(int index) {
+            return SuntimesCalculator.MoonPhase.values()[((index % 4) + 4) % 4];
+        }
 
-                Calendar date = Calendar.getInstance(moon.timezone());
-                date.setTimeInMillis(moon0.moonPhaseCalendar(moon0.nextPhase(moon.now())).getTimeInMillis());
-                date.add(Calendar.HOUR, (int)(((position - CENTER_POSITION) / 4d) * 29.53d * 24d));   // avg length of synodic month (28.53) may vary ~ +-6 hr
-                date.add(Calendar.HOUR, (int)(-24 * 3.5));                                            // so offset several days to overcome potential drift
-                moon.setTodayIs(date);
+        /**
+         * @param index phase index (counted from the new moon of the lunation containing "now")
+         * @return the date of the phase at index
+         */
+        @Nullable
+        protected Calendar phaseDateAt(int index)
+        {
+            if (lunations == null) {
+                return null;
             }
-
-            moon.calculate();
-            return moon;
+            int lunation = baseLunation + (int)Math.floor(index / 4d);
+            return lunations.getPhase(lunation, phaseAt(index));
         }
 
         @SuppressLint("ResourceType")
@@ -489,13 +481,17 @@ public class MoonPhasesView1 extends LinearLayout
             icon = (ImageView)parent.findViewById(imageViewID);
         }
 
-        public void bindDataToPosition(Context context, SuntimesMoonData1 data, SuntimesCalculator.MoonPhase phase, int position)
+        public void bindDataToPosition(Context context, SuntimesMoonData1 data, SuntimesCalculator.MoonPhase phase, int position) {
+            bindDataToPosition(context, data, phase, (data != null ? data.moonPhaseCalendar(phase) : null), position);
+        }
+
+        public void bindDataToPosition(Context context, SuntimesMoonData1 data, SuntimesCalculator.MoonPhase phase, @Nullable Calendar phaseDate, int position)
         {
             this.position = position;
             this.phase = phase;
 
             showLabel(true);
-            if (data == null || !data.isImplemented() || !data.isCalculated())
+            if (data == null || !data.isImplemented() || !data.isCalculated() || phaseDate == null)
             {
                 field.setText("");
                 note.setText("");
@@ -509,7 +505,6 @@ public class MoonPhasesView1 extends LinearLayout
             boolean showHours = WidgetSettings.loadShowHoursPref(context, 0);
             boolean showSeconds = WidgetSettings.loadShowSecondsPref(context, 0);
 
-            Calendar phaseDate = data.moonPhaseCalendar(phase);
             MoonPhaseDisplay phaseDisplay = SuntimesMoonData1.toPhase(phase);
             CharSequence phaseLabel = phaseDisplay.getLongDisplayString();
             if (phase == SuntimesCalculator.MoonPhase.FULL || phase == SuntimesCalculator.MoonPhase.NEW)
@@ -83,7 +83,7 @@ public class MoonWidget0 extends SuntimesWidget0
 
         if (!layout.saveNextSuggestedUpdate(context, appWidgetId))
         {
-            WidgetSettings.RiseSetOrder order = WidgetSettings.loadRiseSetOrderPref(context, appWidgetId);
+            WidgetSettings.RiseSetOrder order = WidgetSettings.loadSnapshot(context, appWidgetId).riseSetOrder();
             if (order == WidgetSettings.RiseSetOrder.TODAY) {
                 WidgetSettings.saveNextSuggestedUpdate(context, appWidgetId, -1);
                 Log.d(TAG, "saveNextSuggestedUpdate: -1");
@@ -88,6 +88,7 @@ import com.forrestguice.suntimeswidget.calculator.SuntimesRiseSetDataset;
 import com.forrestguice.suntimeswidget.cards.CardAdapter;
 import com.forrestguice.suntimeswidget.cards.CardLayoutManager;
 import com.forrestguice.suntimeswidget.getfix.GetFixHelper;
+import com.forrestguice.suntimeswidget.getfix.GetFixTask;
 import com.forrestguice.suntimeswidget.getfix.GetFixUI;
 import com.forrestguice.suntimeswidget.map.WorldMapDialog;
 import com.forrestguice.suntimeswidget.notes.NoteChangedListener;
@@ -170,6 +171,7 @@ public class SuntimesActivity extends AppCompatActivity
     private GetFixHelper getFixHelper;
 
     private com.forrestguice.suntimeswidget.calculator.core.Location location;
+    private com.forrestguice.suntimeswidget.calculator.core.Location nearestPlace = null;    // labelled with the place nearest to the last fix
     protected SuntimesNotes notes;
     protected SuntimesRiseSetDataset dataset;
     protected SuntimesEquinoxSolsticeDataset dataset_equinox;
@@ -977,6 +979,9 @@ public class SuntimesActivity extends AppCompatActivity
                         com.forrestguice.suntimeswidget.calculator.core.Location location = new com.forrestguice.suntimeswidget.calculator.core.Location(getString(R.string.gps_lastfix_title_found), result);
                         WidgetSettings.saveLocationPref(SuntimesActivity.this, 0, location);
 
+                        String placeLabel = (result.getExtras() != null ? result.getExtras().getString(GetFixTask.EXTRA_NEAREST_PLACE) : null);
+                        nearestPlace = (placeLabel != null ? new com.forrestguice.suntimeswidget.calculator.core.Location(placeLabel, result) : null);
+
                     } else {
                         String msg = (wasCancelled ? getString(R.string.gps_lastfix_toast_cancelled) : getString(R.string.gps_lastfix_toast_notfound));
                         Toast errorMsg = Toast.makeText(SuntimesActivity.this, msg, Toast.LENGTH_LONG);
@@ -1179,6 +1184,12 @@ public class SuntimesActivity extends AppCompatActivity
             {
                 updateNoteUI(note, transition);
             }
+
+            @Override
+            public void onNoteTimeChanged(NoteData note)
+            {
+                updateNoteTimeUI(note);
+            }
         });
     }
 
@@ -1627,6 +1638,10 @@ public class SuntimesActivity extends AppCompatActivity
         WidgetSettings.LocationMode locationMode = WidgetSettings.loadLocationModePref(context, 0);
         location = WidgetSettings.loadLocationPref(context, AppWidgetManager.INVALID_APPWIDGET_ID);
         String locationTitle = (locationMode == WidgetSettings.LocationMode.CURRENT_LOCATION ? getString(R.string.gps_lastfix_title_found) : location.getLabel());
+        if (locationMode == WidgetSettings.LocationMode.CURRENT_LOCATION && nearestPlace != null
+                && nearestPlace.getLatitude().equals(location.getLatitude()) && nearestPlace.getLongitude().equals(location.getLongitude())) {
+            locationTitle = nearestPlace.getLabel();
+        }
 
         SpannableString locationSubtitle;
         String locationString = getString(R.string.location_format_latlon, location.getLatitude(), location.getLongitude());
@@ -2156,6 +2171,19 @@ public class SuntimesActivity extends AppCompatActivity
         iconParams.height = iconHeight;
     }
 
+    /**
+     * Updates the countdown of the displayed note (without flipping to a new note).
+     * @param note the current note
+     */
+    protected void updateNoteTimeUI( NoteData note )
+    {
+        TextView timeView = (note_flipper.getDisplayedChild() == 0) ? txt_time1_note1 : txt_time2_note1;
+        TextView prefixView = (note_flipper.getDisplayedChild() == 0) ? txt_time1_note2 : txt_time2_note2;
+        timeView.setText(note.timeText.toString());
+        prefixView.setText(note.prefixText);
+        prefixView.setVisibility(note.prefixText.isEmpty() ? View.GONE : View.VISIBLE);
+    }
+
     protected void updateNoteUI( NoteData note, int transition )
     {
         if (note_flipper.getDisplayedChild() == 0)
@@ -38,6 +38,7 @@ import android.support.annotation.Nullable;
 import android.support.design.widget.Snackbar;
 import android.support.v4.content.ContextCompat;
 import android.support.v4.content.res.ResourcesCompat;
+import android.support.v4.util.LruCache;
 import android.text.Html;
 import android.text.Spannable;
 
@@ -1089,7 +1090,7 @@ public class SuntimesUtils
         }
 
         WidgetSettings.TimeMode timeMode = data.timeMode();
-        WidgetSettings.RiseSetOrder order = WidgetSettings.loadRiseSetOrderPref(context, data.appWidgetID());
+        WidgetSettings.RiseSetOrder order = WidgetSettings.loadSnapshot(context, data.appWidgetID()).riseSetOrder();
 
         displayString = displayString.replaceAll(modePatternShort, timeMode.getShortDisplayString());
         displayString = displayString.replaceAll(modePattern, timeMode.getLongDisplayString());
@@ -1107,7 +1108,7 @@ public class SuntimesUtils
 
         if (data != null && data.isCalculated())
         {
-            WidgetSettings.RiseSetOrder order = WidgetSettings.loadRiseSetOrderPref(context, data.appWidgetID());
+            WidgetSettings.RiseSetOrder order = WidgetSettings.loadSnapshot(context, data.appWidgetID()).riseSetOrder();
 
             displayString = displayString.replaceAll(modePatternShort, data.getMoonPhaseToday().getShortDisplayString());
             displayString = displayString.replaceAll(modePattern, data.getMoonPhaseToday().getLongDisplayString());
@@ -1547,13 +1548,43 @@ public class SuntimesUtils
         return drawableToBitmap(context, drawable, w, h, pxValues);
     }
 
+    /**
+     * Icons rendered by gradientDrawableToBitmap and layerDrawableToBitmap are shared (process-wide) by all
+     * callers (widgets, views) that request the same icon; the returned bitmaps must not be modified or recycled.
+     */
+    private static final LruCache<String, Bitmap> iconCache = new LruCache<String, Bitmap>(iconCacheMaxBytes())
+    {
+        @Override
+        protected int sizeOf(String key, Bitmap bitmap) {
+            return bitmap.getRowBytes() * bitmap.getHeight();
+        }
+    };
+
+    /**
+     * @return 1/32 of the available heap (up to 4 MB)
+     */
+    private static int iconCacheMaxBytes() {
+        return (int)Math.min(Runtime.getRuntime().maxMemory() / 32, 4 * 1024 * 1024);
+    }
+
+    /**
+     * @return a key for (resource, fillColor, strokeColor, strokePx) rendered at w x h pixels (and densityDpi)
+     */
+    private static String iconKey(Context context, String type, int resourceID, int w, int h, int fillColor, int strokeColor, int strokePx) {
+        return type + "_" + resourceID + "_" + w + "x" + h + "_" + context.getResources().getDisplayMetrics().densityDpi + "_" + fillColor + "_" + strokeColor + "_" + strokePx;
+    }
+
+    public static void clearIconCache() {
+        iconCache.evictAll();
+    }
+
     /**
      * @param context context used to get resources
      * @param resourceID drawable resource ID to a GradientDrawable
      * @param fillColor fill color to apply to drawable
      * @param strokeColor stroke color to apply to drawable
      * @param strokePx width of stroke (pixels)
-     * @return a Bitmap of the drawable
+     * @return a Bitmap of the drawable (cached; must not be modified)
      */
     public static Bitmap gradientDrawableToBitmap(Context context, int resourceID, int fillColor, int strokeColor, int strokePx)
     {
@@ -1567,8 +1598,14 @@ public class SuntimesUtils
             h = gradient.getIntrinsicHeight();
         }
 
-        Drawable tinted =  tintDrawable(gradient, fillColor, strokeColor, strokePx);
-        return drawableToBitmap(context, tinted, w, h, true);
+        String key = iconKey(context, "gradient", resourceID, w, h, fillColor, strokeColor, strokePx);
+        Bitmap bitmap = iconCache.get(key);
+        if (bitmap == null)
+        {
+            Drawable tinted =  tintDrawable(gradient, fillColor, strokeColor, strokePx);
+            iconCache.put(key, (bitmap = drawableToBitmap(context, tinted, w, h, true)));
+        }
+        return bitmap;
     }
 
     /**
@@ -1613,7 +1650,7 @@ public class SuntimesUtils
      * @param fillColor fill color to apply to drawable
      * @param strokeColor stroke color to apply to drawable
      * @param strokePx width of stroke (pixels)
-     * @return a Bitmap of the drawable
+     * @return a Bitmap of the drawable (cached; must not be modified)
      */
     public static Bitmap layerDrawableToBitmap(Context context, int resourceID, int fillColor, int strokeColor, int strokePx)
     {
@@ -1628,8 +1665,14 @@ public class SuntimesUtils
             h = (layer0 != null ? layer0.getIntrinsicHeight() : layers.getIntrinsicHeight());
         }
 
-        Drawable tinted = tintDrawable(layers, fillColor, strokeColor, strokePx);
-        return drawableToBitmap(context, tinted, w, h, true);
+        String key = iconKey(context, "layer", resourceID, w, h, fillColor, strokeColor, strokePx);
+        Bitmap bitmap = iconCache.get(key);
+        if (bitmap == null)
+        {
+            Drawable tinted = tintDrawable(layers, fillColor, strokeColor, strokePx);
+            iconCache.put(key, (bitmap = drawableToBitmap(context, tinted, w, h, true)));
+        }
+        return bitmap;
     }
 
     public static Drawable tintDrawable(Drawable drawable, int fillColor, int strokeColor, int strokePixels)
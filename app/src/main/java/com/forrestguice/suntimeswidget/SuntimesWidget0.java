@@ -49,6 +49,7 @@ import com.forrestguice.suntimeswidget.settings.WidgetThemes;
 import com.forrestguice.suntimeswidget.themes.SuntimesTheme;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Calendar;
 
 import static com.forrestguice.suntimeswidget.SuntimesConfigActivity0.EXTRA_RECONFIGURE;
@@ -159,8 +160,13 @@ public class SuntimesWidget0 extends AppWidgetProvider
                 int[] appWidgetIds = extras.getIntArray(AppWidgetManager.EXTRA_APPWIDGET_IDS);
                 if (appWidgetIds != null)
                 {
-                    for (int appWidgetId : appWidgetIds) {
-                        setUpdateAlarm(context, appWidgetId);
+                    WidgetUpdateScheduler.beginBatch();
+                    try {
+                        for (int appWidgetId : appWidgetIds) {
+                            setUpdateAlarm(context, appWidgetId);
+                        }
+                    } finally {
+                        WidgetUpdateScheduler.endBatch(context);
                     }
                 }
             }
@@ -321,18 +327,82 @@ public class SuntimesWidget0 extends AppWidgetProvider
         initLocale(context);
         WidgetThemes.initThemes(context);
 
+        boolean startsBatch = (sharedDays == null);
+        if (startsBatch) {
+            sharedDays = new SuntimesRiseSetData.SharedDays();    // widgets sharing a calculator share results
+        }
+        try {
+            for (int appWidgetId : appWidgetIds)
+            {
+                updateWidget(context, appWidgetManager, appWidgetId);
+            }
+        } finally {
+            if (startsBatch) {
+                sharedDays = null;
+            }
+        }
+
+        super.onUpdate(context, appWidgetManager, appWidgetIds);
+    }
+
+    /**
+     * Results shared by the widgets of the current batch (see onUpdate, onScheduledUpdate); null outside of a batch.
+     */
+    protected SuntimesRiseSetData.SharedDays sharedDays = null;
+
+    /**
+     * Called by WidgetUpdateScheduler when the update time of one or more widgets has been reached.
+     * @param context the context
+     * @param appWidgetIds the widgetIDs that are due (0 to update all widgets)
+     * @param sharedDays results shared by every widget updated by the scheduler (may be null)
+     */
+    protected void onScheduledUpdate(Context context, int[] appWidgetIds, @Nullable SuntimesRiseSetData.SharedDays sharedDays)
+    {
+        this.sharedDays = sharedDays;
+        try {
+            onScheduledUpdate(context, appWidgetIds);
+        } finally {
+            this.sharedDays = null;
+        }
+    }
+
+    private void onScheduledUpdate(Context context, int[] appWidgetIds)
+    {
+        initLocale(context);
+        AppWidgetManager widgetManager = AppWidgetManager.getInstance(context);
+        int[] widgetIds = getWidgetIds(context, widgetManager).clone();
+        Arrays.sort(widgetIds);
+
+        ArrayList<Integer> updateList = new ArrayList<>();
         for (int appWidgetId : appWidgetIds)
         {
-            updateWidget(context, appWidgetManager, appWidgetId);
+            if (appWidgetId <= 0)
+            {
+                updateWidgets(context);
+                setUpdateAlarm(context, appWidgetId);
+
+            } else if (Arrays.binarySearch(widgetIds, appWidgetId) >= 0) {
+                updateList.add(appWidgetId);
+            }
         }
 
-        super.onUpdate(context, appWidgetManager, appWidgetIds);
+        if (updateList.size() > 0)
+        {
+            int[] updateIds = new int[updateList.size()];
+            for (int i = 0; i < updateIds.length; i++) {
+                updateIds[i] = updateList.get(i);
+            }
+            onUpdate(context, widgetManager, updateIds);
+            for (int appWidgetId : updateIds) {
+                setUpdateAlarm(context, appWidgetId);      // schedule next update
+            }
+        }
     }
 
     protected void updateWidget(Context context, AppWidgetManager appWidgetManager, int appWidgetId)
     {
         SunLayout defLayout = WidgetSettings.loadSun1x1ModePref_asLayout(context, appWidgetId);
-        SuntimesWidget0.updateAppWidget(context, appWidgetManager, appWidgetId, SuntimesWidget0.class, getMinSize(context), defLayout);
+        SuntimesWidget0.updateAppWidget(context, appWidgetManager, appWidgetId, SuntimesWidget0.class, getMinSize(context), defLayout, sharedDays);
     }
 
     public void initLocale(Context context)
@@ -470,11 +540,12 @@ public class SuntimesWidget0 extends AppWidgetProvider
      * @param context the application context
      * @param appWidgetManager widget manager
      * @param appWidgetId id of widget to be updated
+     * @param sharedDays results shared by the widgets of a batch (may be null)
      */
-    protected static void updateAppWidget(Context context, AppWidgetManager appWidgetManager, int appWidgetId, Class widgetClass, int[] defSize, SunLayout defLayout)
+    protected static void updateAppWidget(Context context, AppWidgetManager appWidgetManager, int appWidgetId, Class widgetClass, int[] defSize, SunLayout defLayout, @Nullable SuntimesRiseSetData.SharedDays sharedDays)
     {
         SunLayout layout = getWidgetLayout(context, appWidgetManager, appWidgetId, defSize, defLayout);
-        SuntimesWidget0.updateAppWidget(context, appWidgetManager, appWidgetId, layout, widgetClass);
+        SuntimesWidget0.updateAppWidget(context, appWidgetManager, appWidgetId, layout, widgetClass, sharedDays);
     }
 
     /**
@@ -482,10 +553,12 @@ public class SuntimesWidget0 extends AppWidgetProvider
      * @param appWidgetManager widget manager
      * @param appWidgetId id of the widget to be updated
      * @param layout a SuntimesLayout managing the views to be updated
+     * @param sharedDays results shared by the widgets of a batch (may be null)
      */
-    protected static void updateAppWidget(Context context, AppWidgetManager appWidgetManager, int appWidgetId, SunLayout layout, Class widgetClass)
+    protected static void updateAppWidget(Context context, AppWidgetManager appWidgetManager, int appWidgetId, SunLayout layout, Class widgetClass, @Nullable SuntimesRiseSetData.SharedDays sharedDays)
     {
         SuntimesRiseSetData data = getRiseSetData(context, appWidgetId);
+        data.setSharedDays(sharedDays);
         data.calculate();
 
         boolean showSolarNoon = WidgetSettings.loadShowNoonPref(context, appWidgetId);
@@ -511,7 +584,7 @@ public class SuntimesWidget0 extends AppWidgetProvider
 
         if (!layout.saveNextSuggestedUpdate(context, appWidgetId))
         {
-            WidgetSettings.RiseSetOrder order = WidgetSettings.loadRiseSetOrderPref(context, appWidgetId);
+            WidgetSettings.RiseSetOrder order = WidgetSettings.loadSnapshot(context, appWidgetId).riseSetOrder();
             if (order == WidgetSettings.RiseSetOrder.TODAY) {
                 WidgetSettings.saveNextSuggestedUpdate(context, appWidgetId, -1);
                 Log.d(TAG, "saveNextSuggestedUpdate: -1");
@@ -532,7 +605,7 @@ public class SuntimesWidget0 extends AppWidgetProvider
      */
     protected static SuntimesRiseSetData getRiseSetData(Context context, int appWidgetId)
     {
-        WidgetSettings.RiseSetOrder order = WidgetSettings.loadRiseSetOrderPref(context, appWidgetId);
+        WidgetSettings.RiseSetOrder order = WidgetSettings.loadSnapshot(context, appWidgetId).riseSetOrder();
         return (order == WidgetSettings.RiseSetOrder.TODAY)
                 ? new SuntimesRiseSetData(context, appWidgetId) : new SuntimesRiseSetData2(context, appWidgetId);
     }
@@ -568,46 +641,50 @@ public class SuntimesWidget0 extends AppWidgetProvider
      */
     protected void setUpdateAlarms( Context context )
     {
-        for (int appWidgetID : getWidgetIds(context)) {
-            setUpdateAlarm(context, appWidgetID);
+        WidgetUpdateScheduler.beginBatch();
+        try {
+            for (int appWidgetID : getWidgetIds(context)) {
+                setUpdateAlarm(context, appWidgetID);
+            }
+        } finally {
+            WidgetUpdateScheduler.endBatch(context);
         }
     }
     protected void unsetUpdateAlarms( Context context )
     {
-        for (int appWidgetID : getWidgetIds(context)) {
-            unsetUpdateAlarm(context, appWidgetID);
+        WidgetUpdateScheduler.beginBatch();
+        try {
+            for (int appWidgetID : getWidgetIds(context)) {
+                unsetUpdateAlarm(context, appWidgetID);
+            }
+        } finally {
+            WidgetUpdateScheduler.endBatch(context);
         }
     }
 
     /**
-     * Start widget updates; register an alarm (inexactRepeating) that does not wake the device.
+     * Start widget updates; schedules the next update with the WidgetUpdateScheduler (a single alarm shared by all widgets
+     * that does not wake the device).
      * @param context the context
      */
     protected void setUpdateAlarm( Context context, int alarmID )
     {
-        AlarmManager alarmManager = (AlarmManager)context.getSystemService(Context.ALARM_SERVICE);
-        if (alarmManager != null)
+        long updateTime = getUpdateTimeMillis(context, alarmID);
+        if (updateTime > 0)
         {
-            PendingIntent alarmIntent = getUpdateIntent(context, alarmID);
-            long updateTime = getUpdateTimeMillis(context, alarmID);
-            if (updateTime > 0)
-            {
-                if (Build.VERSION.SDK_INT < 19) {
-                    alarmManager.set(AlarmManager.RTC, updateTime, alarmIntent);
-                } else {
-                    alarmManager.setWindow(AlarmManager.RTC, updateTime, 5 * 1000, alarmIntent);
-                }
-                Log.d(TAG, "setUpdateAlarm: " + utils.calendarDateTimeDisplayString(context, updateTime).toString() + " --> " + getUpdateIntentFilter() + "(" + alarmID + ") :: " + utils.timeDeltaLongDisplayString(getUpdateInterval(), true) );
-            } else Log.d(TAG, "setUpdateAlarm: skipping " + alarmID);
-        }
+            WidgetUpdateScheduler.schedule(context, getClass(), alarmID, updateTime);
+            Log.d(TAG, "setUpdateAlarm: " + utils.calendarDateTimeDisplayString(context, updateTime).toString() + " --> " + getUpdateIntentFilter() + "(" + alarmID + ") :: " + utils.timeDeltaLongDisplayString(getUpdateInterval(), true) );
+        } else Log.d(TAG, "setUpdateAlarm: skipping " + alarmID);
     }
 
     /**
-     * Stop widget updates; unregisters the update alarm.
+     * Stop widget updates; removes the widget from the WidgetUpdateScheduler (and cancels any per widget alarm left by earlier versions).
      * @param context the context
      */
     protected void unsetUpdateAlarm( Context context, int alarmID )
     {
+        WidgetUpdateScheduler.unschedule(context, getClass(), alarmID);
+
         AlarmManager alarmManager = (AlarmManager)context.getSystemService(Context.ALARM_SERVICE);
         if (alarmManager != null)
         {
@@ -41,7 +41,7 @@ public class SuntimesWidget2_3x1 extends SuntimesWidget2
     @Override
     protected void updateWidget(Context context, AppWidgetManager appWidgetManager, int appWidgetId)
     {
-        SuntimesWidget2.updateAppWidget(context, appWidgetManager, appWidgetId, SuntimesWidget2_3x1.class, getMinSize(context), new SunPosLayout_3X1_0());
+        SuntimesWidget2.updateAppWidget(context, appWidgetManager, appWidgetId, SuntimesWidget2_3x1.class, getMinSize(context), new SunPosLayout_3X1_0(), sharedDays);
     }
 
 }
@@ -41,7 +41,7 @@ public class SuntimesWidget2_3x2 extends SuntimesWidget2
     @Override
     protected void updateWidget(Context context, AppWidgetManager appWidgetManager, int appWidgetId)
     {
-        SuntimesWidget2.updateAppWidget(context, appWidgetManager, appWidgetId, SuntimesWidget2_3x2.class, getMinSize(context), new SunPosLayout_3X2_0());
+        SuntimesWidget2.updateAppWidget(context, appWidgetManager, appWidgetId, SuntimesWidget2_3x2.class, getMinSize(context), new SunPosLayout_3X2_0(), sharedDays);
     }
 
 }
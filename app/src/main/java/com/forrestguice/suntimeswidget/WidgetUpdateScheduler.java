@@ -0,0 +1,249 @@
+/**
+    Copyright (C) 2020 Forrest Guice
+    This file is part of SuntimesWidget.
+
+    SuntimesWidget is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    SuntimesWidget is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with SuntimesWidget.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package com.forrestguice.suntimeswidget;
+
+import android.app.AlarmManager;
+import android.app.PendingIntent;
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+import android.content.SharedPreferences;
+import android.os.Build;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.util.Log;
+
+import com.forrestguice.suntimeswidget.calculator.SuntimesRiseSetData;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * WidgetUpdateScheduler
+ * Schedules the updates of all widgets (every provider) using a single alarm. Each widget's next update time is
+ * kept (see SuntimesWidget0.setUpdateAlarm); the alarm is set for the soonest of these. When the alarm fires, every
+ * widget that is due within COALESCE_MILLIS is updated in one batch (widgets that share a calculator share their
+ * calculations; see SuntimesRiseSetData.SharedDays), and the alarm is set again.
+ */
+public class WidgetUpdateScheduler extends BroadcastReceiver
+{
+    public static final String TAG = "WidgetUpdateScheduler";
+    public static final String ACTION_UPDATE = "suntimes.SUNTIMES_WIDGET_UPDATE_DUE";
+    public static final String PREFS_SCHEDULER = "com.forrestguice.suntimeswidget.scheduler";
+
+    public static final long COALESCE_MILLIS = 10 * 1000;    // updates due within 10s of the alarm are delivered together
+    public static final long WINDOW_MILLIS = 5 * 1000;
+    private static final char KEY_SEPARATOR = '#';
+
+    private static int batchDepth = 0;
+
+    @Override
+    public void onReceive(Context context, Intent intent)
+    {
+        String action = intent.getAction();
+        if (ACTION_UPDATE.equals(action))
+        {
+            Log.d(TAG, "onReceive: " + action);
+            updateDueWidgets(context);
+
+        } else {
+            Log.w(TAG, "onReceive: unhandled :: " + action);
+        }
+    }
+
+    /**
+     * @param context the context
+     * @param widgetClass the widget provider (SuntimesWidget0 or subclass)
+     * @param appWidgetId the widget id (or 0 to update all widgets of the provider)
+     * @param updateTime the time of the next update (millis)
+     */
+    public static void schedule(Context context, @NonNull Class widgetClass, int appWidgetId, long updateTime)
+    {
+        SharedPreferences.Editor prefs = context.getSharedPreferences(PREFS_SCHEDULER, 0).edit();
+        prefs.putLong(scheduleKey(widgetClass.getName(), appWidgetId), updateTime);
+        prefs.apply();
+        if (!isBatching()) {
+            reschedule(context);
+        }
+    }
+
+    public static void unschedule(Context context, @NonNull Class widgetClass, int appWidgetId)
+    {
+        SharedPreferences.Editor prefs = context.getSharedPreferences(PREFS_SCHEDULER, 0).edit();
+        prefs.remove(scheduleKey(widgetClass.getName(), appWidgetId));
+        prefs.apply();
+        if (!isBatching()) {
+            reschedule(context);
+        }
+    }
+
+    /**
+     * Defers setting the alarm while several widgets are (re)scheduled; every call must be followed by endBatch.
+     */
+    public static synchronized void beginBatch() {
+        batchDepth++;
+    }
+
+    public static void endBatch(Context context)
+    {
+        boolean done;
+        synchronized (WidgetUpdateScheduler.class)
+        {
+            batchDepth = Math.max(0, batchDepth - 1);
+            done = (batchDepth == 0);
+        }
+        if (done) {
+            reschedule(context);
+        }
+    }
+
+    private static synchronized boolean isBatching() {
+        return (batchDepth > 0);
+    }
+
+    /**
+     * Sets (or cancels) the alarm to match the scheduled updates.
+     * @param context the context
+     */
+    public static void reschedule(Context context)
+    {
+        AlarmManager alarmManager = (AlarmManager)context.getSystemService(Context.ALARM_SERVICE);
+        if (alarmManager == null) {
+            return;
+        }
+
+        long alarmTime = nextAlarmTime(context.getSharedPreferences(PREFS_SCHEDULER, 0).getAll());
+        PendingIntent alarmIntent = getAlarmIntent(context);
+        if (alarmTime <= 0)
+        {
+            alarmManager.cancel(alarmIntent);
+            Log.d(TAG, "reschedule: nothing scheduled; unset alarm");
+            return;
+        }
+
+        if (Build.VERSION.SDK_INT < 19) {
+            alarmManager.set(AlarmManager.RTC, alarmTime, alarmIntent);
+        } else {
+            alarmManager.setWindow(AlarmManager.RTC, alarmTime, WINDOW_MILLIS, alarmIntent);
+        }
+        Log.d(TAG, "reschedule: next update at " + alarmTime);
+    }
+
+    /**
+     * @param scheduled scheduled update times (by key)
+     * @return the soonest update time (or -1 if nothing is scheduled)
+     */
+    protected static long nextAlarmTime(Map<String, ?> scheduled)
+    {
+        long soonest = Long.MAX_VALUE;
+        for (Object value : scheduled.values())
+        {
+            if (value instanceof Long && (Long) value < soonest) {
+                soonest = (Long) value;
+            }
+        }
+        return (soonest == Long.MAX_VALUE ? -1 : soonest);
+    }
+
+    /**
+     * Updates every widget whose update time has been reached (or falls within COALESCE_MILLIS), then sets the alarm again.
+     * @param context the context
+     */
+    public static void updateDueWidgets(Context context)
+    {
+        long dueTime = System.currentTimeMillis() + COALESCE_MILLIS;
+        SharedPreferences prefs = context.getSharedPreferences(PREFS_SCHEDULER, 0);
+        SharedPreferences.Editor editor = prefs.edit();
+
+        LinkedHashMap<String, ArrayList<Integer>> due = new LinkedHashMap<>();
+        for (Map.Entry<String, ?> entry : prefs.getAll().entrySet())
+        {
+            Object value = entry.getValue();
+            if (!(value instanceof Long) || (Long) value <= dueTime)
+            {
+                String key = entry.getKey();
+                editor.remove(key);
+
+                int i = key.lastIndexOf(KEY_SEPARATOR);
+                if (i > 0)
+                {
+                    try {
+                        String widgetClass = key.substring(0, i);
+                        int appWidgetId = Integer.parseInt(key.substring(i + 1));
+                        ArrayList<Integer> ids = due.get(widgetClass);
+                        if (ids == null) {
+                            due.put(widgetClass, (ids = new ArrayList<>()));
+                        }
+                        ids.add(appWidgetId);
+
+                    } catch (NumberFormatException e) {
+                        Log.w(TAG, "updateDueWidgets: invalid key: " + key);
+                    }
+                }
+            }
+        }
+        editor.apply();
+
+        SuntimesRiseSetData.SharedDays sharedDays = new SuntimesRiseSetData.SharedDays();
+        beginBatch();
+        try {
+            for (Map.Entry<String, ArrayList<Integer>> entry : due.entrySet())
+            {
+                SuntimesWidget0 provider = createProvider(entry.getKey());
+                if (provider != null)
+                {
+                    ArrayList<Integer> ids = entry.getValue();
+                    int[] appWidgetIds = new int[ids.size()];
+                    for (int i=0; i<appWidgetIds.length; i++) {
+                        appWidgetIds[i] = ids.get(i);
+                    }
+                    Log.d(TAG, "updateDueWidgets: " + entry.getKey() + " :: " + ids);
+                    provider.onScheduledUpdate(context, appWidgetIds, sharedDays);
+                }
+            }
+        } finally {
+            endBatch(context);
+        }
+    }
+
+    @Nullable
+    protected static SuntimesWidget0 createProvider(String className)
+    {
+        try {
+            Class<?> widgetClass = Class.forName(className);
+            return (SuntimesWidget0) widgetClass.newInstance();
+
+        } catch (ClassNotFoundException | InstantiationException | IllegalAccessException | ClassCastException e) {
+            Log.e(TAG, "createProvider: failed to create " + className + " :: " + e);
+            return null;
+        }
+    }
+
+    protected static String scheduleKey(String widgetClass, int appWidgetId) {
+        return widgetClass + KEY_SEPARATOR + appWidgetId;
+    }
+
+    protected static PendingIntent getAlarmIntent(Context context)
+    {
+        Intent intent = new Intent(context, WidgetUpdateScheduler.class);
+        intent.setAction(ACTION_UPDATE);
+        return PendingIntent.getBroadcast(context, 0, intent, 0);
+    }
+}
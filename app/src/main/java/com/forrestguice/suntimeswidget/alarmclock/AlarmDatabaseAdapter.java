@@ -36,6 +36,7 @@ import android.util.Log;
 
 import java.lang.ref.WeakReference;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 
@@ -336,6 +337,70 @@ public class AlarmDatabaseAdapter
         return database.update(TABLE_ALARMSTATE, values, KEY_STATE_ALARMID + "=" + row, null) > 0;
     }
 
+    /**
+     * Update several alarms in a single transaction.
+     * @param items the items to write
+     * @param withState true to also write each item's state
+     * @return true if all items were updated
+     */
+    public boolean updateAlarms( Collection<AlarmClockItem> items, boolean withState )
+    {
+        boolean updated = true;
+        database.beginTransaction();
+        try {
+            for (AlarmClockItem item : items)
+            {
+                boolean itemUpdated = updateAlarm(item.rowID, item.asContentValues(false));
+                if (itemUpdated && withState && item.state != null) {
+                    updateAlarmState(item.rowID, item.state.asContentValues());
+                }
+                updated = updated && itemUpdated;
+            }
+            database.setTransactionSuccessful();
+
+        } finally {
+            database.endTransaction();
+        }
+        return updated;
+    }
+
+    /**
+     * Get alarms (and their state) from the database.
+     * @param context context used to create the items
+     * @param enabledOnly true get enabled alarms only
+     * @return a list of items
+     */
+    public List<AlarmClockItem> getAlarmItems( Context context, boolean enabledOnly )
+    {
+        ArrayList<AlarmClockItem> items = new ArrayList<>();
+        Cursor cursor = getAllAlarms(0, true, enabledOnly);
+        if (cursor != null)
+        {
+            while (!cursor.isAfterLast())
+            {
+                ContentValues itemValues = new ContentValues();
+                DatabaseUtils.cursorRowToContentValues(cursor, itemValues);
+                AlarmClockItem item = new AlarmClockItem(context, itemValues);
+
+                Cursor cursor1 = getAlarmState(item.rowID);
+                if (cursor1 != null)
+                {
+                    if (!cursor1.isAfterLast())
+                    {
+                        ContentValues stateValues = new ContentValues();
+                        DatabaseUtils.cursorRowToContentValues(cursor1, stateValues);
+                        item.state = new AlarmState(stateValues);
+                    }
+                    cursor1.close();
+                }
+                items.add(item);
+                cursor.moveToNext();
+            }
+            cursor.close();
+        }
+        return items;
+    }
+
     public String addAlarmCSV_header()
     {
         String separator = ", ";
@@ -0,0 +1,383 @@
+/**
+    Copyright (C) 2020 Forrest Guice
+    This file is part of SuntimesWidget.
+
+    SuntimesWidget is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    SuntimesWidget is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with SuntimesWidget.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package com.forrestguice.suntimeswidget.alarmclock;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.util.Log;
+
+import com.forrestguice.suntimeswidget.calculator.SuntimesData;
+import com.forrestguice.suntimeswidget.calculator.SuntimesMoonData;
+import com.forrestguice.suntimeswidget.calculator.SuntimesRiseSetData;
+import com.forrestguice.suntimeswidget.calculator.core.Location;
+import com.forrestguice.suntimeswidget.settings.SolarEvents;
+import com.forrestguice.suntimeswidget.settings.WidgetSettings;
+
+import java.util.Calendar;
+import java.util.HashMap;
+import java.util.List;
+import java.util.TimeZone;
+
+/**
+ * AlarmEventSearch
+ * Finds the next occurrence of a sun or moon event (plus offset) that is after "now" and falls on one
+ * of the repeating days. Days that aren't in the repeat mask are jumped over without calculating, and
+ * days where the sun never crosses the event's altitude (polar day/night) are skipped using an
+ * approximate declination; the search gives up after MAX_SEARCH_DAYS.
+ *
+ * Results are memoized per day by SunEventSeries and MoonEventSeries; a SeriesCache shares series between
+ * alarms with the same location and calculator (e.g. when rescheduling all alarms). Calculator instances
+ * come from the SuntimesCalculatorFactory pool.
+ */
+public class AlarmEventSearch
+{
+    public static final String TAG = "AlarmEventSearch";
+
+    public static final int MAX_SEARCH_DAYS = 2 * 366;
+    public static final double ALTITUDE_MARGIN = 2;    // degrees; allows for error in the approximate declination (and refraction)
+
+    /**
+     * @return the sun altitude (degrees) that defines the given mode, or null if the event occurs every day (noon)
+     */
+    @Nullable
+    public static Double thresholdAltitude(WidgetSettings.TimeMode mode)
+    {
+        switch (mode)
+        {
+            case NOON: return null;
+            case GOLD: return 6d;
+            case BLUE4: return -4d;
+            case CIVIL: return -6d;
+            case BLUE8: return -8d;
+            case NAUTICAL: return -12d;
+            case ASTRONOMICAL: return -18d;
+            case OFFICIAL: default: return -0.833d;
+        }
+    }
+
+    /**
+     * @param day the day
+     * @return approximate solar declination (degrees) for the day (Cooper's equation; error is about a degree)
+     */
+    public static double approxDeclination(Calendar day) {
+        return -23.44 * Math.cos(Math.toRadians((360d / 365d) * (day.get(Calendar.DAY_OF_YEAR) + 10)));
+    }
+
+    /**
+     * @return false if the sun stays above (or below) the given altitude all day, true if it might cross it
+     */
+    public static boolean mayCross(double latitude, double declination, double altitude, double margin)
+    {
+        double maxAltitude = 90 - Math.abs(latitude - declination);     // upper culmination
+        double minAltitude = -90 + Math.abs(latitude + declination);    // lower culmination
+        return (maxAltitude + margin >= altitude) && (minAltitude - margin <= altitude);
+    }
+
+    /**
+     * @return the number of days until a day in repeatingDays (0 if the day itself is included), or -1 if repeatingDays is empty
+     */
+    public static int daysUntilRepeatingDay(Calendar day, @Nullable List<Integer> repeatingDays)
+    {
+        if (repeatingDays == null || repeatingDays.isEmpty()) {
+            return -1;
+        }
+        int dayOfWeek = day.get(Calendar.DAY_OF_WEEK);
+        for (int i = 0; i < 7; i++)
+        {
+            if (repeatingDays.contains(((dayOfWeek - 1 + i) % 7) + 1)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @param sunData data initialized with the event's location and time mode
+     * @param rising true to find the rising event (false the setting event)
+     * @return the next event time (with alarmTime = eventTime + offset after now), or null if not found
+     */
+    @Nullable
+    public static Calendar findNextSunEvent(@NonNull SuntimesRiseSetData sunData, boolean rising, long offset, boolean repeating, @Nullable List<Integer> repeatingDays, @NonNull Calendar now) {
+        return findNextSunEvent(new SunEventSeries(sunData), rising, offset, repeating, repeatingDays, now);
+    }
+
+    /**
+     * @param series the event series (may be shared by other alarms with the same location and time mode)
+     * @param rising true to find the rising event (false the setting event)
+     * @return the next event time (with alarmTime = eventTime + offset after now), or null if not found
+     */
+    @Nullable
+    public static Calendar findNextSunEvent(@NonNull SunEventSeries series, boolean rising, long offset, boolean repeating, @Nullable List<Integer> repeatingDays, @NonNull Calendar now)
+    {
+        SuntimesRiseSetData sunData = series.data();
+        Double altitude = thresholdAltitude(sunData.timeMode());
+        Double latitude = (sunData.location() != null ? sunData.location().getLatitudeAsDouble() : null);
+
+        Calendar day = startDay(sunData.timezone());
+        Calendar alarmTime = Calendar.getInstance();
+        int i = 0, c = 0;
+        while (i < MAX_SEARCH_DAYS)
+        {
+            if (repeating)
+            {
+                int skip = daysUntilRepeatingDay(day, repeatingDays);
+                if (skip < 0) {
+                    return null;
+                } else if (skip > 0) {
+                    day.add(Calendar.DAY_OF_YEAR, skip);
+                    i += skip;
+                    continue;
+                }
+            }
+
+            if (altitude == null || latitude == null || mayCross(latitude, approxDeclination(day), altitude, ALTITUDE_MARGIN))
+            {
+                Calendar eventTime = series.eventTime(day, rising);
+                c++;
+
+                if (eventTime != null)
+                {
+                    alarmTime.setTimeInMillis(eventTime.getTimeInMillis() + offset);
+                    if (!now.after(alarmTime) && (!repeating || repeatingDays.contains(eventTime.get(Calendar.DAY_OF_WEEK))))
+                    {
+                        Log.d(TAG, "findNextSunEvent: found after " + i + " days (" + c + " calculated)");
+                        return eventTime;
+                    }
+                }
+            }
+            day.add(Calendar.DAY_OF_YEAR, 1);
+            i++;
+        }
+        Log.e(TAG, "findNextSunEvent: not found within " + MAX_SEARCH_DAYS + " days (" + c + " calculated)");
+        return null;
+    }
+
+    /**
+     * @param moonData data initialized with the event's location
+     * @param event MOONRISE, MOONSET, MOONNOON, or MOONNIGHT
+     * @return the next event time (with alarmTime = eventTime + offset after now), or null if not found
+     */
+    @Nullable
+    public static Calendar findNextMoonEvent(@NonNull SuntimesMoonData moonData, @NonNull SolarEvents event, long offset, boolean repeating, @Nullable List<Integer> repeatingDays, @NonNull Calendar now) {
+        return findNextMoonEvent(new MoonEventSeries(moonData), event, offset, repeating, repeatingDays, now);
+    }
+
+    /**
+     * @param series the event series (may be shared by other alarms with the same location)
+     * @param event MOONRISE, MOONSET, MOONNOON, or MOONNIGHT
+     * @return the next event time (with alarmTime = eventTime + offset after now), or null if not found
+     */
+    @Nullable
+    public static Calendar findNextMoonEvent(@NonNull MoonEventSeries series, @NonNull SolarEvents event, long offset, boolean repeating, @Nullable List<Integer> repeatingDays, @NonNull Calendar now)
+    {
+        Calendar day = startDay(series.data().timezone());
+        Calendar alarmTime = Calendar.getInstance();
+        int i = 0;
+        while (i < MAX_SEARCH_DAYS)
+        {
+            if (repeating)
+            {
+                int skip = daysUntilRepeatingDay(day, repeatingDays);
+                if (skip < 0) {
+                    return null;
+                } else if (skip > 0) {
+                    day.add(Calendar.DAY_OF_YEAR, skip);
+                    i += skip;
+                    continue;
+                }
+            }
+
+            Calendar eventTime = series.eventTime(day, event);
+            if (eventTime != null)
+            {
+                alarmTime.setTimeInMillis(eventTime.getTimeInMillis() + offset);
+                if (!now.after(alarmTime) && (!repeating || repeatingDays.contains(eventTime.get(Calendar.DAY_OF_WEEK)))) {
+                    return eventTime;
+                }
+            }
+            day.add(Calendar.DAY_OF_YEAR, 1);
+            i++;
+        }
+        Log.e(TAG, "findNextMoonEvent: not found within " + MAX_SEARCH_DAYS + " days");
+        return null;
+    }
+
+    /**
+     * @param timezone the data's timezone
+     * @return today (in the data's timezone); days are stepped (and matched against repeatingDays) in the same timezone as the events
+     */
+    private static Calendar startDay(@Nullable TimeZone timezone) {
+        return (timezone != null ? Calendar.getInstance(timezone) : Calendar.getInstance());
+    }
+
+    /**
+     * @return a key for the day (unique within a few thousand years)
+     */
+    public static int dayKey(Calendar day) {
+        return day.get(Calendar.YEAR) * 1000 + day.get(Calendar.DAY_OF_YEAR);
+    }
+
+    /**
+     * SunEventSeries
+     * Rising and setting times for a single location and time mode, calculated at most once per day.
+     */
+    public static class SunEventSeries
+    {
+        private final SuntimesRiseSetData data;
+        private final HashMap<Integer, Calendar[]> days = new HashMap<>();
+
+        public SunEventSeries(@NonNull SuntimesRiseSetData data) {
+            this.data = data;
+        }
+
+        public SuntimesRiseSetData data() {
+            return data;
+        }
+
+        /**
+         * @return the rising (or setting) time on the given day (seconds cleared), or null if the event doesn't occur
+         */
+        @Nullable
+        public Calendar eventTime(@NonNull Calendar day, boolean rising)
+        {
+            int key = dayKey(day);
+            Calendar[] events = days.get(key);
+            if (events == null)
+            {
+                data.setTodayIs(day);
+                data.calculate();
+                events = new Calendar[] { truncateSeconds(data.sunriseCalendarToday()), truncateSeconds(data.sunsetCalendarToday()) };
+                days.put(key, events);
+            }
+            Calendar event = events[rising ? 0 : 1];
+            return (event != null ? (Calendar) event.clone() : null);
+        }
+    }
+
+    /**
+     * MoonEventSeries
+     * Moonrise, moonset, lunar noon and lunar midnight for a single location, calculated at most once per day.
+     */
+    public static class MoonEventSeries
+    {
+        private static final SolarEvents[] EVENTS = new SolarEvents[] { SolarEvents.MOONRISE, SolarEvents.MOONSET, SolarEvents.MOONNOON, SolarEvents.MOONNIGHT };
+
+        private final SuntimesMoonData data;
+        private final HashMap<Integer, Calendar[]> days = new HashMap<>();
+
+        public MoonEventSeries(@NonNull SuntimesMoonData data) {
+            this.data = data;
+        }
+
+        public SuntimesMoonData data() {
+            return data;
+        }
+
+        /**
+         * @param event MOONRISE, MOONSET, MOONNOON, or MOONNIGHT
+         * @return the event time on the given day (seconds cleared), or null if the event doesn't occur
+         */
+        @Nullable
+        public Calendar eventTime(@NonNull Calendar day, @NonNull SolarEvents event)
+        {
+            int key = dayKey(day);
+            Calendar[] events = days.get(key);
+            if (events == null)
+            {
+                data.setTodayIs(day);
+                data.calculate();
+                events = new Calendar[EVENTS.length];
+                for (int i=0; i<EVENTS.length; i++) {
+                    events[i] = truncateSeconds(AlarmNotifications.moonEventCalendar(EVENTS[i], data, true));
+                }
+                days.put(key, events);
+            }
+
+            int i = (event == SolarEvents.MOONRISE ? 0 : event == SolarEvents.MOONNOON ? 2 : event == SolarEvents.MOONNIGHT ? 3 : 1);
+            return (events[i] != null ? (Calendar) events[i].clone() : null);
+        }
+    }
+
+    @Nullable
+    private static Calendar truncateSeconds(@Nullable Calendar calendar)
+    {
+        if (calendar != null)
+        {
+            calendar = (Calendar) calendar.clone();
+            calendar.set(Calendar.SECOND, 0);
+        }
+        return calendar;
+    }
+
+    /**
+     * SeriesCache
+     * Shares event series between alarms that use the same location and calculator. Series for the same
+     * location (e.g. sunrise and civil dawn alarms at the same place) get their calculator from the
+     * SuntimesCalculatorFactory pool, so they share an instance when the calculator is thread safe.
+     */
+    public static class SeriesCache
+    {
+        private final HashMap<String, SunEventSeries> sunSeries = new HashMap<>();
+        private final HashMap<String, MoonEventSeries> moonSeries = new HashMap<>();
+
+        /**
+         * @return a key for the (location, calculator, timezone) that data was initialized with
+         */
+        public static String groupKey(@NonNull SuntimesData data)
+        {
+            Location location = data.location();
+            return (location != null ? location.coordinateKey() : "null")
+                    + "_" + (data.calculatorMode() != null ? data.calculatorMode().getName() : "default")
+                    + "_" + (data.timezone() != null ? data.timezone().getID() : "default");
+        }
+
+        /**
+         * @param sunData data initialized with the event's location and time mode (used if the series isn't cached)
+         * @return a series shared by all alarms in the same group (and time mode)
+         */
+        public SunEventSeries getSunSeries(@NonNull SuntimesRiseSetData sunData)
+        {
+            String group = groupKey(sunData);
+            String key = group + "_" + sunData.timeMode();
+            SunEventSeries series = sunSeries.get(key);
+            if (series == null) {
+                sunSeries.put(key, (series = new SunEventSeries(sunData)));
+            }
+            return series;
+        }
+
+        /**
+         * @param moonData data initialized with the event's location (used if the series isn't cached)
+         * @return a series shared by all alarms in the same group
+         */
+        public MoonEventSeries getMoonSeries(@NonNull SuntimesMoonData moonData)
+        {
+            String group = groupKey(moonData);
+            MoonEventSeries series = moonSeries.get(group);
+            if (series == null) {
+                moonSeries.put(group, (series = new MoonEventSeries(moonData)));
+            }
+            return series;
+        }
+
+        public int numSeries() {
+            return sunSeries.size() + moonSeries.size();
+        }
+    }
+}
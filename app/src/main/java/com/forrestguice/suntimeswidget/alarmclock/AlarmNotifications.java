@@ -846,13 +846,24 @@ public class AlarmNotifications extends BroadcastReceiver
                     if (AlarmNotifications.ACTION_SCHEDULE.equals(action) || Intent.ACTION_BOOT_COMPLETED.equals(action))
                     {
                         Log.d(TAG, action + ": schedule all");
-                        AlarmDatabaseAdapter.AlarmListTask alarmListTask = new AlarmDatabaseAdapter.AlarmListTask(getApplicationContext());
-                        alarmListTask.setParam_enabledOnly(true);
-                        alarmListTask.setAlarmItemTaskListener(new AlarmDatabaseAdapter.AlarmListTask.AlarmListTaskListener() {
+                        RescheduleTask rescheduleTask = new RescheduleTask(getApplicationContext());
+                        rescheduleTask.setTaskListener(new RescheduleTask.RescheduleTaskListener()
+                        {
                             @Override
-                            public void onItemsLoaded(Long[] ids)
+                            public void onFinished(Boolean result, List<AlarmClockItem> rescheduled, List<AlarmClockItem> failed, List<AlarmClockItem> unchanged)
                             {
-                                final AlarmDatabaseAdapter.AlarmListObserver observer = new AlarmDatabaseAdapter.AlarmListObserver(ids, new AlarmDatabaseAdapter.AlarmListObserver.AlarmListObserverListener()
+                                ArrayList<Long> ids = new ArrayList<>();
+                                for (AlarmClockItem item : rescheduled) {
+                                    ids.add(item.rowID);
+                                }
+                                for (AlarmClockItem item : failed) {
+                                    ids.add(item.rowID);
+                                }
+                                for (AlarmClockItem item : unchanged) {
+                                    ids.add(item.rowID);
+                                }
+
+                                final AlarmDatabaseAdapter.AlarmListObserver observer = new AlarmDatabaseAdapter.AlarmListObserver(ids.toArray(new Long[0]), new AlarmDatabaseAdapter.AlarmListObserver.AlarmListObserverListener()
                                 {
                                     @Override
                                     public void onObservedAll() {
@@ -865,7 +876,7 @@ public class AlarmNotifications extends BroadcastReceiver
                                     }
                                 });
 
-                                if (ids.length == 0) {
+                                if (ids.isEmpty()) {
                                     observer.notify(null);
                                     return;
                                 }
@@ -878,15 +889,25 @@ public class AlarmNotifications extends BroadcastReceiver
                                         observer.notify(item.rowID);
                                     }
                                 };
-                                for (long id : ids)
-                                {
-                                    AlarmDatabaseAdapter.AlarmItemTask itemTask = new AlarmDatabaseAdapter.AlarmItemTask(getApplicationContext());
-                                    itemTask.addAlarmItemTaskListener(createAlarmOnReceiveListener(getApplicationContext(), AlarmNotifications.ACTION_RESCHEDULE, notifyObserver));
-                                    itemTask.execute(id);
+
+                                AlarmDatabaseAdapter.AlarmItemTaskListener onSchedule = createAlarmOnReceiveListener(getApplicationContext(), AlarmNotifications.ACTION_SCHEDULE, notifyObserver);
+                                for (AlarmClockItem item : rescheduled) {
+                                    onSchedule.onFinished(true, item);    // alarmtime already updated (in the future); schedule without recalculating
+                                }
+
+                                for (AlarmClockItem item : failed)
+                                {   // failed to update (already calculated once); disable without recalculating (prevent alarm loop)
+                                    Log.d(TAG, "Disabling: " + item.rowID);
+                                    sendBroadcast(getAlarmIntent(getApplicationContext(), ACTION_DISABLE, item.getUri()));
+                                    notifyObserver.onFinished(false, item);
+                                }
+
+                                for (AlarmClockItem item : unchanged) {
+                                    notifyObserver.onFinished(false, item);    // sounding or snoozing; left alone
                                 }
                             }
                         });
-                        alarmListTask.execute();
+                        rescheduleTask.execute();
 
                     } else if (Intent.ACTION_TIME_CHANGED.equals(action)) {
                         Log.d(TAG, "TIME_SET received");
@@ -1386,6 +1407,82 @@ public class AlarmNotifications extends BroadcastReceiver
 
     }
 
+    /**
+     * RescheduleTask
+     * Recalculates the alarmtime of all enabled alarms (in the background), then writes the results in a single
+     * transaction. Alarms are grouped by location and calculator (AlarmEventSearch.SeriesCache) so each group's
+     * events are calculated once and shared. Alarms that fail to update, or that are currently sounding or snoozing
+     * (can't transition to STATE_NONE), are passed on unchanged.
+     */
+    public static class RescheduleTask extends AsyncTask<Void, Void, Boolean>
+    {
+        public static final String TAG = "AlarmReceiverRescheduler";
+
+        private final Context context;
+        private final AlarmDatabaseAdapter db;
+        private final ArrayList<AlarmClockItem> rescheduled = new ArrayList<>();
+        private final ArrayList<AlarmClockItem> failed = new ArrayList<>();
+        private final ArrayList<AlarmClockItem> unchanged = new ArrayList<>();
+
+        public RescheduleTask(@NonNull Context context)
+        {
+            this.context = context.getApplicationContext();
+            db = new AlarmDatabaseAdapter(this.context);
+        }
+
+        @Override
+        protected Boolean doInBackground(Void... voids)
+        {
+            long bench_start = System.nanoTime();
+            db.open();
+            List<AlarmClockItem> items = db.getAlarmItems(context, true);
+
+            Calendar now = Calendar.getInstance();
+            AlarmEventSearch.SeriesCache cache = new AlarmEventSearch.SeriesCache();
+            for (AlarmClockItem item : items)
+            {
+                if (item.state != null && !AlarmState.isValidTransition(item.state.getState(), AlarmState.STATE_NONE)) {
+                    unchanged.add(item);    // sounding or snoozing; its alarmtime is still needed (as the basis for dismiss/snooze)
+
+                } else if (item.enabled && updateAlarmTime(context, item, now, true, cache))
+                {
+                    item.alarmtime = item.timestamp + item.offset;
+                    rescheduled.add(item);
+                } else failed.add(item);
+            }
+
+            boolean updated = db.updateAlarms(rescheduled, false);
+            db.close();
+
+            long bench_end = System.nanoTime();
+            Log.d(TAG, "reschedule :: " + items.size() + " alarms (" + cache.numSeries() + " series) :: " + ((bench_end - bench_start) / 1000000.0) + " ms");
+            return updated;
+        }
+
+        @Override
+        protected void onPostExecute(Boolean result)
+        {
+            if (listener != null) {
+                listener.onFinished(result, rescheduled, failed, unchanged);
+            }
+        }
+
+        private RescheduleTaskListener listener = null;
+        public void setTaskListener( RescheduleTaskListener l ) {
+            listener = l;
+        }
+
+        public static abstract class RescheduleTaskListener
+        {
+            /**
+             * @param rescheduled items with an updated alarmtime (already saved); these still need to be scheduled
+             * @param failed items that couldn't be updated (unchanged); these need to be disabled
+             * @param unchanged items that were skipped because they can't be rescheduled now (sounding or snoozing)
+             */
+            public void onFinished(Boolean result, List<AlarmClockItem> rescheduled, List<AlarmClockItem> failed, List<AlarmClockItem> unchanged) {}
+        }
+    }
+
     ///////////////////////////////////////////////////////////////////////////////////////////////
     ///////////////////////////////////////////////////////////////////////////////////////////////
 
@@ -1397,7 +1494,14 @@ public class AlarmNotifications extends BroadcastReceiver
     public static boolean updateAlarmTime(Context context, final AlarmClockItem item) {
         return updateAlarmTime(context, item, Calendar.getInstance(), true);
     }
-    public static boolean updateAlarmTime(Context context, final AlarmClockItem item, Calendar now, boolean modifyItem)
+    public static boolean updateAlarmTime(Context context, final AlarmClockItem item, Calendar now, boolean modifyItem) {
+        return updateAlarmTime(context, item, now, modifyItem, null);
+    }
+
+    /**
+     * @param cache event series shared with other alarms (e.g. when rescheduling several alarms at once), or null
+     */
+    public static boolean updateAlarmTime(Context context, final AlarmClockItem item, Calendar now, boolean modifyItem, @Nullable AlarmEventSearch.SeriesCache cache)
     {
         Calendar eventTime = Calendar.getInstance();
         if (item.location != null && item.event != null)
@@ -1405,7 +1509,7 @@ public class AlarmNotifications extends BroadcastReceiver
             switch (item.event.getType())
             {
                 case SolarEvents.TYPE_MOON:
-                    eventTime = updateAlarmTime_moonEvent(context, item.event, item.location, item.offset, item.repeating, item.repeatingDays, now);
+                    eventTime = updateAlarmTime_moonEvent(context, item.event, item.location, item.offset, item.repeating, item.repeatingDays, now, cache);
                     break;
 
                 case SolarEvents.TYPE_MOONPHASE:
@@ -1417,7 +1521,7 @@ public class AlarmNotifications extends BroadcastReceiver
                     break;
 
                 case SolarEvents.TYPE_SUN:
-                    eventTime = updateAlarmTime_sunEvent(context, item.event, item.location, item.offset, item.repeating, item.repeatingDays, now);
+                    eventTime = updateAlarmTime_sunEvent(context, item.event, item.location, item.offset, item.repeating, item.repeatingDays, now, cache);
                     break;
             }
         } else {
@@ -1440,88 +1544,19 @@ public class AlarmNotifications extends BroadcastReceiver
     }
 
     @Nullable
-    private static Calendar updateAlarmTime_sunEvent(Context context, @NonNull SolarEvents event, @NonNull Location location, long offset, boolean repeating, ArrayList<Integer> repeatingDays, Calendar now)
+    private static Calendar updateAlarmTime_sunEvent(Context context, @NonNull SolarEvents event, @NonNull Location location, long offset, boolean repeating, ArrayList<Integer> repeatingDays, Calendar now, @Nullable AlarmEventSearch.SeriesCache cache)
     {
         SuntimesRiseSetData sunData = getData_sunEvent(context, event, location);
-
-        Calendar alarmTime = Calendar.getInstance();
-        Calendar eventTime;
-
-        Calendar day = Calendar.getInstance();
-        sunData.setTodayIs(day);
-        sunData.calculate();
-        eventTime = (event.isRising() ? sunData.sunriseCalendarToday() : sunData.sunsetCalendarToday());
-        if (eventTime != null)
-        {
-            eventTime.set(Calendar.SECOND, 0);
-            alarmTime.setTimeInMillis(eventTime.getTimeInMillis() + offset);
-        }
-
-        int c = 0;
-        Set<Long> timestamps = new HashSet<>();
-        while (now.after(alarmTime)
-                || eventTime == null
-                || (repeating && !repeatingDays.contains(eventTime.get(Calendar.DAY_OF_WEEK))))
-        {
-            if (!timestamps.add(alarmTime.getTimeInMillis()) && c > 365) {
-                Log.e(TAG, "updateAlarmTime: encountered same timestamp twice! (breaking loop)");
-                return null;
-            }
-
-            Log.w("AlarmReceiverItem", "updateAlarmTime: sunEvent advancing by 1 day..");
-            day.add(Calendar.DAY_OF_YEAR, 1);
-            sunData.setTodayIs(day);
-            sunData.calculate();
-            eventTime = (event.isRising() ? sunData.sunriseCalendarToday() : sunData.sunsetCalendarToday());
-            if (eventTime != null)
-            {
-                eventTime.set(Calendar.SECOND, 0);
-                alarmTime.setTimeInMillis(eventTime.getTimeInMillis() + offset);
-            }
-            c++;
-        }
-        return eventTime;
+        AlarmEventSearch.SunEventSeries series = (cache != null ? cache.getSunSeries(sunData) : new AlarmEventSearch.SunEventSeries(sunData));
+        return AlarmEventSearch.findNextSunEvent(series, event.isRising(), offset, repeating, repeatingDays, now);
     }
 
     @Nullable
-    private static Calendar updateAlarmTime_moonEvent(Context context, @NonNull SolarEvents event, @NonNull Location location, long offset, boolean repeating, ArrayList<Integer> repeatingDays, Calendar now)
+    private static Calendar updateAlarmTime_moonEvent(Context context, @NonNull SolarEvents event, @NonNull Location location, long offset, boolean repeating, ArrayList<Integer> repeatingDays, Calendar now, @Nullable AlarmEventSearch.SeriesCache cache)
     {
         SuntimesMoonData moonData = getData_moonEvent(context, location);
-
-        Calendar alarmTime = Calendar.getInstance();
-
-        Calendar day = Calendar.getInstance();
-        moonData.setTodayIs(day);
-        moonData.calculate();
-        Calendar eventTime = moonEventCalendar(event, moonData, true);
-        if (eventTime != null)
-        {
-            eventTime.set(Calendar.SECOND, 0);
-            alarmTime.setTimeInMillis(eventTime.getTimeInMillis() + offset);
-        }
-        int c = 0;
-        Set<Long> timestamps = new HashSet<>();
-        while (now.after(alarmTime)
-                || eventTime == null
-                || (repeating && !repeatingDays.contains(eventTime.get(Calendar.DAY_OF_WEEK))))
-        {
-            if (!timestamps.add(alarmTime.getTimeInMillis()) && c > 365) {
-                Log.e(TAG, "updateAlarmTime: encountered same timestamp twice! (breaking loop)");
-                return null;
-            }
-
-            Log.w("AlarmReceiverItem", "updateAlarmTime: moonEvent advancing by 1 day..");
-            day.add(Calendar.DAY_OF_YEAR, 1);
-            moonData.setTodayIs(day);
-            moonData.calculate();
-            eventTime = moonEventCalendar(event, moonData, true);
-            if (eventTime != null)
-            {
-                eventTime.set(Calendar.SECOND, 0);
-                alarmTime.setTimeInMillis(eventTime.getTimeInMillis() + offset);
-            }
-            c++;        }
-        return eventTime;
+        AlarmEventSearch.MoonEventSeries series = (cache != null ? cache.getMoonSeries(moonData) : new AlarmEventSearch.MoonEventSeries(moonData));
+        return AlarmEventSearch.findNextMoonEvent(series, event, offset, repeating, repeatingDays, now);
     }
 
     public static Calendar moonEventCalendar(SolarEvents event, SuntimesMoonData data, boolean today)
@@ -67,6 +67,7 @@ import com.forrestguice.suntimeswidget.R;
 import com.forrestguice.suntimeswidget.SuntimesUtils;
 import com.forrestguice.suntimeswidget.alarmclock.AlarmClockItem;
 import com.forrestguice.suntimeswidget.alarmclock.AlarmDatabaseAdapter;
+import com.forrestguice.suntimeswidget.alarmclock.AlarmEventSearch;
 import com.forrestguice.suntimeswidget.alarmclock.AlarmNotifications;
 import com.forrestguice.suntimeswidget.alarmclock.AlarmSettings;
 import com.forrestguice.suntimeswidget.alarmclock.AlarmState;
@@ -81,7 +82,9 @@ import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 @SuppressWarnings("Convert2Diamond")
 public class AlarmListDialog extends DialogFragment
@@ -439,10 +442,10 @@ public class AlarmListDialog extends DialogFragment
 
     protected AlarmListTask.AlarmListTaskListener onListLoaded = new AlarmListTask.AlarmListTaskListener() {
         @Override
-        public void onLoadFinished(List<AlarmClockItem> data)
+        public void onLoadFinished(List<AlarmClockItem> data, Map<Long, Boolean> schedulable)
         {
             Log.d("DEBUG", "onListLoaded: " + data.size());
-            adapter.setItems(data);
+            adapter.setItems(data, schedulable);
             updateViews();
             scrollToSelectedItem();
         }
@@ -450,10 +453,11 @@ public class AlarmListDialog extends DialogFragment
 
     protected AlarmListTask.AlarmListTaskListener onItemChanged = new AlarmListTask.AlarmListTaskListener() {
         @Override
-        public void onLoadFinished(List<AlarmClockItem> data)
+        public void onLoadFinished(List<AlarmClockItem> data, Map<Long, Boolean> schedulable)
         {
             Log.d("DEBUG", "onItemChanged: " + data.size());
-            adapter.setItem(data.get(0));
+            AlarmClockItem item = data.get(0);
+            adapter.setItem(item, schedulable.get(item.rowID));
             updateViews();
             scrollToSelectedItem();
         }
@@ -467,11 +471,13 @@ public class AlarmListDialog extends DialogFragment
 
     /**
      * AlarmClockListTask
+     * Loads alarm items, and determines if each item can be scheduled (so that rows can be bound without calculating).
      */
     public static class AlarmListTask extends AsyncTask<Long, AlarmClockItem, List<AlarmClockItem>>
     {
         private AlarmDatabaseAdapter db;
         private WeakReference<Context> contextRef;
+        private final HashMap<Long, Boolean> schedulable = new HashMap<>();
 
         public AlarmListTask(Context context)
         {
@@ -486,6 +492,8 @@ public class AlarmListDialog extends DialogFragment
         protected List<AlarmClockItem> doInBackground(Long... rowIds)
         {
             ArrayList<AlarmClockItem> items = new ArrayList<>();
+            Calendar now = Calendar.getInstance();
+            AlarmEventSearch.SeriesCache cache = new AlarmEventSearch.SeriesCache();
             db.open();
             Cursor cursor = (rowIds == null || rowIds.length <= 0 || rowIds[0] == null)
                           ? db.getAllAlarms(0, true) : db.getAlarm(rowIds[0]);
@@ -495,9 +503,8 @@ public class AlarmListDialog extends DialogFragment
                 DatabaseUtils.cursorRowToContentValues(cursor, entryValues);
 
                 AlarmClockItem item = new AlarmClockItem(contextRef.get(), entryValues);
-                if (!item.enabled) {
-                    AlarmNotifications.updateAlarmTime(contextRef.get(), item);
-                }
+                boolean isSchedulable = AlarmNotifications.updateAlarmTime(contextRef.get(), item, now, !item.enabled, cache);
+                schedulable.put(item.rowID, isSchedulable);
                 items.add(item);
                 publishProgress(item);
 
@@ -517,7 +524,7 @@ public class AlarmListDialog extends DialogFragment
             if (result != null)
             {
                 if (taskListener != null) {
-                    taskListener.onLoadFinished(result);
+                    taskListener.onLoadFinished(result, schedulable);
                 }
             }
         }
@@ -531,6 +538,13 @@ public class AlarmListDialog extends DialogFragment
         public static abstract class AlarmListTaskListener
         {
             public void onLoadFinished(List<AlarmClockItem> result) {};
+
+            /**
+             * @param schedulable rowID -> true if the item can be scheduled (see AlarmNotifications.updateAlarmTime)
+             */
+            public void onLoadFinished(List<AlarmClockItem> result, Map<Long, Boolean> schedulable) {
+                onLoadFinished(result);
+            }
         }
     }
 
@@ -545,6 +559,7 @@ public class AlarmListDialog extends DialogFragment
     {
         protected long selectedRowID = -1;
         protected ArrayList<AlarmClockItem> items = new ArrayList<>();
+        protected HashMap<Long, Boolean> schedulable = new HashMap<>();    // rowID -> isSchedulable; see AlarmListTask
         protected WeakReference<Context> contextRef;
 
         public AlarmListDialogAdapter(Context context) {
@@ -590,15 +605,31 @@ public class AlarmListDialog extends DialogFragment
             }
         }
 
-        public void setItems(List<AlarmClockItem> values)
+        public void setItems(List<AlarmClockItem> values) {
+            setItems(values, null);
+        }
+
+        public void setItems(List<AlarmClockItem> values, @Nullable Map<Long, Boolean> isSchedulable)
         {
+            schedulable.clear();
+            if (isSchedulable != null) {
+                schedulable.putAll(isSchedulable);
+            }
             items.clear();
             items.addAll(sortItems(values));
             notifyDataSetChanged();
         }
 
-        public void setItem(AlarmClockItem item)
+        public void setItem(AlarmClockItem item) {
+            setItem(item, null);
+        }
+
+        public void setItem(AlarmClockItem item, @Nullable Boolean isSchedulable)
         {
+            if (isSchedulable != null) {
+                schedulable.put(item.rowID, isSchedulable);
+            } else schedulable.remove(item.rowID);
+
             int position = getIndex(item.rowID);
             if (position >= 0 && position < items.size())
             {
@@ -618,6 +649,7 @@ public class AlarmListDialog extends DialogFragment
         }
 
         public void clearItems() {
+            schedulable.clear();
             items.clear();
             notifyDataSetChanged();
         }
@@ -626,6 +658,7 @@ public class AlarmListDialog extends DialogFragment
         {
             int position = getIndex(alarmID);
             if (position >= 0 && position < items.size()) {
+                schedulable.remove(alarmID);
                 items.remove(position);
                 notifyItemRemoved(position);
             }
@@ -679,6 +712,19 @@ public class AlarmListDialog extends DialogFragment
             return (x < y) ? -1 : ((x == y) ? 0 : 1);    // copied from Long.compare to support api < 19
         }
 
+        /**
+         * @return true if the item can be scheduled; uses the result from AlarmListTask (calculated here only if missing)
+         */
+        protected boolean isSchedulable(Context context, AlarmClockItem item)
+        {
+            Boolean isSchedulable = schedulable.get(item.rowID);
+            if (isSchedulable == null) {
+                isSchedulable = AlarmNotifications.updateAlarmTime(context, item, Calendar.getInstance(), false);
+                schedulable.put(item.rowID, isSchedulable);
+            }
+            return isSchedulable;
+        }
+
         @Override
         public long getItemId( int position ) {
             return (position >= 0 && position < items.size()) ? items.get(position).rowID : 0;
@@ -698,6 +744,7 @@ public class AlarmListDialog extends DialogFragment
             AlarmClockItem item = items.get(position);
             holder.isSelected = (item.rowID == selectedRowID);
             holder.preview_offset = !holder.isSelected;
+            holder.isSchedulable = isSchedulable(contextRef.get(), item);
             ViewCompat.setTransitionName(holder.text_datetime, "transition_" + item.rowID);
 
             detachClickListeners(holder);
@@ -1012,6 +1059,7 @@ public class AlarmListDialog extends DialogFragment
         public static SuntimesUtils utils = new SuntimesUtils();
 
         public boolean isSelected = false;
+        public boolean isSchedulable = true;
         public boolean preview_offset = true;
         public boolean preview_offset_transition = false;
 
@@ -1139,7 +1187,7 @@ public class AlarmListDialog extends DialogFragment
         protected void updateView(Context context, AlarmListDialogItem view, @NonNull final AlarmClockItem item)
         {
             int eventType = item.event == null ? -1 : item.event.getType();
-            boolean isSchedulable = AlarmNotifications.updateAlarmTime(context, item, Calendar.getInstance(), false);
+            boolean isSchedulable = view.isSchedulable;
 
             // spannable icons
             int iconColor = (item.enabled ? color_on : color_off);
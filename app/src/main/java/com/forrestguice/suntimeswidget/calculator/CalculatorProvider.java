@@ -18,6 +18,7 @@
 
 package com.forrestguice.suntimeswidget.calculator;
 
+import android.annotation.TargetApi;
 import android.content.ContentProvider;
 import android.content.ContentUris;
 import android.content.ContentValues;
@@ -27,17 +28,24 @@ import android.content.UriMatcher;
 import android.database.Cursor;
 import android.database.MatrixCursor;
 import android.net.Uri;
+import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
 import android.preference.PreferenceManager;
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 import android.util.Log;
+import android.support.v4.util.LruCache;
 import android.util.SparseArray;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Calendar;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.Map;
 import java.util.TimeZone;
+import java.util.TreeMap;
 
 import com.forrestguice.suntimeswidget.BuildConfig;
 import com.forrestguice.suntimeswidget.calculator.core.CalculatorProviderContract;
@@ -53,6 +61,10 @@ import static com.forrestguice.suntimeswidget.calculator.core.CalculatorProvider
 import static com.forrestguice.suntimeswidget.calculator.core.CalculatorProviderContract.COLUMN_CONFIG_APP_THEME_OVERRIDE;
 import static com.forrestguice.suntimeswidget.calculator.core.CalculatorProviderContract.COLUMN_CONFIG_APP_VERSION;
 import static com.forrestguice.suntimeswidget.calculator.core.CalculatorProviderContract.COLUMN_CONFIG_APP_VERSION_CODE;
+import static com.forrestguice.suntimeswidget.calculator.core.CalculatorProviderContract.COLUMN_CONFIG_CACHE_EVICTIONS;
+import static com.forrestguice.suntimeswidget.calculator.core.CalculatorProviderContract.COLUMN_CONFIG_CACHE_HITS;
+import static com.forrestguice.suntimeswidget.calculator.core.CalculatorProviderContract.COLUMN_CONFIG_CACHE_MISSES;
+import static com.forrestguice.suntimeswidget.calculator.core.CalculatorProviderContract.COLUMN_CONFIG_CACHE_SIZE;
 import static com.forrestguice.suntimeswidget.calculator.core.CalculatorProviderContract.COLUMN_CONFIG_CALCULATOR;
 import static com.forrestguice.suntimeswidget.calculator.core.CalculatorProviderContract.COLUMN_CONFIG_CALCULATOR_FEATURES;
 import static com.forrestguice.suntimeswidget.calculator.core.CalculatorProviderContract.COLUMN_CONFIG_LATITUDE;
@@ -194,6 +206,10 @@ public class CalculatorProvider extends ContentProvider
     @Override
     public boolean onCreate()
     {
+        Context context = getContext();
+        if (context != null) {
+            appContext = context.getApplicationContext();
+        }
         return true;
     }
 
@@ -237,6 +253,17 @@ public class CalculatorProvider extends ContentProvider
         Cursor retValue = null;
 
         int uriMatch = uriMatcher.match(uri);
+        String resultKey = (isCacheable(uriMatch) ? resultKey(uri, projection, selectionMap, sortOrder) : null);
+        if (resultKey != null)
+        {
+            CachedResult cached = resultCache.get(resultKey);
+            if (cached != null && cached.expires > now)
+            {
+                Log.d("CalculatorProvider", "query: cached result: " + uri);
+                return withNotificationUri(cached.toCursor());
+            }
+        }
+
         switch (uriMatch)
         {
             case URIMATCH_CONFIG:
@@ -329,9 +356,198 @@ public class CalculatorProvider extends ContentProvider
                 Log.e("CalculatorProvider", "Unrecognized URI! " + uri);
                 break;
         }
+
+        if (resultKey != null && retValue != null) {
+            retValue = withNotificationUri(cacheResult(resultKey, retValue, now, getTimeZone(getContext(), selectionMap)));
+        }
         return retValue;
     }
 
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // Result Cache
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    public static final int MAX_RESULT_CACHE = 64;       // results kept
+    public static final int MAX_RESULT_ROWS = 64;        // results with more rows than this aren't kept
+
+    private static Context appContext = null;
+    private static final LruCache<String, CachedResult> resultCache = new LruCache<>(MAX_RESULT_CACHE);    // (LruCache is thread-safe)
+    private static final Handler expiryHandler = new Handler(Looper.getMainLooper());
+    private static long nextExpiry = Long.MAX_VALUE;    // guarded by resultCache
+
+    /**
+     * CachedResult
+     * The rows of a query result; valid until `expires` (the next local midnight, or the first event in the result
+     * that follows the time of the query, whichever is sooner).
+     */
+    private static class CachedResult
+    {
+        public String[] columns;
+        public Object[][] rows;
+        public long expires;
+
+        public Cursor toCursor()
+        {
+            MatrixCursor cursor = new MatrixCursor(columns, rows.length);
+            for (Object[] row : rows) {
+                cursor.addRow(row);
+            }
+            return cursor;
+        }
+    }
+
+    /**
+     * @return true if results of the query are cached (sun, moon, moon phase, and seasons queries)
+     */
+    private static boolean isCacheable(int uriMatch)
+    {
+        switch (uriMatch)
+        {
+            case URIMATCH_SUN: case URIMATCH_SUN_FOR_DATE: case URIMATCH_SUN_FOR_RANGE:
+            case URIMATCH_MOON: case URIMATCH_MOON_FOR_DATE: case URIMATCH_MOON_FOR_RANGE:
+            case URIMATCH_MOONPHASE: case URIMATCH_MOONPHASE_FOR_DATE: case URIMATCH_MOONPHASE_FOR_RANGE:
+            case URIMATCH_SEASONS: case URIMATCH_SEASONS_FOR_YEAR: case URIMATCH_SEASONS_FOR_RANGE:
+                return (Build.VERSION.SDK_INT >= 11);    // Cursor.getType
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * @return a key for the (uri, projection, selection, sortOrder) of a query; selection values are sorted by column
+     */
+    private static String resultKey(@NonNull Uri uri, @Nullable String[] projection, HashMap<String, String> selection, @Nullable String sortOrder) {
+        return uri.toString() + "|" + Arrays.toString(projection) + "|" + new TreeMap<>(selection).toString() + "|" + sortOrder;
+    }
+
+    /**
+     * Keeps the rows of the result (if it is small enough).
+     * @return a cursor over the result (the given cursor is consumed if the result was kept)
+     */
+    @TargetApi(11)
+    private static Cursor cacheResult(String key, Cursor cursor, long now, TimeZone timezone)
+    {
+        int n = cursor.getCount();
+        if (n > MAX_RESULT_ROWS) {
+            return cursor;
+        }
+
+        Calendar midnight = Calendar.getInstance(timezone);
+        midnight.setTimeInMillis(now);
+        midnight.set(Calendar.HOUR_OF_DAY, 0);
+        midnight.set(Calendar.MINUTE, 0);
+        midnight.set(Calendar.SECOND, 0);
+        midnight.set(Calendar.MILLISECOND, 0);
+        midnight.add(Calendar.DAY_OF_YEAR, 1);
+
+        CachedResult result = new CachedResult();
+        result.columns = cursor.getColumnNames();
+        result.rows = new Object[n][];
+        result.expires = midnight.getTimeInMillis();
+
+        cursor.moveToPosition(-1);
+        for (int j=0; cursor.moveToNext(); j++)
+        {
+            Object[] row = result.rows[j] = new Object[result.columns.length];
+            for (int i=0; i<row.length; i++)
+            {
+                switch (cursor.getType(i))
+                {
+                    case Cursor.FIELD_TYPE_INTEGER:
+                        long value = cursor.getLong(i);
+                        row[i] = value;
+                        if (value > now && value < result.expires) {
+                            result.expires = value;    // (timestamp) an event that follows the query
+                        }
+                        break;
+                    case Cursor.FIELD_TYPE_FLOAT: row[i] = cursor.getDouble(i); break;
+                    case Cursor.FIELD_TYPE_STRING: row[i] = cursor.getString(i); break;
+                    case Cursor.FIELD_TYPE_BLOB: row[i] = cursor.getBlob(i); break;
+                    case Cursor.FIELD_TYPE_NULL: default: row[i] = null; break;
+                }
+            }
+        }
+        cursor.close();
+
+        resultCache.put(key, result);
+        scheduleExpiry(result.expires);
+        return result.toCursor();
+    }
+
+    private Cursor withNotificationUri(Cursor cursor)
+    {
+        Context context = getContext();
+        if (context != null) {
+            cursor.setNotificationUri(context.getContentResolver(), Uri.parse("content://" + AUTHORITY + "/"));
+        }
+        return cursor;
+    }
+
+    private static void scheduleExpiry(long expires)
+    {
+        synchronized (resultCache)
+        {
+            if (expires < nextExpiry)
+            {
+                nextExpiry = expires;
+                expiryHandler.removeCallbacks(expireResults);
+                expiryHandler.postDelayed(expireResults, Math.max(0, expires - System.currentTimeMillis()));
+            }
+        }
+    }
+
+    /**
+     * Discards expired results, and notifies observers (of content://AUTHORITY/) if any were discarded.
+     */
+    private static final Runnable expireResults = new Runnable()
+    {
+        @Override
+        public void run()
+        {
+            long now = System.currentTimeMillis();
+            boolean expired = false;
+            long next = Long.MAX_VALUE;
+            for (Map.Entry<String, CachedResult> entry : resultCache.snapshot().entrySet())
+            {
+                long expires = entry.getValue().expires;
+                if (expires <= now) {
+                    resultCache.remove(entry.getKey());
+                    expired = true;
+                } else if (expires < next) {
+                    next = expires;
+                }
+            }
+
+            synchronized (resultCache) {
+                nextExpiry = Long.MAX_VALUE;
+            }
+            if (next != Long.MAX_VALUE) {
+                scheduleExpiry(next);
+            }
+            if (expired) {
+                notifyResultsChanged();
+            }
+        }
+    };
+
+    /**
+     * Discards all cached results (e.g. after settings change), and notifies observers (of content://AUTHORITY/).
+     */
+    public static void invalidateResults()
+    {
+        resultCache.evictAll();
+        notifyResultsChanged();
+    }
+
+    private static void notifyResultsChanged()
+    {
+        if (appContext != null)
+        {
+            Log.d("CalculatorProvider", "notifyResultsChanged");
+            appContext.getContentResolver().notifyChange(Uri.parse("content://" + AUTHORITY + "/"), null);
+        }
+    }
+
     /**
      * queryConfig
      */
@@ -481,6 +697,22 @@ public class CalculatorProvider extends ContentProvider
                             row[i] = pref.getInt(AppSettings.PREF_KEY_UI_SHOWFIELDS, AppSettings.PREF_DEF_UI_SHOWFIELDS);
                             break;
 
+                        case COLUMN_CONFIG_CACHE_SIZE:
+                            row[i] = SuntimesCalculatorFactory.poolSize();
+                            break;
+
+                        case COLUMN_CONFIG_CACHE_HITS:
+                            row[i] = SuntimesCalculatorFactory.poolHitCount();
+                            break;
+
+                        case COLUMN_CONFIG_CACHE_MISSES:
+                            row[i] = SuntimesCalculatorFactory.poolMissCount();
+                            break;
+
+                        case COLUMN_CONFIG_CACHE_EVICTIONS:
+                            row[i] = SuntimesCalculatorFactory.poolEvictionCount();
+                            break;
+
                         default:
                             row[i] = null;
                             break;
@@ -504,6 +736,16 @@ public class CalculatorProvider extends ContentProvider
         SuntimesCalculator calculator = initSunCalculator(getContext(), selection);
         if (calculator != null)
         {
+            int[] events = new int[columns.length];
+            int eventMask = 0;
+            for (int i=0; i<columns.length; i++)
+            {
+                events[i] = columnToSolarDayEvent(columns[i]);
+                if (events[i] >= 0) {
+                    eventMask |= SuntimesCalculator.SolarDay.flag(events[i]);
+                }
+            }
+
             Calendar day = Calendar.getInstance(calculator.getTimeZone());
             day.setTimeInMillis(range[0]);
 
@@ -511,93 +753,12 @@ public class CalculatorProvider extends ContentProvider
             endDay.setTimeInMillis(range[1] + 1000);      // +1000ms (make range[1] inclusive)
 
             do {
-                Calendar calendar;
-                Calendar[] morningBlueHour = null, eveningBlueHour = null;
+                SuntimesCalculator.SolarDay solarDay = SuntimesRiseSetData.computeDay(calculator, day, eventMask);
                 Object[] row = new Object[columns.length];
                 for (int i=0; i<columns.length; i++)
                 {
-                    switch (columns[i])
-                    {
-                        case COLUMN_SUN_ACTUAL_RISE:
-                            calendar = calculator.getOfficialSunriseCalendarForDate(day);
-                            row[i] = (calendar != null) ? calendar.getTimeInMillis() : null;
-                            break;
-                        case COLUMN_SUN_ACTUAL_SET:
-                            calendar = calculator.getOfficialSunsetCalendarForDate(day);
-                            row[i] = (calendar != null) ? calendar.getTimeInMillis() : null;
-                            break;
-
-                        case COLUMN_SUN_CIVIL_RISE:
-                            calendar = calculator.getCivilSunriseCalendarForDate(day);
-                            row[i] = (calendar != null) ? calendar.getTimeInMillis() : null;
-                            break;
-                        case COLUMN_SUN_CIVIL_SET:
-                            calendar = calculator.getCivilSunsetCalendarForDate(day);
-                            row[i] = (calendar != null) ? calendar.getTimeInMillis() : null;
-                            break;
-
-                        case COLUMN_SUN_NAUTICAL_RISE:
-                            calendar = calculator.getNauticalSunriseCalendarForDate(day);
-                            row[i] = (calendar != null) ? calendar.getTimeInMillis() : null;
-                            break;
-                        case COLUMN_SUN_NAUTICAL_SET:
-                            calendar = calculator.getNauticalSunsetCalendarForDate(day);
-                            row[i] = (calendar != null) ? calendar.getTimeInMillis() : null;
-                            break;
-
-                        case COLUMN_SUN_ASTRO_RISE:
-                            calendar = calculator.getAstronomicalSunriseCalendarForDate(day);
-                            row[i] = (calendar != null) ? calendar.getTimeInMillis() : null;
-                            break;
-                        case COLUMN_SUN_ASTRO_SET:
-                            calendar = calculator.getAstronomicalSunsetCalendarForDate(day);
-                            row[i] = (calendar != null) ? calendar.getTimeInMillis() : null;
-                            break;
-
-                        case COLUMN_SUN_NOON:
-                            calendar = calculator.getSolarNoonCalendarForDate(day);
-                            row[i] = (calendar != null) ? calendar.getTimeInMillis() : null;
-                            break;
-
-                        case COLUMN_SUN_GOLDEN_EVENING:
-                            calendar = calculator.getEveningGoldenHourForDate(day);
-                            row[i] = (calendar != null) ? calendar.getTimeInMillis() : null;
-                            break;
-                        case COLUMN_SUN_GOLDEN_MORNING:
-                            calendar =  calculator.getMorningGoldenHourForDate(day);
-                            row[i] = (calendar != null) ? calendar.getTimeInMillis() : null;
-                            break;
-
-                        case COLUMN_SUN_BLUE8_RISE:
-                            if (morningBlueHour == null) {
-                                morningBlueHour = calculator.getMorningBlueHourForDate(day);
-                            }
-                            row[i] = (morningBlueHour[0] != null) ? morningBlueHour[0].getTimeInMillis() : null;
-                            break;
-                        case COLUMN_SUN_BLUE4_RISE:
-                            if (morningBlueHour == null) {
-                                morningBlueHour = calculator.getMorningBlueHourForDate(day);
-                            }
-                            row[i] = (morningBlueHour[1] != null) ? morningBlueHour[1].getTimeInMillis() : null;
-                            break;
-
-                        case COLUMN_SUN_BLUE4_SET:
-                            if (eveningBlueHour == null) {
-                                eveningBlueHour = calculator.getEveningBlueHourForDate(day);
-                            }
-                            row[i] = (eveningBlueHour[0] != null) ? eveningBlueHour[0].getTimeInMillis() : null;
-                            break;
-                        case COLUMN_SUN_BLUE8_SET:
-                            if (eveningBlueHour == null) {
-                                eveningBlueHour = calculator.getEveningBlueHourForDate(day);
-                            }
-                            row[i] = (eveningBlueHour[1] != null) ? eveningBlueHour[1].getTimeInMillis() : null;
-                            break;
-
-                        default:
-                            row[i] = null;
-                            break;
-                    }
+                    Calendar calendar = (events[i] >= 0) ? solarDay.getEvent(events[i]) : null;
+                    row[i] = (calendar != null) ? calendar.getTimeInMillis() : null;
                 }
                 retValue.addRow(row);
                 day.add(Calendar.DAY_OF_YEAR, 1);
@@ -607,6 +768,33 @@ public class CalculatorProvider extends ContentProvider
         return retValue;
     }
 
+    /**
+     * @param column a COLUMN_SUN_* column
+     * @return the corresponding SolarDay event, or -1 if the column isn't a sun event
+     */
+    private static int columnToSolarDayEvent(String column)
+    {
+        switch (column)
+        {
+            case COLUMN_SUN_ASTRO_RISE: return SuntimesCalculator.SolarDay.MORNING_ASTRONOMICAL;
+            case COLUMN_SUN_NAUTICAL_RISE: return SuntimesCalculator.SolarDay.MORNING_NAUTICAL;
+            case COLUMN_SUN_BLUE8_RISE: return SuntimesCalculator.SolarDay.MORNING_BLUE8;
+            case COLUMN_SUN_CIVIL_RISE: return SuntimesCalculator.SolarDay.MORNING_CIVIL;
+            case COLUMN_SUN_BLUE4_RISE: return SuntimesCalculator.SolarDay.MORNING_BLUE4;
+            case COLUMN_SUN_ACTUAL_RISE: return SuntimesCalculator.SolarDay.SUNRISE;
+            case COLUMN_SUN_GOLDEN_MORNING: return SuntimesCalculator.SolarDay.MORNING_GOLDEN;
+            case COLUMN_SUN_NOON: return SuntimesCalculator.SolarDay.NOON;
+            case COLUMN_SUN_GOLDEN_EVENING: return SuntimesCalculator.SolarDay.EVENING_GOLDEN;
+            case COLUMN_SUN_ACTUAL_SET: return SuntimesCalculator.SolarDay.SUNSET;
+            case COLUMN_SUN_BLUE4_SET: return SuntimesCalculator.SolarDay.EVENING_BLUE4;
+            case COLUMN_SUN_CIVIL_SET: return SuntimesCalculator.SolarDay.EVENING_CIVIL;
+            case COLUMN_SUN_BLUE8_SET: return SuntimesCalculator.SolarDay.EVENING_BLUE8;
+            case COLUMN_SUN_NAUTICAL_SET: return SuntimesCalculator.SolarDay.EVENING_NAUTICAL;
+            case COLUMN_SUN_ASTRO_SET: return SuntimesCalculator.SolarDay.EVENING_ASTRONOMICAL;
+            default: return -1;
+        }
+    }
+
     /**
      * querySunPos
      */
@@ -673,11 +861,13 @@ public class CalculatorProvider extends ContentProvider
         SuntimesCalculator calculator = initMoonCalculator(getContext(), selection);
         if (calculator != null)
         {
+            MoonTimeline timeline = MoonTimeline.getTimeline(calculator);
+
             Calendar day = Calendar.getInstance(calculator.getTimeZone());
             day.setTimeInMillis(range[0]);
 
             Calendar endDay = Calendar.getInstance(calculator.getTimeZone());
-            endDay.setTimeInMillis(range[1] + 1000);    // +1000ms (make range[1] inclusive)
+            endDay.setTimeInMillis(range[1] + 1000);      // +1000ms (make range[1] inclusive)
 
             do {
                 SuntimesCalculator.MoonTimes moontimes = null;
@@ -687,11 +877,11 @@ public class CalculatorProvider extends ContentProvider
                     switch (columns[i])
                     {
                         case COLUMN_MOON_RISE:
-                            moontimes = (moontimes == null ? calculator.getMoonTimesForDate(day) : moontimes);
+                            moontimes = (moontimes == null ? timeline.getMoonTimesForDate(day) : moontimes);
                             row[i] = (moontimes.riseTime) != null ? moontimes.riseTime.getTimeInMillis() : null;
                             break;
                         case COLUMN_MOON_SET:
-                            moontimes = (moontimes == null ? calculator.getMoonTimesForDate(day) : moontimes);
+                            moontimes = (moontimes == null ? timeline.getMoonTimesForDate(day) : moontimes);
                             row[i] = (moontimes.setTime) != null ? moontimes.setTime.getTimeInMillis() : null;
                             break;
 
@@ -749,11 +939,11 @@ public class CalculatorProvider extends ContentProvider
                             break;
 
                         case COLUMN_MOONPOS_PERIGEE:
-                            row[i] = calculator.getMoonPerigeeNextDate(datetime).getTimeInMillis();
+                            row[i] = MoonTimeline.getTimeline(calculator).getMoonPerigeeNextDate(datetime).getTimeInMillis();
                             break;
 
                         case COLUMN_MOONPOS_APOGEE:
-                            row[i] = calculator.getMoonApogeeNextDate(datetime).getTimeInMillis();
+                            row[i] = MoonTimeline.getTimeline(calculator).getMoonApogeeNextDate(datetime).getTimeInMillis();
                             break;
 
                         case COLUMN_MOONPOS_ILLUMINATION:
@@ -872,7 +1062,7 @@ public class CalculatorProvider extends ContentProvider
     {
         Calendar event = events.get(phase);
         if (event == null) {
-            events.put(phase, event = calculator.getMoonPhaseNextDate(phase, date));
+            events.put(phase, event = MoonTimeline.getTimeline(calculator).getMoonPhaseNextDate(phase, date));
         }
         return event;
     }
@@ -966,51 +1156,58 @@ public class CalculatorProvider extends ContentProvider
             if (timezone == null) {
                 timezone = TimeZone.getTimeZone(WidgetSettings.loadTimezonePref(context, appWidgetID));
             }
-            if (descriptor != null) {
+            if (descriptor == null) {
                 descriptor = (calculatorName == null ? WidgetSettings.loadCalculatorModePref(context, appWidgetID)
                         : WidgetSettings.loadCalculatorModePref(context, appWidgetID, calculatorName));
             }
+
             SuntimesCalculatorFactory factory = new SuntimesCalculatorFactory(context, descriptor);
             //Log.d("CalculatorProvider", "initCalculator: " + location.getLabel() + " :: " + location.toString());
-            return factory.createCalculator(location, timezone);
+            return factory.createCalculator(location, timezone);    // ad-hoc selections share calculators through the factory pool (poolable calculators only)
         }
     }
 
-    private static SparseArray<SuntimesCalculator> sunSource = new SparseArray<>();    // sun source for appWidgetID (app is 0)
+    private static final SparseArray<SuntimesCalculator> sunSource = new SparseArray<>();    // sun source for appWidgetID (app is 0); guarded by itself
     private static SuntimesCalculator initSunCalculator(Context context, int appWidgetID)
     {
-        SuntimesCalculator retValue = sunSource.get(appWidgetID);   // lazy init
-        if (retValue == null)
+        synchronized (sunSource)
         {
-            WidgetSettings.initDefaults(context);
-            Location location = WidgetSettings.loadLocationPref(context, appWidgetID);
-            TimeZone timezone = TimeZone.getTimeZone(WidgetSettings.loadTimezonePref(context, appWidgetID));
-            SuntimesCalculatorDescriptor descriptor = WidgetSettings.loadCalculatorModePref(context, appWidgetID);
-            SuntimesCalculatorFactory factory = new SuntimesCalculatorFactory(context, descriptor);
-            sunSource.put(appWidgetID, (retValue = factory.createCalculator(location, timezone)));
-            Log.d("CalculatorProvider", "initSunCalculator: " + location.getLabel() + " :: " + location.toString());
-        } //else Log.d("CalculatorProvider", "initSunCalculator: using pre-existing calculator");
-        return retValue;
+            SuntimesCalculator retValue = sunSource.get(appWidgetID);   // lazy init
+            if (retValue == null)
+            {
+                WidgetSettings.initDefaults(context);
+                Location location = WidgetSettings.loadLocationPref(context, appWidgetID);
+                TimeZone timezone = TimeZone.getTimeZone(WidgetSettings.loadTimezonePref(context, appWidgetID));
+                SuntimesCalculatorDescriptor descriptor = WidgetSettings.loadCalculatorModePref(context, appWidgetID);
+                SuntimesCalculatorFactory factory = new SuntimesCalculatorFactory(context, descriptor);
+                sunSource.put(appWidgetID, (retValue = factory.createCalculator(location, timezone)));
+                Log.d("CalculatorProvider", "initSunCalculator: " + location.getLabel() + " :: " + location.toString());
+            } //else Log.d("CalculatorProvider", "initSunCalculator: using pre-existing calculator");
+            return retValue;
+        }
     }
     private SuntimesCalculator initSunCalculator(Context context, HashMap<String,String> selection) {
         return initCalculator(context, selection, null);
     }
 
-    private static SparseArray<SuntimesCalculator> moonSource = new SparseArray<>();   // moon source for appWidgetID (app is 0)
+    private static final SparseArray<SuntimesCalculator> moonSource = new SparseArray<>();   // moon source for appWidgetID (app is 0); guarded by itself
     private static SuntimesCalculator initMoonCalculator(Context context, int appWidgetID)
     {
-        SuntimesCalculator retValue = moonSource.get(appWidgetID);
-        if (retValue == null)    // lazy init
+        synchronized (moonSource)
         {
-            WidgetSettings.initDefaults(context);
-            Location location = WidgetSettings.loadLocationPref(context, appWidgetID);
-            TimeZone timezone = TimeZone.getTimeZone(WidgetSettings.loadTimezonePref(context, appWidgetID));
-            SuntimesCalculatorDescriptor descriptor = WidgetSettings.loadCalculatorModePref(context, 0, "moon");      // always use app calculator (0)
-            SuntimesCalculatorFactory factory = new SuntimesCalculatorFactory(context, descriptor);
-            moonSource.put(appWidgetID, (retValue = factory.createCalculator(location, timezone)));
-            //Log.d("CalculatorProvider", "initMoonCalculator: " + location.getLabel() + " :: " + location.toString());
-        } //else Log.d("CalculatorProvider", "initMoonCalculator: using pre-existing calculator");
-        return retValue;
+            SuntimesCalculator retValue = moonSource.get(appWidgetID);
+            if (retValue == null)    // lazy init
+            {
+                WidgetSettings.initDefaults(context);
+                Location location = WidgetSettings.loadLocationPref(context, appWidgetID);
+                TimeZone timezone = TimeZone.getTimeZone(WidgetSettings.loadTimezonePref(context, appWidgetID));
+                SuntimesCalculatorDescriptor descriptor = WidgetSettings.loadCalculatorModePref(context, 0, "moon");      // always use app calculator (0)
+                SuntimesCalculatorFactory factory = new SuntimesCalculatorFactory(context, descriptor);
+                moonSource.put(appWidgetID, (retValue = factory.createCalculator(location, timezone)));
+                //Log.d("CalculatorProvider", "initMoonCalculator: " + location.getLabel() + " :: " + location.toString());
+            } //else Log.d("CalculatorProvider", "initMoonCalculator: using pre-existing calculator");
+            return retValue;
+        }
     }
     private SuntimesCalculator initMoonCalculator(Context context, HashMap<String,String> selection) {
         return initCalculator(context, selection, "moon");
@@ -1022,8 +1219,13 @@ public class CalculatorProvider extends ContentProvider
 
     public static void clearCachedConfig(int appWidgetID)
     {
-        sunSource.remove(appWidgetID);
-        moonSource.remove(appWidgetID);
+        synchronized (sunSource) {
+            sunSource.remove(appWidgetID);
+        }
+        synchronized (moonSource) {
+            moonSource.remove(appWidgetID);
+        }
+        invalidateResults();
     }
 
     ///////////////////////////////////////////////////////////////////////////////////////////////
@@ -0,0 +1,139 @@
+/**
+    Copyright (C) 2020 Forrest Guice
+    This file is part of SuntimesWidget.
+
+    SuntimesWidget is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    SuntimesWidget is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with SuntimesWidget.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package com.forrestguice.suntimeswidget.calculator;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import com.forrestguice.suntimeswidget.calculator.core.SuntimesCalculator;
+
+import java.util.Arrays;
+import java.util.Calendar;
+
+/**
+ * MoonLunations
+ * Indexes major phases by lunation number (Brown lunation number; lunation 1 began with the new moon of
+ * 1923-01-17). A lunation's new moon is found by searching from a few days before its mean date (the true
+ * new moon is within a day of the mean), and the other phases are the first to follow that new moon.
+ * Phases are kept in a small array-backed cache indexed by lunation number.
+ */
+public class MoonLunations
+{
+    public static final long LUNATION_1 = -1481836740000L;                           // 1923-01-17 02:41 UTC
+    public static final double SYNODIC_MONTH_MILLIS = 29.530588853 * 24 * 60 * 60 * 1000;    // mean synodic month
+    public static final long SEARCH_MARGIN_MILLIS = 3 * 24 * 60 * 60 * 1000L;
+    public static final int CACHE_SIZE = 16;
+
+    private static final int NUM_PHASES = SuntimesCalculator.MoonPhase.values().length;
+    private static final long NONE = Long.MIN_VALUE;
+
+    private final SuntimesCalculator calculator;    // (the timeline only keeps a weak reference)
+    private final MoonTimeline timeline;
+    private final int[] lunations = new int[CACHE_SIZE];
+    private final long[][] phases = new long[CACHE_SIZE][NUM_PHASES];
+    private final boolean[] cached = new boolean[CACHE_SIZE];
+
+    public MoonLunations(@NonNull SuntimesCalculator calculator) {
+        this.calculator = calculator;
+        this.timeline = MoonTimeline.getTimeline(calculator);
+    }
+
+    /**
+     * @return the mean (approximate) instant of the lunation's new moon
+     */
+    public static long meanNewMoon(int lunation) {
+        return LUNATION_1 + (long)((lunation - 1) * SYNODIC_MONTH_MILLIS);
+    }
+
+    /**
+     * @return the lunation whose mean new moon most recently preceded the given instant
+     */
+    public static int meanLunation(long millis) {
+        return (int)Math.floor((millis - LUNATION_1) / SYNODIC_MONTH_MILLIS) + 1;
+    }
+
+    /**
+     * @param date a date/time
+     * @return the lunation containing date (its new moon is at or before date)
+     */
+    public int lunationOf(@NonNull Calendar date)
+    {
+        long millis = date.getTimeInMillis();
+        int lunation = meanLunation(millis);
+        Calendar newMoon = getPhase(lunation, SuntimesCalculator.MoonPhase.NEW);
+        if (newMoon != null && newMoon.getTimeInMillis() > millis) {
+            return lunation - 1;
+        }
+        Calendar nextNewMoon = getPhase(lunation + 1, SuntimesCalculator.MoonPhase.NEW);
+        if (nextNewMoon != null && nextNewMoon.getTimeInMillis() <= millis) {
+            return lunation + 1;
+        }
+        return lunation;
+    }
+
+    /**
+     * @param lunation lunation number
+     * @param phase major phase
+     * @return the instant of the phase during the given lunation (or null if it couldn't be found)
+     */
+    @Nullable
+    public Calendar getPhase(int lunation, @NonNull SuntimesCalculator.MoonPhase phase)
+    {
+        long millis = getPhaseMillis(lunation, phase);
+        if (millis == NONE) {
+            return null;
+        }
+        Calendar calendar = Calendar.getInstance(calculator.getTimeZone());
+        calendar.setTimeInMillis(millis);
+        return calendar;
+    }
+
+    private synchronized long getPhaseMillis(int lunation, @NonNull SuntimesCalculator.MoonPhase phase)
+    {
+        int i = (lunation % CACHE_SIZE + CACHE_SIZE) % CACHE_SIZE;
+        if (!cached[i] || lunations[i] != lunation)
+        {
+            calculatePhases(lunation, phases[i]);
+            lunations[i] = lunation;
+            cached[i] = true;
+        }
+        return phases[i][phase.ordinal()];
+    }
+
+    private void calculatePhases(int lunation, long[] result)
+    {
+        Arrays.fill(result, NONE);
+        Calendar date = Calendar.getInstance(calculator.getTimeZone());
+        date.setTimeInMillis(meanNewMoon(lunation) - SEARCH_MARGIN_MILLIS);
+
+        Calendar newMoon = timeline.getMoonPhaseNextDate(SuntimesCalculator.MoonPhase.NEW, date);
+        if (newMoon != null)
+        {
+            result[SuntimesCalculator.MoonPhase.NEW.ordinal()] = newMoon.getTimeInMillis();
+            for (SuntimesCalculator.MoonPhase phase : SuntimesCalculator.MoonPhase.values())
+            {
+                if (phase != SuntimesCalculator.MoonPhase.NEW)
+                {
+                    Calendar event = timeline.getMoonPhaseNextDate(phase, newMoon);
+                    result[phase.ordinal()] = (event != null ? event.getTimeInMillis() : NONE);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,256 @@
+/**
+    Copyright (C) 2020 Forrest Guice
+    This file is part of SuntimesWidget.
+
+    SuntimesWidget is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    SuntimesWidget is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with SuntimesWidget.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package com.forrestguice.suntimeswidget.calculator;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import com.forrestguice.suntimeswidget.calculator.core.SuntimesCalculator;
+
+import java.lang.ref.WeakReference;
+import java.util.Calendar;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.WeakHashMap;
+
+/**
+ * MoonTimeline
+ * Lunar events (rise/set, major phases, apogee and perigee) calculated by a single calculator, kept so that
+ * overlapping requests are answered without searching again. Phase and apsis events are kept as runs of
+ * consecutive events that are extended incrementally as requested dates advance; rise and set times are kept
+ * for a window of recently requested days.
+ *
+ * A timeline is shared by everything using the same calculator instance (see SuntimesCalculatorFactory); it
+ * only keeps a weak reference to the calculator, so it is discarded when the calculator is no longer used.
+ * Results are copies and may be modified by the caller.
+ */
+public class MoonTimeline
+{
+    public static final int MAX_DAYS = 64;          // rise/set days kept
+    public static final int MAX_EVENTS = 256;       // events kept per series
+    public static final int MAX_EXTEND = 16;        // events calculated to extend a series before starting over
+
+    private static final long TOLERANCE_MILLIS = 60 * 1000;    // events within a minute are considered the same
+
+    private static final WeakHashMap<SuntimesCalculator, MoonTimeline> timelines = new WeakHashMap<>();
+
+    /**
+     * @param calculator a calculator that supports FEATURE_MOON
+     * @return the timeline shared by all users of this calculator
+     */
+    public static MoonTimeline getTimeline(@NonNull SuntimesCalculator calculator)
+    {
+        synchronized (timelines)
+        {
+            MoonTimeline timeline = timelines.get(calculator);
+            if (timeline == null) {
+                timelines.put(calculator, (timeline = new MoonTimeline(calculator)));
+            }
+            return timeline;
+        }
+    }
+
+    public static void clearTimelines()
+    {
+        synchronized (timelines) {
+            timelines.clear();
+        }
+    }
+
+    private final WeakReference<SuntimesCalculator> calculatorRef;    // weak; the calculator is also the timelines key
+    private final HashMap<SuntimesCalculator.MoonPhase, EventSeries> phases = new HashMap<>();
+    private final EventSeries apogee, perigee;
+    private final LinkedHashMap<String, SuntimesCalculator.MoonTimes> days = new LinkedHashMap<String, SuntimesCalculator.MoonTimes>(MAX_DAYS, 0.75f, true)
+    {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, SuntimesCalculator.MoonTimes> eldest) {
+            return size() > MAX_DAYS;
+        }
+    };
+
+    protected MoonTimeline(@NonNull SuntimesCalculator calculator)
+    {
+        this.calculatorRef = new WeakReference<>(calculator);
+        for (final SuntimesCalculator.MoonPhase phase : SuntimesCalculator.MoonPhase.values())
+        {
+            phases.put(phase, new EventSeries() {
+                @Override
+                protected Calendar calculateNext(Calendar date) {
+                    SuntimesCalculator calculator = getCalculator();
+                    return (calculator != null ? calculator.getMoonPhaseNextDate(phase, date) : null);
+                }
+            });
+        }
+        apogee = new EventSeries() {
+            @Override
+            protected Calendar calculateNext(Calendar date) {
+                SuntimesCalculator calculator = getCalculator();
+                return (calculator != null ? calculator.getMoonApogeeNextDate(date) : null);
+            }
+        };
+        perigee = new EventSeries() {
+            @Override
+            protected Calendar calculateNext(Calendar date) {
+                SuntimesCalculator calculator = getCalculator();
+                return (calculator != null ? calculator.getMoonPerigeeNextDate(date) : null);
+            }
+        };
+    }
+
+    /**
+     * @return the calculator, or null if it is no longer in use
+     */
+    @Nullable
+    public SuntimesCalculator getCalculator() {
+        return calculatorRef.get();
+    }
+
+    /**
+     * @see SuntimesCalculator#getMoonTimesForDate(Calendar)
+     */
+    @NonNull
+    public SuntimesCalculator.MoonTimes getMoonTimesForDate(@NonNull Calendar date)
+    {
+        String key = date.getTimeZone().getID() + "_" + date.get(Calendar.YEAR) + "_" + date.get(Calendar.DAY_OF_YEAR);
+        SuntimesCalculator.MoonTimes times;
+        synchronized (days)
+        {
+            times = days.get(key);
+            if (times == null)
+            {
+                SuntimesCalculator calculator = getCalculator();
+                if (calculator == null) {
+                    return new SuntimesCalculator.MoonTimes();
+                }
+                times = calculator.getMoonTimesForDate(date);
+                if (times == null) {
+                    times = new SuntimesCalculator.MoonTimes();
+                }
+                days.put(key, times);
+            }
+        }
+
+        SuntimesCalculator.MoonTimes result = new SuntimesCalculator.MoonTimes();
+        result.riseTime = copy(times.riseTime);
+        result.setTime = copy(times.setTime);
+        return result;
+    }
+
+    /**
+     * @see SuntimesCalculator#getMoonPhaseNextDate(SuntimesCalculator.MoonPhase, Calendar)
+     */
+    @Nullable
+    public Calendar getMoonPhaseNextDate(@NonNull SuntimesCalculator.MoonPhase phase, @NonNull Calendar date) {
+        return phases.get(phase).next(date);
+    }
+
+    /**
+     * @see SuntimesCalculator#getMoonApogeeNextDate(Calendar)
+     */
+    @Nullable
+    public Calendar getMoonApogeeNextDate(@NonNull Calendar date) {
+        return apogee.next(date);
+    }
+
+    /**
+     * @see SuntimesCalculator#getMoonPerigeeNextDate(Calendar)
+     */
+    @Nullable
+    public Calendar getMoonPerigeeNextDate(@NonNull Calendar date) {
+        return perigee.next(date);
+    }
+
+    @Nullable
+    private static Calendar copy(@Nullable Calendar calendar) {
+        return (calendar != null ? (Calendar) calendar.clone() : null);
+    }
+
+    /**
+     * EventSeries
+     * A run of consecutive events; every event that occurs after `start` (up to the last event) is known.
+     */
+    private static abstract class EventSeries
+    {
+        private final TreeMap<Long, Calendar> events = new TreeMap<>();
+        private long start = Long.MAX_VALUE;
+
+        protected abstract Calendar calculateNext(Calendar date);
+
+        public synchronized Calendar next(@NonNull Calendar date)
+        {
+            long t = date.getTimeInMillis();
+            if (!events.isEmpty() && t >= start)
+            {
+                Map.Entry<Long, Calendar> entry = events.higherEntry(t);
+                if (entry != null) {
+                    return copy(entry.getValue());
+                }
+
+                for (int i=0; i<MAX_EXTEND && events.size() < MAX_EVENTS; i++)      // extend forward
+                {
+                    Calendar last = events.lastEntry().getValue();
+                    Calendar after = (Calendar) last.clone();
+                    after.setTimeInMillis(last.getTimeInMillis() + TOLERANCE_MILLIS);
+                    Calendar event = calculateNext(after);
+                    if (event == null || event.getTimeInMillis() <= last.getTimeInMillis()) {
+                        break;
+                    }
+                    events.put(event.getTimeInMillis(), event);
+                    if (event.getTimeInMillis() > t) {
+                        return copy(event);
+                    }
+                }
+            }
+
+            Calendar event = calculateNext(date);
+            if (event == null) {
+                return null;
+            }
+
+            if (!events.isEmpty() && t < start && events.size() < MAX_EVENTS)      // extend backward
+            {
+                long first = events.firstKey();
+                long e = event.getTimeInMillis();
+                boolean joined = (Math.abs(first - e) < TOLERANCE_MILLIS);
+                if (!joined && e < first)
+                {
+                    Calendar after = (Calendar) event.clone();
+                    after.setTimeInMillis(e + TOLERANCE_MILLIS);
+                    Calendar following = calculateNext(after);
+                    joined = (following != null && Math.abs(first - following.getTimeInMillis()) < TOLERANCE_MILLIS);
+                }
+                if (joined)
+                {
+                    if (e < first) {
+                        events.put(e, event);
+                    }
+                    start = t;
+                    return copy(event);
+                }
+            }
+
+            events.clear();        // start over
+            events.put(event.getTimeInMillis(), event);
+            start = t;
+            return copy(event);
+        }
+    }
+}
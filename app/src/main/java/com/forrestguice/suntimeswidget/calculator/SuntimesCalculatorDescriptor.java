@@ -29,6 +29,7 @@ import android.util.Log;
 import com.forrestguice.suntimeswidget.calculator.core.SuntimesCalculator;
 import com.forrestguice.suntimeswidget.calculator.core.SuntimesCalculatorInfo;
 import com.forrestguice.suntimeswidget.settings.AppSettings;
+import com.forrestguice.suntimeswidget.settings.WidgetSettings;
 
 import java.security.InvalidParameterException;
 import java.util.ArrayList;
@@ -122,6 +123,8 @@ public class SuntimesCalculatorDescriptor implements Comparable, SuntimesCalcula
     public static void reinitCalculators(Context context)
     {
         calculators.clear();
+        SuntimesCalculatorFactory.clearPool();
+        WidgetSettings.invalidateSnapshots();
         initCalculators(context);
     }
 
@@ -19,10 +19,12 @@
 package com.forrestguice.suntimeswidget.calculator;
 
 import android.content.Context;
+import android.support.v4.util.LruCache;
 import android.util.Log;
 
 import com.forrestguice.suntimeswidget.calculator.core.Location;
 import com.forrestguice.suntimeswidget.calculator.core.SuntimesCalculator;
+import com.forrestguice.suntimeswidget.settings.WidgetTimezones;
 
 import java.lang.ref.WeakReference;
 import java.util.TimeZone;
@@ -36,6 +38,11 @@ import java.util.TimeZone;
  * using reflection when the createCalculator method is called. The descriptor identifies the
  * calculator using name(), the class to instantiate using getReference(), and the value to display
  * in the UI using getDisplayString().
+ *
+ * Initialized calculators are kept in a (bounded, process-wide) pool keyed by descriptor, location, and
+ * timezone; creating a calculator for a setup that was seen recently returns the pooled instance. Pooled
+ * instances may be used by several threads at once, so only the bundled calculators (which hold no state
+ * beyond what is set by init) are pooled; plugin calculators are always created new (see isPoolable).
  */
 public class SuntimesCalculatorFactory
 {
@@ -82,15 +89,44 @@ public class SuntimesCalculatorFactory
 
     /**
      * Create a calculator for a given location and timezone using the calculator descriptor that was
-     * passed to the factory when it was created.
+     * passed to the factory when it was created. The calculator may be shared (pooled) with other callers.
      * @param location a SuntimesWidgetSettings.Location specifying latitude and longitude
      * @param timezone a timezone string
      * @return a calculator object that implements SuntimesCalculator
      */
     public SuntimesCalculator createCalculator(Location location, TimeZone timezone)
+    {
+        if (!isPoolable(current)) {
+            return newCalculator(location, timezone);
+        }
+
+        String key = poolKey(current, location, timezone);
+        PooledCalculator pooled = pool.get(key);
+        if (pooled == null)
+        {
+            pooled = new PooledCalculator();
+            pooled.calculator = newCalculator(location, timezone);
+            pooled.isFallback = (fallbackDescriptor != null);
+            pooled.fallbackDescriptor = fallbackDescriptor;
+            pool.put(key, pooled);
+
+        } else if (pooled.isFallback) {
+            signalCreatedFallback(pooled.fallbackDescriptor);
+        }
+        return pooled.calculator;
+    }
+
+    /**
+     * Create a new (unpooled) calculator for a given location and timezone.
+     * @param location a SuntimesWidgetSettings.Location specifying latitude and longitude
+     * @param timezone a timezone string
+     * @return a calculator object that implements SuntimesCalculator
+     */
+    public SuntimesCalculator newCalculator(Location location, TimeZone timezone)
     {
         //long bench_start = System.nanoTime();
         SuntimesCalculator calculator;
+        fallbackDescriptor = null;
         try {
             //Log.d("createCalculator", "trying .oO( " + current.getReference() + " )");
             Class calculatorClass = Class.forName(current.getReference());  // may fail if using proguard without exempting key classes
@@ -100,7 +136,7 @@ public class SuntimesCalculatorFactory
 
         } catch (Exception e1) {
             calculator = fallbackCalculator();
-            signalCreatedFallback(fallbackCalculatorDescriptor());
+            signalCreatedFallback(fallbackDescriptor = fallbackCalculatorDescriptor());
             Log.e("createCalculator", "fail! .oO( " + current.getReference() + "), so instantiating default: " + calculator.getClass().getName() + " :: " + timezone);
         }
         calculator.init(location, timezone, contextRef.get());
@@ -109,6 +145,92 @@ public class SuntimesCalculatorFactory
         //Log.d("DEBUG", "created " + calculator.name() + " :: " + ((bench_end - bench_start) / 1000000.0) + " ms");
         return calculator;
     }
+    private SuntimesCalculatorDescriptor fallbackDescriptor = null;
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    public static final int MAX_POOL_SIZE = 16;
+
+    private static final LruCache<String, PooledCalculator> pool = new LruCache<>(MAX_POOL_SIZE);    // LruCache is thread-safe
+
+    /**
+     * Calculators that are safe to share between threads (the SuntimesCalculator interface doesn't require it).
+     */
+    private static final String[] THREADSAFE_CALCULATORS = new String[] {
+            com.forrestguice.suntimeswidget.calculator.sunrisesunset_java.SunriseSunsetSuntimesCalculator.REF,
+            com.forrestguice.suntimeswidget.calculator.ca.rmen.sunrisesunset.SunriseSunsetSuntimesCalculator.REF,
+            com.forrestguice.suntimeswidget.calculator.time4a.Time4ASimpleSuntimesCalculator.REF,
+            com.forrestguice.suntimeswidget.calculator.time4a.Time4ANOAASuntimesCalculator.REF,
+            com.forrestguice.suntimeswidget.calculator.time4a.Time4ACCSuntimesCalculator.REF,
+            com.forrestguice.suntimeswidget.calculator.time4a.Time4A4JSuntimesCalculator.REF
+    };
+
+    /**
+     * @return true if calculators created from this descriptor may be pooled (shared between threads)
+     */
+    public static boolean isPoolable(SuntimesCalculatorDescriptor descriptor)
+    {
+        if (descriptor == null || descriptor.isPlugin()) {
+            return false;
+        }
+        String reference = descriptor.getReference();
+        for (String threadsafe : THREADSAFE_CALCULATORS)
+        {
+            if (threadsafe.equals(reference)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static class PooledCalculator
+    {
+        public SuntimesCalculator calculator;
+        public boolean isFallback = false;
+        public SuntimesCalculatorDescriptor fallbackDescriptor = null;
+    }
+
+    /**
+     * @return a key for (descriptor, latitude, longitude, altitude, timezone); apparent solar time also includes
+     * the calculator its equation of time comes from
+     */
+    public static String poolKey(SuntimesCalculatorDescriptor descriptor, Location location, TimeZone timezone)
+    {
+        String timezoneKey = null;
+        if (timezone != null)
+        {
+            timezoneKey = timezone.getClass().getName() + "_" + timezone.getID() + "_" + timezone.getRawOffset();
+            if (timezone instanceof WidgetTimezones.ApparentSolarTime)
+            {
+                SuntimesCalculator eotCalculator = ((WidgetTimezones.ApparentSolarTime) timezone).getCalculator();
+                timezoneKey += "_" + (eotCalculator != null ? eotCalculator.getClass().getName() : null);
+            }
+        }
+        return (descriptor != null ? descriptor.getReference() : null) + "_"
+                + (location != null ? location.coordinateKey() : null) + "_"
+                + timezoneKey;
+    }
+
+    public static int poolHitCount() {
+        return pool.hitCount();
+    }
+    public static int poolMissCount() {
+        return pool.missCount();
+    }
+    public static int poolSize() {
+        return pool.size();
+    }
+    public static int poolEvictionCount() {
+        return pool.evictionCount();
+    }
+
+    /**
+     * Discards all pooled calculators (e.g. after calculator plugins are added or removed).
+     */
+    public static void clearPool() {
+        pool.evictAll();
+    }
 
     public SuntimesCalculator fallbackCalculator()
     {
@@ -136,6 +136,16 @@ public class SuntimesData
         return timezoneMode;
     }
 
+    /**
+     * Property: settings
+     * The settings snapshot that was used to initialize from settings, may be null.
+     */
+    protected WidgetSettings.Snapshot settings = null;
+    public WidgetSettings.Snapshot settings()
+    {
+        return settings;
+    }
+
     /**
      * Property: isCalculated
      */
@@ -168,6 +178,7 @@ public class SuntimesData
     protected void initFromOther( SuntimesData other )
     {
         this.appWidgetID = other.appWidgetID;
+        this.settings = other.settings;
         this.calculatorMode = other.calculatorMode();
         this.locationMode = other.locationMode();
         this.timezoneMode = other.timezoneMode();
@@ -192,27 +203,39 @@ public class SuntimesData
     }
     protected void initFromSettings(Context context, int appWidgetId, String calculatorName)
     {
-        this.appWidgetID = appWidgetId;
+        initFromSettings(context, WidgetSettings.loadSnapshot(context, appWidgetId), calculatorName);
+    }
+
+    /**
+     * init from a settings snapshot
+     * @param context a context (used to access shared prefs for settings the snapshot doesn't include)
+     * @param settings the settings of some widget (0 for app)
+     */
+    protected void initFromSettings(Context context, WidgetSettings.Snapshot settings, String calculatorName)
+    {
+        this.appWidgetID = settings.appWidgetId();
+        this.settings = settings;
         calculated = false;
 
         // from general settings
-        calculatorMode = WidgetSettings.loadCalculatorModePref(context, appWidgetId, calculatorName);
+        calculatorMode = (settings.hasCalculatorMode(calculatorName) ? settings.calculatorMode(calculatorName)
+                                                                       : WidgetSettings.loadCalculatorModePref(context, appWidgetID, calculatorName));
 
         // from location settings
-        location = WidgetSettings.loadLocationPref(context, appWidgetId);
-        locationMode = WidgetSettings.loadLocationModePref(context, appWidgetId);
+        location = settings.location();
+        locationMode = settings.locationMode();
 
         // from timezone settings
-        timezone = TimeZone.getTimeZone(WidgetSettings.loadTimezonePref(context, appWidgetId));
-        timezoneMode = WidgetSettings.loadTimezoneModePref(context, appWidgetId);
+        timezone = TimeZone.getTimeZone(settings.timezone());
+        timezoneMode = settings.timezoneMode();
         initTimezone(context);
 
         // from date settings
-        WidgetSettings.DateMode dateMode = WidgetSettings.loadDateModePref(context, appWidgetId);
+        WidgetSettings.DateMode dateMode = settings.dateMode();
         if (dateMode == WidgetSettings.DateMode.CUSTOM_DATE)
         {
             Calendar customDate = Calendar.getInstance(timezone);
-            WidgetSettings.DateInfo dateInfo = WidgetSettings.loadDatePref(context, appWidgetId);
+            WidgetSettings.DateInfo dateInfo = settings.date();
             if (dateInfo.isSet())
             {
                 customDate.set(dateInfo.getYear(), dateInfo.getMonth(), dateInfo.getDay());
@@ -239,7 +262,8 @@ public class SuntimesData
                 break;
 
             case SOLAR_TIME:
-                WidgetSettings.SolarTimeMode solarMode = WidgetSettings.loadSolarTimeModePref(context, appWidgetID);
+                WidgetSettings.SolarTimeMode solarMode = (settings != null) ? settings.solarTimeMode()
+                                                                            : WidgetSettings.loadSolarTimeModePref(context, appWidgetID);
                 switch (solarMode)
                 {
                     case APPARENT_SOLAR_TIME:
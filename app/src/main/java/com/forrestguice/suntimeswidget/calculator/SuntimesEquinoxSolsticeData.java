@@ -71,13 +71,13 @@ public class SuntimesEquinoxSolsticeData extends SuntimesData
     /**
      * init from shared preferences
      * @param context a context used to access shared prefs
-     * @param appWidgetId the widgetID to load settings from (0 for app)
+     * @param settings the settings of some widget (0 for app)
      */
     @Override
-    public void initFromSettings(Context context, int appWidgetId, String calculatorName)
+    public void initFromSettings(Context context, WidgetSettings.Snapshot settings, String calculatorName)
     {
-        super.initFromSettings(context, appWidgetId, calculatorName);
-        timeMode = WidgetSettings.loadTimeMode2Pref(context, appWidgetId);
+        super.initFromSettings(context, settings, calculatorName);
+        timeMode = settings.timeMode2();
     }
 
     /**
@@ -227,9 +227,10 @@ public class SuntimesMoonData extends SuntimesMoonData0
         date = todaysCalendar.getTime();
         dateOther = otherCalendar.getTime();
 
-        riseSet[0] = calculator.getMoonTimesForDate(otherCalendar0);
-        riseSet[1] = calculator.getMoonTimesForDate(todaysCalendar);
-        riseSet[2] = calculator.getMoonTimesForDate(otherCalendar);
+        MoonTimeline timeline = timeline();
+        riseSet[0] = timeline.getMoonTimesForDate(otherCalendar0);
+        riseSet[1] = timeline.getMoonTimesForDate(todaysCalendar);
+        riseSet[2] = timeline.getMoonTimesForDate(otherCalendar);
 
         ArrayList<Calendar> midnights = findMidnight();
         if (midnights.size() >= 1)
@@ -292,7 +293,7 @@ public class SuntimesMoonData extends SuntimesMoonData0
 
         Calendar after = midnight();
         for (SuntimesCalculator.MoonPhase phase : SuntimesCalculator.MoonPhase.values()) {
-            moonPhases.put(phase, calculator.getMoonPhaseNextDate(phase, after));
+            moonPhases.put(phase, timeline.getMoonPhaseNextDate(phase, after));
         }
         moonPhaseToday = findPhaseOf(after, true);
 
@@ -70,12 +70,19 @@ public class SuntimesMoonData0 extends SuntimesData
         };
     }
 
+    /**
+     * @return the timeline shared by all data using the same calculator; calculate() needs to be called first.
+     */
+    public MoonTimeline timeline() {
+        return MoonTimeline.getTimeline(calculator);
+    }
+
     /**
      * @return the date and position (Pair) of the upcoming lunar apogee.
      */
     public Pair<Calendar, SuntimesCalculator.MoonPosition> getMoonApogee()
     {
-        Calendar apogeeDate = calculator.getMoonApogeeNextDate(todaysCalendar);
+        Calendar apogeeDate = timeline().getMoonApogeeNextDate(todaysCalendar);
         if (apogeeDate != null) {
             SuntimesCalculator.MoonPosition apogeePosition = calculator.getMoonPosition(apogeeDate);
             return new Pair<>(apogeeDate, apogeePosition);
@@ -87,7 +94,7 @@ public class SuntimesMoonData0 extends SuntimesData
      */
     public Pair<Calendar, SuntimesCalculator.MoonPosition> getMoonPerigee()
     {
-        Calendar perigeeDate = calculator.getMoonPerigeeNextDate(todaysCalendar);
+        Calendar perigeeDate = timeline().getMoonPerigeeNextDate(todaysCalendar);
         if (perigeeDate != null) {
             SuntimesCalculator.MoonPosition perigeePosition = calculator.getMoonPosition(perigeeDate);
             return new Pair<>(perigeeDate, perigeePosition);
@@ -68,8 +68,9 @@ public class SuntimesMoonData1 extends SuntimesMoonData0
         super.calculate();
 
         Calendar after = (Calendar)todaysCalendar.clone();
+        MoonTimeline timeline = timeline();
         for (SuntimesCalculator.MoonPhase phase : SuntimesCalculator.MoonPhase.values()) {
-            moonPhases.put(phase, calculator.getMoonPhaseNextDate(phase, after));
+            moonPhases.put(phase, timeline.getMoonPhaseNextDate(phase, after));
         }
     }
 
@@ -22,10 +22,13 @@ import android.content.Context;
 import android.util.Log;
 
 import com.forrestguice.suntimeswidget.R;
+import com.forrestguice.suntimeswidget.calculator.core.SuntimesCalculator;
 import com.forrestguice.suntimeswidget.settings.SolarEvents;
 import com.forrestguice.suntimeswidget.settings.WidgetSettings;
 
 import java.util.Calendar;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
 
 public class SuntimesRiseSetData extends SuntimesData
 {
@@ -211,6 +214,20 @@ public class SuntimesRiseSetData extends SuntimesData
         linked = data;
     }
 
+    /**
+     * Property: shared days
+     * Results shared with other data in the same batch (e.g. a widget update), may be null.
+     */
+    protected SharedDays sharedDays = null;
+    public SharedDays sharedDays()
+    {
+        return sharedDays;
+    }
+    public void setSharedDays(SharedDays days)
+    {
+        sharedDays = days;
+    }
+
     /**
      * @param other another instance of SuntimesRiseSetData
      * @param layoutID an R.layout.someLayoutID to be associated w/ this data
@@ -220,6 +237,7 @@ public class SuntimesRiseSetData extends SuntimesData
         initFromOther(other);
 
         this.layoutID = layoutID;
+        this.sharedDays = other.sharedDays();
         this.compareMode = other.compareMode();
         this.timeMode = other.timeMode();
 
@@ -234,14 +252,14 @@ public class SuntimesRiseSetData extends SuntimesData
 
     /**
      * @param context a context used to access shared prefs
-     * @param appWidgetId the widgetID to load settings from (0 for app)
+     * @param settings the settings of some widget (0 for app)
      */
     @Override
-    protected void initFromSettings(Context context, int appWidgetId, String calculatorName)
+    protected void initFromSettings(Context context, WidgetSettings.Snapshot settings, String calculatorName)
     {
-        super.initFromSettings(context, appWidgetId, calculatorName);
-        this.timeMode = WidgetSettings.loadTimeModePref(context, appWidgetId);
-        this.compareMode = WidgetSettings.loadCompareModePref(context, appWidgetId);
+        super.initFromSettings(context, settings, calculatorName);
+        this.timeMode = settings.timeMode();
+        this.compareMode = settings.compareMode();
     }
 
     public boolean isDay()
@@ -269,6 +287,17 @@ public class SuntimesRiseSetData extends SuntimesData
      */
     @Override
     public void calculate()
+    {
+        calculate(null, null);
+    }
+
+    /**
+     * Calculate using SolarDay results that were computed in advance (e.g. shared by a dataset).
+     * Results that don't match this data's dates, or that are missing this data's events, are computed instead.
+     * @param dayToday precomputed events for "today" (may be null)
+     * @param dayOther precomputed events for "other" (may be null)
+     */
+    public void calculate(SuntimesCalculator.SolarDay dayToday, SuntimesCalculator.SolarDay dayOther)
     {
         //Log.v("SuntimesWidgetData", "time mode: " + timeMode);
         //Log.v("SuntimesWidgetData", "location_mode: " + locationMode.name());
@@ -278,6 +307,33 @@ public class SuntimesRiseSetData extends SuntimesData
         //Log.v("SuntimesWidgetData", "timezone: " + timezone);
         //Log.v("SuntimesWidgetData", "compare mode: " + compareMode.name());
 
+        initCalculation();
+
+        int[] events = getSolarDayEvents(timeMode);
+        int eventMask = SuntimesCalculator.SolarDay.flags(events);
+        if (dayToday == null || !dayToday.isSameDay(todaysCalendar) || !dayToday.hasEvents(eventMask)) {
+            dayToday = computeDay(calculator, todaysCalendar, eventMask, sharedDays);
+        }
+        if (dayOther == null || !dayOther.isSameDay(otherCalendar) || !dayOther.hasEvents(eventMask)) {
+            dayOther = computeDay(calculator, otherCalendar, eventMask, sharedDays);
+        }
+
+        sunriseCalendarToday = dayToday.getEvent(events[0]);
+        sunsetCalendarToday = dayToday.getEvent(events[1]);
+        sunriseCalendarOther = dayOther.getEvent(events[0]);
+        sunsetCalendarOther = dayOther.getEvent(events[1]);
+
+        dayLengthToday = determineDayLength(sunriseCalendarToday, sunsetCalendarToday);
+        dayLengthOther = determineDayLength(sunriseCalendarOther, sunsetCalendarOther);
+
+        super.calculate();
+    }
+
+    /**
+     * Initializes the calculator, timezone, and the "today" and "other" calendars (called by calculate).
+     */
+    public void initCalculation()
+    {
         initCalculator(context);
         initTimezone(context);
 
@@ -306,69 +362,65 @@ public class SuntimesRiseSetData extends SuntimesData
 
         date = todaysCalendar.getTime();
         dateOther = otherCalendar.getTime();
+    }
 
-        switch (timeMode)
+    /**
+     * @param mode TimeMode
+     * @return the SolarDay events used as [rising, setting] by the given mode
+     */
+    public static int[] getSolarDayEvents(WidgetSettings.TimeMode mode)
+    {
+        switch (mode)
         {
-            case GOLD:
-                sunriseCalendarToday = calculator.getMorningGoldenHourForDate(todaysCalendar);
-                sunsetCalendarToday = calculator.getEveningGoldenHourForDate(todaysCalendar);
-                sunriseCalendarOther = calculator.getMorningGoldenHourForDate(otherCalendar);
-                sunsetCalendarOther = calculator.getEveningGoldenHourForDate(otherCalendar);
-                break;
-
-            case BLUE8:
-                sunriseCalendarToday = calculator.getMorningBlueHourForDate(todaysCalendar)[0];
-                sunsetCalendarToday = calculator.getEveningBlueHourForDate(todaysCalendar)[1];
-                sunriseCalendarOther = calculator.getMorningBlueHourForDate(otherCalendar)[0];
-                sunsetCalendarOther = calculator.getEveningBlueHourForDate(otherCalendar)[1];
-                break;
-
-            case BLUE4:
-                sunriseCalendarToday = calculator.getMorningBlueHourForDate(todaysCalendar)[1];
-                sunsetCalendarToday = calculator.getEveningBlueHourForDate(todaysCalendar)[0];
-                sunriseCalendarOther = calculator.getMorningBlueHourForDate(otherCalendar)[1];
-                sunsetCalendarOther = calculator.getEveningBlueHourForDate(otherCalendar)[0];
-                break;
-
-            case NOON:
-                sunriseCalendarToday = sunsetCalendarToday = calculator.getSolarNoonCalendarForDate(todaysCalendar);
-                sunriseCalendarOther = sunsetCalendarOther = calculator.getSolarNoonCalendarForDate(otherCalendar);
-                break;
-
-            case CIVIL:
-                sunriseCalendarToday = calculator.getCivilSunriseCalendarForDate(todaysCalendar);
-                sunsetCalendarToday = calculator.getCivilSunsetCalendarForDate(todaysCalendar);
-                sunriseCalendarOther = calculator.getCivilSunriseCalendarForDate(otherCalendar);
-                sunsetCalendarOther = calculator.getCivilSunsetCalendarForDate(otherCalendar);
-                break;
-
-            case NAUTICAL:
-                sunriseCalendarToday = calculator.getNauticalSunriseCalendarForDate(todaysCalendar);
-                sunsetCalendarToday = calculator.getNauticalSunsetCalendarForDate(todaysCalendar);
-                sunriseCalendarOther = calculator.getNauticalSunriseCalendarForDate(otherCalendar);
-                sunsetCalendarOther = calculator.getNauticalSunsetCalendarForDate(otherCalendar);
-                break;
+            case GOLD: return new int[] { SuntimesCalculator.SolarDay.MORNING_GOLDEN, SuntimesCalculator.SolarDay.EVENING_GOLDEN };
+            case BLUE8: return new int[] { SuntimesCalculator.SolarDay.MORNING_BLUE8, SuntimesCalculator.SolarDay.EVENING_BLUE8 };
+            case BLUE4: return new int[] { SuntimesCalculator.SolarDay.MORNING_BLUE4, SuntimesCalculator.SolarDay.EVENING_BLUE4 };
+            case NOON: return new int[] { SuntimesCalculator.SolarDay.NOON, SuntimesCalculator.SolarDay.NOON };
+            case CIVIL: return new int[] { SuntimesCalculator.SolarDay.MORNING_CIVIL, SuntimesCalculator.SolarDay.EVENING_CIVIL };
+            case NAUTICAL: return new int[] { SuntimesCalculator.SolarDay.MORNING_NAUTICAL, SuntimesCalculator.SolarDay.EVENING_NAUTICAL };
+            case ASTRONOMICAL: return new int[] { SuntimesCalculator.SolarDay.MORNING_ASTRONOMICAL, SuntimesCalculator.SolarDay.EVENING_ASTRONOMICAL };
+            case OFFICIAL: default: return new int[] { SuntimesCalculator.SolarDay.SUNRISE, SuntimesCalculator.SolarDay.SUNSET };
+        }
+    }
 
-            case ASTRONOMICAL:
-                sunriseCalendarToday = calculator.getAstronomicalSunriseCalendarForDate(todaysCalendar);
-                sunsetCalendarToday = calculator.getAstronomicalSunsetCalendarForDate(todaysCalendar);
-                sunriseCalendarOther = calculator.getAstronomicalSunriseCalendarForDate(otherCalendar);
-                sunsetCalendarOther = calculator.getAstronomicalSunsetCalendarForDate(otherCalendar);
-                break;
+    /**
+     * computeDay
+     * Calls calculator.computeDay, falling back to per event methods for calculators (plugins) that predate it.
+     * @param calculator a calculator instance
+     * @param date a Calendar representing a given date
+     * @param eventMask a combination of SolarDay flags
+     * @return a SolarDay obj wrapping the requested events
+     */
+    public static SuntimesCalculator.SolarDay computeDay(SuntimesCalculator calculator, Calendar date, int eventMask) {
+        return computeDay(calculator, date, eventMask, null);
+    }
 
-            case OFFICIAL:
-            default:
-                sunriseCalendarToday = calculator.getOfficialSunriseCalendarForDate(todaysCalendar);
-                sunsetCalendarToday = calculator.getOfficialSunsetCalendarForDate(todaysCalendar);
-                sunriseCalendarOther = calculator.getOfficialSunriseCalendarForDate(otherCalendar);
-                sunsetCalendarOther = calculator.getOfficialSunsetCalendarForDate(otherCalendar);
-                break;
+    /**
+     * @param shared results shared by a batch (may be null)
+     * @see #computeDay(SuntimesCalculator, Calendar, int)
+     */
+    public static SuntimesCalculator.SolarDay computeDay(SuntimesCalculator calculator, Calendar date, int eventMask, SharedDays shared)
+    {
+        SuntimesCalculator.SolarDay day = (shared != null ? shared.get(calculator, date, eventMask) : null);
+        if (day == null)
+        {
+            day = computeDay0(calculator, date, eventMask);
+            if (shared != null) {
+                shared.put(calculator, day, eventMask);
+            }
         }
+        return day;
+    }
 
-        dayLengthToday = determineDayLength(sunriseCalendarToday, sunsetCalendarToday);
-        dayLengthOther = determineDayLength(sunriseCalendarOther, sunsetCalendarOther);
+    private static SuntimesCalculator.SolarDay computeDay0(SuntimesCalculator calculator, Calendar date, int eventMask)
+    {
+        try {
+            return calculator.computeDay(date, eventMask);
 
-        super.calculate();
+        } catch (AbstractMethodError e) {
+            Log.w("computeDay", calculator.name() + " doesn't implement computeDay; falling back to per event methods.. " + e);
+            return SuntimesCalculator.SolarDay.compute(calculator, date, eventMask);
+        }
     }
 
     /**
@@ -398,6 +450,69 @@ public class SuntimesRiseSetData extends SuntimesData
             return sunset.getTimeInMillis() - midnight0.getTimeInMillis();
         }
     }
-}
 
+    /**
+     * SharedDays
+     * computeDay results shared by data that uses the same calculator instance (calculators are pooled by descriptor,
+     * location, and timezone; see SuntimesCalculatorFactory), so a batch of widgets computes each day once. An instance
+     * is created for each batch (e.g. SuntimesWidget0.onUpdate) and passed to the data it calculates (see setSharedDays).
+     * Results are handed out as copies.
+     */
+    public static class SharedDays
+    {
+        private final IdentityHashMap<SuntimesCalculator, HashMap<String, SuntimesCalculator.SolarDay>> days = new IdentityHashMap<>();
+        private int hitCount = 0;
+
+        public synchronized int hitCount() {
+            return hitCount;
+        }
 
+        protected static String dayKey(Calendar date, int eventMask) {
+            return date.getTimeZone().getID() + "_" + date.get(Calendar.YEAR) + "_" + date.get(Calendar.DAY_OF_YEAR) + "_" + eventMask;
+        }
+
+        /**
+         * @return a copy of the shared result, or null if there isn't one
+         */
+        public synchronized SuntimesCalculator.SolarDay get(SuntimesCalculator calculator, Calendar date, int eventMask)
+        {
+            if (calculator != null && date != null)
+            {
+                HashMap<String, SuntimesCalculator.SolarDay> calculatorDays = days.get(calculator);
+                SuntimesCalculator.SolarDay day = (calculatorDays != null ? calculatorDays.get(dayKey(date, eventMask)) : null);
+                if (day != null)
+                {
+                    hitCount++;
+                    return copy(day, eventMask);
+                }
+            }
+            return null;
+        }
+
+        public synchronized void put(SuntimesCalculator calculator, SuntimesCalculator.SolarDay day, int eventMask)
+        {
+            if (calculator != null && day != null && day.getDate() != null)
+            {
+                HashMap<String, SuntimesCalculator.SolarDay> calculatorDays = days.get(calculator);
+                if (calculatorDays == null) {
+                    days.put(calculator, (calculatorDays = new HashMap<>()));
+                }
+                calculatorDays.put(dayKey(day.getDate(), eventMask), copy(day, eventMask));
+            }
+        }
+
+        private static SuntimesCalculator.SolarDay copy(SuntimesCalculator.SolarDay day, int eventMask)
+        {
+            SuntimesCalculator.SolarDay copy = new SuntimesCalculator.SolarDay((Calendar) day.getDate().clone());
+            for (int event = 0; event < SuntimesCalculator.SolarDay.NUM_EVENTS; event++)
+            {
+                if (SuntimesCalculator.SolarDay.isRequested(eventMask, event) && day.hasEvents(SuntimesCalculator.SolarDay.flag(event)))
+                {
+                    Calendar value = day.getEvent(event);
+                    copy.setEvent(event, (value != null ? (Calendar) value.clone() : null));
+                }
+            }
+            return copy;
+        }
+    }
+}
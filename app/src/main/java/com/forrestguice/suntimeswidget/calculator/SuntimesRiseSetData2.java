@@ -22,6 +22,7 @@ import android.content.Context;
 import android.util.Log;
 
 import com.forrestguice.suntimeswidget.R;
+import com.forrestguice.suntimeswidget.calculator.core.SuntimesCalculator;
 import com.forrestguice.suntimeswidget.settings.WidgetSettings;
 
 import java.util.Arrays;
@@ -240,50 +241,13 @@ public class SuntimesRiseSetData2 extends SuntimesRiseSetData
         date = todaysCalendar.getTime();
         dateOther = otherCalendar.getTime();
 
+        int[] events = getSolarDayEvents(timeMode);
+        int eventMask = SuntimesCalculator.SolarDay.flags(events);
         for (int i=0; i<calendar.length; i++)
         {
-            switch (timeMode)
-            {
-                case GOLD:
-                    sunrise[i] = calculator.getMorningGoldenHourForDate(calendar[i]);
-                    sunset[i] = calculator.getEveningGoldenHourForDate(calendar[i]);
-                    break;
-
-                case BLUE8:
-                    sunrise[i] = calculator.getMorningBlueHourForDate(calendar[i])[0];
-                    sunset[i] = calculator.getEveningBlueHourForDate(calendar[i])[1];
-                    break;
-
-                case BLUE4:
-                    sunrise[i] = calculator.getMorningBlueHourForDate(calendar[i])[1];
-                    sunset[i] = calculator.getEveningBlueHourForDate(calendar[i])[0];
-                    break;
-
-                case NOON:
-                    sunrise[i] = sunset[i] = calculator.getSolarNoonCalendarForDate(calendar[i]);
-                    break;
-
-                case CIVIL:
-                    sunrise[i] = calculator.getCivilSunriseCalendarForDate(calendar[i]);
-                    sunset[i] = calculator.getCivilSunsetCalendarForDate(calendar[i]);
-                    break;
-
-                case NAUTICAL:
-                    sunrise[i] = calculator.getNauticalSunriseCalendarForDate(calendar[i]);
-                    sunset[i] = calculator.getNauticalSunsetCalendarForDate(calendar[i]);
-                    break;
-
-                case ASTRONOMICAL:
-                    sunrise[i] = calculator.getAstronomicalSunriseCalendarForDate(calendar[i]);
-                    sunset[i] = calculator.getAstronomicalSunsetCalendarForDate(calendar[i]);
-                    break;
-
-                case OFFICIAL:
-                default:
-                    sunrise[i] = calculator.getOfficialSunriseCalendarForDate(calendar[i]);
-                    sunset[i] = calculator.getOfficialSunsetCalendarForDate(calendar[i]);
-                    break;
-            }
+            SuntimesCalculator.SolarDay day = computeDay(calculator, calendar[i], eventMask, sharedDays);
+            sunrise[i] = day.getEvent(events[0]);
+            sunset[i] = day.getEvent(events[1]);
         }
 
         int i = indexOfOther();
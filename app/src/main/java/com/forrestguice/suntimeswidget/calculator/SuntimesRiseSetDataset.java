@@ -89,28 +89,35 @@ public class SuntimesRiseSetDataset
         dataset.add(dataBlue4);
     }
 
+    /**
+     * @param days results shared with other data in the same batch (may be null)
+     */
+    public void setSharedDays(SuntimesRiseSetData.SharedDays days)
+    {
+        for (SuntimesRiseSetData data : dataset) {
+            data.setSharedDays(days);
+        }
+    }
+
     public void calculateData()
     {
-        SuntimesCalculator calculator = null;
-        SuntimesCalculatorDescriptor descriptor = null;
+        dataActual.initCalculation();
+        SuntimesCalculator calculator = dataActual.calculator();
+        SuntimesCalculatorDescriptor descriptor = dataActual.calculatorMode();
+
+        int eventMask = SuntimesCalculator.SolarDay.ALL_EVENTS;    // every event for both days (shared by the dataset)
+        SuntimesCalculator.SolarDay dayToday = SuntimesRiseSetData.computeDay(calculator, dataActual.calendar(), eventMask, dataActual.sharedDays());
+        SuntimesCalculator.SolarDay dayOther = SuntimesRiseSetData.computeDay(calculator, dataActual.getOtherCalendar(), eventMask, dataActual.sharedDays());
 
-        boolean first = true;
         ArrayList<WidgetSettings.TimeMode> events0 = new ArrayList<WidgetSettings.TimeMode>();
         ArrayList<WidgetSettings.TimeMode> events1 = new ArrayList<WidgetSettings.TimeMode>();
 
         for (SuntimesRiseSetData data : dataset )
         {
-            if (first)
-            {
-                data.calculate();
-                calculator = data.calculator();
-                descriptor = data.calculatorMode();
-                first = false;
-
-            } else {
+            if (data != dataActual) {
                 data.setCalculator(calculator, descriptor);
-                data.calculate();
             }
+            data.calculate(dayToday, dayOther);
 
             WidgetSettings.TimeMode mode = data.timeMode();
             if (mode == WidgetSettings.TimeMode.NOON || mode == WidgetSettings.TimeMode.GOLD
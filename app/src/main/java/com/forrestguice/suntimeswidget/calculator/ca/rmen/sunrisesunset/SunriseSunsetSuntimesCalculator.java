@@ -300,6 +300,46 @@ public class SunriseSunsetSuntimesCalculator implements SuntimesCalculator
         return null;
     }
 
+    @Override
+    public SolarDay computeDay(Calendar date, int eventMask)
+    {
+        double latitude = location.getLatitudeAsDouble();
+        double longitude = location.getLongitudeAsDouble();
+        SolarDay day = new SolarDay(date);
+
+        if (SolarDay.isRequested(eventMask, SolarDay.MORNING_ASTRONOMICAL) || SolarDay.isRequested(eventMask, SolarDay.EVENING_ASTRONOMICAL)) {
+            setEvents(day, SolarDay.MORNING_ASTRONOMICAL, SolarDay.EVENING_ASTRONOMICAL, SunriseSunset.getAstronomicalTwilight(date, latitude, longitude));
+        }
+        if (SolarDay.isRequested(eventMask, SolarDay.MORNING_NAUTICAL) || SolarDay.isRequested(eventMask, SolarDay.EVENING_NAUTICAL)) {
+            setEvents(day, SolarDay.MORNING_NAUTICAL, SolarDay.EVENING_NAUTICAL, SunriseSunset.getNauticalTwilight(date, latitude, longitude));
+        }
+        if (SolarDay.isRequested(eventMask, SolarDay.MORNING_CIVIL) || SolarDay.isRequested(eventMask, SolarDay.EVENING_CIVIL)) {
+            setEvents(day, SolarDay.MORNING_CIVIL, SolarDay.EVENING_CIVIL, SunriseSunset.getCivilTwilight(date, latitude, longitude));
+        }
+        if (SolarDay.isRequested(eventMask, SolarDay.SUNRISE) || SolarDay.isRequested(eventMask, SolarDay.SUNSET)) {
+            setEvents(day, SolarDay.SUNRISE, SolarDay.SUNSET, SunriseSunset.getSunriseSunset(date, latitude, longitude));
+        }
+        if (SolarDay.isRequested(eventMask, SolarDay.MORNING_GOLDEN) || SolarDay.isRequested(eventMask, SolarDay.EVENING_GOLDEN)) {
+            setEvents(day, SolarDay.MORNING_GOLDEN, SolarDay.EVENING_GOLDEN, SunriseSunset.getSunriseSunset(date, latitude, longitude, SUN_ALTITUDE_GOLDEN));
+        }
+        if (SolarDay.isRequested(eventMask, SolarDay.MORNING_BLUE8) || SolarDay.isRequested(eventMask, SolarDay.EVENING_BLUE8)) {
+            setEvents(day, SolarDay.MORNING_BLUE8, SolarDay.EVENING_BLUE8, SunriseSunset.getSunriseSunset(date, latitude, longitude, SUN_ALTITUDE_BLUE_HIGH));
+        }
+        if (SolarDay.isRequested(eventMask, SolarDay.MORNING_BLUE4) || SolarDay.isRequested(eventMask, SolarDay.EVENING_BLUE4)) {
+            setEvents(day, SolarDay.MORNING_BLUE4, SolarDay.EVENING_BLUE4, SunriseSunset.getSunriseSunset(date, latitude, longitude, SUN_ALTITUDE_BLUE_LOW));
+        }
+        if (SolarDay.isRequested(eventMask, SolarDay.NOON)) {
+            day.setEvent(SolarDay.NOON, SunriseSunset.getSolarNoon(date, latitude, longitude));
+        }
+        return day;
+    }
+
+    private static void setEvents(SolarDay day, int riseEvent, int setEvent, Calendar[] riseset)
+    {
+        day.setEvent(riseEvent, (riseset != null ? riseset[0] : null));
+        day.setEvent(setEvent, (riseset != null ? riseset[1] : null));
+    }
+
     @Override
     public Location getLocation() {
         return location;
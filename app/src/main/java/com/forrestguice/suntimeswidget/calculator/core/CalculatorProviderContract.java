@@ -20,7 +20,7 @@ package com.forrestguice.suntimeswidget.calculator.core;
 
 /**
  * CalculatorProviderContract
- * @version 4 (0.4.1)
+ * @version 5 (0.4.2)
  *
  * Supported URIs have the form: "content://AUTHORITY/query"
  * ..where [AUTHORITY] is "suntimeswidget.calculator.provider"
@@ -46,6 +46,9 @@ package com.forrestguice.suntimeswidget.calculator.core;
  *       COLUMN_CONFIG_OPTION_ALTITUDE, COLUMN_CONFIG_OPTION_WARNINGS, COLUMN_CONFIG_OPTION_TALKBACK
  *       COLUMN_CONFIG_LENGTH_UNITS, COLUMN_CONFIG_OBJECT_HEIGHT, COLUMN_CONFIG_OPTION_FIELDS
  *
+ *   The following columns are only included when requested (projection):
+ *       COLUMN_CONFIG_CACHE_SIZE, COLUMN_CONFIG_CACHE_HITS, COLUMN_CONFIG_CACHE_MISSES, COLUMN_CONFIG_CACHE_EVICTIONS
+ *
  * ------------------------------------------------------------------------------------------------*
  * QUERY_SUN (sun)
  *   The following URIs are supported:
@@ -218,13 +221,16 @@ package com.forrestguice.suntimeswidget.calculator.core;
  *     adds COLUMN_CONFIG_LENGTH_UNITS, COLUMN_CONFIG_OBJECT_HEIGHT
  *     fixes typo in COLUMN_CONFIG_PROVIDER_VERSION_CODE
  *   4 adds COLUMN_CONFIG_APP_THEME_OVERRIDE
+ *   5 adds COLUMN_CONFIG_CACHE_SIZE, COLUMN_CONFIG_CACHE_HITS, COLUMN_CONFIG_CACHE_MISSES, COLUMN_CONFIG_CACHE_EVICTIONS
+ *     SUN, MOON, MOONPHASE, and SEASONS results are cached; observers of content://AUTHORITY/ (notifyForDescendants)
+ *     are notified when cached results expire (local midnight, or the next event) or settings change.
  */
 public interface CalculatorProviderContract
 {
     String AUTHORITY = "suntimeswidget.calculator.provider";
     String READ_PERMISSION = "suntimes.permission.READ_CALCULATOR";
-    String VERSION_NAME = "v0.4.1";
-    int VERSION_CODE = 4;
+    String VERSION_NAME = "v0.4.2";
+    int VERSION_CODE = 5;
 
     /**
      * CONFIG
@@ -259,6 +265,11 @@ public interface CalculatorProviderContract
     String COLUMN_CONFIG_LENGTH_UNITS = "distance_units";                          // String (enum) METRIC, IMPERIAL
     String COLUMN_CONFIG_OBJECT_HEIGHT = "object_height";                          // float (meters)
 
+    String COLUMN_CONFIG_CACHE_SIZE = "cache_size";                                // int (calculators in the calculator pool)
+    String COLUMN_CONFIG_CACHE_HITS = "cache_hits";                                // int
+    String COLUMN_CONFIG_CACHE_MISSES = "cache_misses";                            // int
+    String COLUMN_CONFIG_CACHE_EVICTIONS = "cache_evictions";                      // int
+
 
     String QUERY_CONFIG = "config";
     String[] QUERY_CONFIG_PROJECTION = new String[] {
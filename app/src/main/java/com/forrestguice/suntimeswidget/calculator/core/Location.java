@@ -31,16 +31,22 @@ import java.util.Locale;
 
 /**
  * Location
+ * Coordinates are kept as strings (for display and parceling); numeric values are parsed once (by the constructor)
+ * into final fields, so instances can be shared between threads.
  */
 public class Location implements Parcelable
 {
     public static String pattern_latLon = "#.#####";
 
-    private String label;
-    private String latitude;   // decimal degrees (DD)
-    private String longitude;  // decimal degrees (DD)
-    private String altitude;   // meters above the WGS 84 reference ellipsoid
-    private boolean useAltitude = true;
+    private final String label;
+    private final String latitude;   // decimal degrees (DD)
+    private final String longitude;  // decimal degrees (DD)
+    private final String altitude;   // meters above the WGS 84 reference ellipsoid
+    private volatile boolean useAltitude = true;
+
+    private final double latitudeValue, longitudeValue, altitudeValue;    // parsed (and adjusted) values; NaN if the string is invalid
+    private final int hashCode;
+    private volatile String coordinateKey = null;
 
     /**
      * @param latitude decimal degrees (DD) string
@@ -79,18 +85,23 @@ public class Location implements Parcelable
         this.latitude = latitude;
         this.longitude = longitude;
 
+        String altitudeMeters = altitude;
         if (!altitudeUnitsMetric)
         {
             try {
-                this.altitude = Double.toString(feetToMeters(Double.parseDouble(altitude)));
+                altitudeMeters = Double.toString(feetToMeters(Double.parseDouble(altitude)));
 
             } catch (NumberFormatException e) {
                 Log.e("Location", "Invalid altitude " + altitude + " (ft); unable to make conversion.");
-                this.altitude = "";
+                altitudeMeters = "";
             }
-        } else {
-            this.altitude = altitude;
         }
+        this.altitude = altitudeMeters;
+
+        this.latitudeValue = parseLatitude(this.latitude);
+        this.longitudeValue = parseLongitude(this.longitude);
+        this.altitudeValue = parseAltitude(this.altitude);
+        this.hashCode = hashCode(this.label, latitudeValue, longitudeValue, altitudeValue);
     }
 
     /**
@@ -109,6 +120,11 @@ public class Location implements Parcelable
         this.latitude = formatter.format(rawLatitude);
         this.longitude = formatter.format(rawLongitude);
         this.altitude = rawAltitude + "";
+
+        this.latitudeValue = parseLatitude(this.latitude);
+        this.longitudeValue = parseLongitude(this.longitude);
+        this.altitudeValue = parseAltitude(this.altitude);
+        this.hashCode = hashCode(this.label, latitudeValue, longitudeValue, altitudeValue);
     }
 
     /**
@@ -121,6 +137,70 @@ public class Location implements Parcelable
         this.longitude = other.longitude;
         this.altitude = other.altitude;
         this.useAltitude = other.useAltitude;
+
+        this.latitudeValue = other.latitudeValue;
+        this.longitudeValue = other.longitudeValue;
+        this.altitudeValue = other.altitudeValue;
+        this.hashCode = other.hashCode;
+    }
+
+    /**
+     * @return latitude in decimal degrees (adjusted if out of range), or NaN if invalid
+     */
+    private static double parseLatitude(@Nullable String latitude)
+    {
+        double value;
+        try {
+            value = (latitude != null ? Double.parseDouble(latitude) : Double.NaN);
+        } catch (NumberFormatException e) {
+            return Double.NaN;
+        }
+
+        if (value > 90 || value < -90)
+        {
+            double s = Math.signum(value);
+            double adjusted = (s * 90) - (value % (s * 90));
+            Log.w("Location", "latitude is out of range! adjusting.. " + value + " -> " + adjusted);
+            value = adjusted;
+        }
+        return value;
+    }
+
+    /**
+     * @return longitude in decimal degrees (adjusted if out of range, 180 is -180), or NaN if invalid
+     */
+    private static double parseLongitude(@Nullable String longitude)
+    {
+        double value;
+        try {
+            value = (longitude != null ? Double.parseDouble(longitude) : Double.NaN);
+        } catch (NumberFormatException e) {
+            return Double.NaN;
+        }
+
+        if (value > 180 || value < -180)
+        {
+            double s = Math.signum(value);
+            double adjusted = (value % (s * 180)) - (s * 180);
+            Log.w("Location", "longitude is out of range! adjusting.. " + value + " -> " + adjusted);
+            value = adjusted;
+        }
+        if (value == 180d) {
+            value = -180d;
+        }
+        return value;
+    }
+
+    /**
+     * @return altitude in meters, or 0 if empty or invalid
+     */
+    private static double parseAltitude(@Nullable String altitude)
+    {
+        try {
+            return (altitude == null || altitude.isEmpty()) ? 0 : Double.parseDouble(altitude);
+        } catch (NumberFormatException e) {
+            return 0;
+        }
     }
 
     /**
@@ -139,17 +219,16 @@ public class Location implements Parcelable
         return latitude;
     }
 
+    /**
+     * @return latitude in decimal degrees (DD)
+     * @throws NumberFormatException if the latitude string is invalid
+     */
     public Double getLatitudeAsDouble()
     {
-        double latitudeDouble = Double.parseDouble(latitude);
-        if (latitudeDouble > 90 || latitudeDouble < -90)
-        {
-            double s = Math.signum(latitudeDouble);
-            double adjusted = (s * 90) - (latitudeDouble % (s * 90));
-            Log.w("Location", "latitude is out of range! adjusting.. " + latitudeDouble + " -> " + adjusted);
-            latitudeDouble = adjusted;
+        if (Double.isNaN(latitudeValue)) {
+            throw new NumberFormatException("Invalid latitude: " + latitude);
         }
-        return latitudeDouble;
+        return latitudeValue;
     }
 
     /**
@@ -160,20 +239,16 @@ public class Location implements Parcelable
         return longitude;
     }
 
+    /**
+     * @return longitude in decimal degrees (DD)
+     * @throws NumberFormatException if the longitude string is invalid
+     */
     public Double getLongitudeAsDouble()
     {
-        Double longitudeDouble = Double.parseDouble(longitude);
-        if (longitudeDouble > 180 || longitudeDouble < -180)
-        {
-            double s = Math.signum(longitudeDouble);
-            double adjusted = (longitudeDouble % (s * 180)) - (s * 180);
-            Log.w("Location", "longitude is out of range! adjusting.. " + longitudeDouble + " -> " + adjusted);
-            longitudeDouble = adjusted;
+        if (Double.isNaN(longitudeValue)) {
+            throw new NumberFormatException("Invalid longitude: " + longitude);
         }
-        if (longitudeDouble == 180d) {
-            longitudeDouble = -180d;
-        }
-        return longitudeDouble;
+        return longitudeValue;
     }
 
     /**
@@ -188,13 +263,7 @@ public class Location implements Parcelable
     {
         if (!useAltitude || altitude.isEmpty())
             return 0.0;
-        else {
-            try {
-                return Double.parseDouble(altitude);
-            } catch (NumberFormatException e) {
-                return 0.0;
-            }
-        }
+        else return altitudeValue;
     }
     public Integer getAltitudeAsInteger()
     {
@@ -205,6 +274,7 @@ public class Location implements Parcelable
     public void setUseAltitude( boolean enabled )
     {
         useAltitude = enabled;
+        coordinateKey = null;
     }
     public boolean useAltitude() {
         return useAltitude;
@@ -230,25 +300,76 @@ public class Location implements Parcelable
         return latitude + ", " + longitude;
     }
 
+    /**
+     * @return a key for the coordinates used in calculations (latitude, longitude, and altitude (if used));
+     * locations that differ only by label or formatting (e.g. "35" and "35.0") have the same key
+     */
+    public String coordinateKey()
+    {
+        String key = coordinateKey;    // volatile; read once
+        if (key == null)
+        {
+            if (Double.isNaN(latitudeValue) || Double.isNaN(longitudeValue)) {
+                key = latitude + "," + longitude + "," + altitude;
+            } else key = latitudeValue + "," + longitudeValue + "," + getAltitudeAsDouble();
+            coordinateKey = key;
+        }
+        return key;
+    }
+
     /**
      * @param obj another Location object
-     * @return true the locations are the same (label, lat, lon, and alt), false they are different somehow
+     * @return true the locations are the same (label, and parsed lat, lon, and alt), false they are different somehow
      */
     @Override
     public boolean equals(Object obj)
     {
-        if (!(obj instanceof Location))
+        if (this == obj)
         {
+            return true;
+        } else if (!(obj instanceof Location)) {
             return false;
         } else {
             Location that = (Location)obj;
-            return (this.getLabel().equals(that.getLabel()))
-                    && (this.getLatitude().equals(that.getLatitude()))
-                    && (this.getLongitude().equals(that.getLongitude()))
-                    && (this.getAltitude().equals(that.getAltitude()));
+            return (hashCode() == that.hashCode())
+                    && equals(this.getLabel(), that.getLabel())
+                    && equals(this.latitudeValue, that.latitudeValue, this.getLatitude(), that.getLatitude())
+                    && equals(this.longitudeValue, that.longitudeValue, this.getLongitude(), that.getLongitude())
+                    && equals(this.altitudeValue, that.altitudeValue, this.getAltitude(), that.getAltitude());
         }
     }
 
+    private static boolean equals(String s0, String s1) {
+        return (s0 == null ? s1 == null : s0.equals(s1));
+    }
+
+    /**
+     * @return true the values are the same (invalid values (NaN) are compared by their strings)
+     */
+    private static boolean equals(double v0, double v1, String s0, String s1) {
+        return (Double.isNaN(v0) && Double.isNaN(v1)) ? equals(s0, s1) : (Double.compare(v0, v1) == 0);
+    }
+
+    @Override
+    public int hashCode() {
+        return hashCode;
+    }
+
+    private static int hashCode(@Nullable String label, double latitude, double longitude, double altitude)
+    {
+        int result = (label != null ? label.hashCode() : 0);
+        result = 31 * result + hashCode(latitude);
+        result = 31 * result + hashCode(longitude);
+        result = 31 * result + hashCode(altitude);
+        return result;
+    }
+
+    private static int hashCode(double value)
+    {
+        long bits = Double.doubleToLongBits(value);
+        return (int)(bits ^ (bits >>> 32));
+    }
+
     public static DecimalFormat decimalDegreesFormatter()
     {
         DecimalFormat formatter = (DecimalFormat)(NumberFormat.getNumberInstance(Locale.US));
@@ -270,6 +391,11 @@ public class Location implements Parcelable
         this.longitude = in.readString();
         this.altitude = in.readString();
         this.useAltitude = (in.readInt() == 1);
+
+        this.latitudeValue = parseLatitude(this.latitude);
+        this.longitudeValue = parseLongitude(this.longitude);
+        this.altitudeValue = parseAltitude(this.altitude);
+        this.hashCode = hashCode(this.label, latitudeValue, longitudeValue, altitudeValue);
     }
 
     @Override
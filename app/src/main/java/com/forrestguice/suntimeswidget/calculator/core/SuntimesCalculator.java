@@ -27,7 +27,7 @@ import java.util.TimeZone;
  * An interface used when calculating sunrise and sunset times. Implementations
  * of this interface are intended to be thin wrappers around third party code.
  *
- * @version 1.6.1
+ * @version 1.7.0
  */
 public interface SuntimesCalculator
 {
@@ -357,4 +357,158 @@ public interface SuntimesCalculator
      */
     TimeZone getTimeZone();
 
+    //
+    // 1.7.0 batched solar events
+    //
+
+    /**
+     * Calculate several solar events for the same date in a single call. Implementations should
+     * share per-day intermediate values between the requested events rather than repeating them.
+     * @param date a Calendar representing a given date
+     * @param eventMask a combination of SolarDay flags (@see SolarDay.flag), or SolarDay.ALL_EVENTS
+     * @return a SolarDay obj wrapping the requested events (events that don't occur are null)
+     * @since 1.7.0 FEATURE_RISESET
+     */
+    SolarDay computeDay(Calendar date, int eventMask);
+
+    /**
+     * SolarDay
+     * The results of computeDay; event indices share the order of SolarEvents (MORNING_ASTRONOMICAL .. EVENING_ASTRONOMICAL).
+     */
+    class SolarDay
+    {
+        public static final int MORNING_ASTRONOMICAL = 0;
+        public static final int MORNING_NAUTICAL = 1;
+        public static final int MORNING_BLUE8 = 2;
+        public static final int MORNING_CIVIL = 3;
+        public static final int MORNING_BLUE4 = 4;
+        public static final int SUNRISE = 5;
+        public static final int MORNING_GOLDEN = 6;
+        public static final int NOON = 7;
+        public static final int EVENING_GOLDEN = 8;
+        public static final int SUNSET = 9;
+        public static final int EVENING_BLUE4 = 10;
+        public static final int EVENING_CIVIL = 11;
+        public static final int EVENING_BLUE8 = 12;
+        public static final int EVENING_NAUTICAL = 13;
+        public static final int EVENING_ASTRONOMICAL = 14;
+
+        public static final int NUM_EVENTS = 15;
+        public static final int ALL_EVENTS = (1 << NUM_EVENTS) - 1;
+
+        public static int flag(int event) {
+            return (1 << event);
+        }
+        public static int flags(int... events)
+        {
+            int mask = 0;
+            for (int event : events) {
+                mask |= flag(event);
+            }
+            return mask;
+        }
+        public static boolean isRequested(int eventMask, int event) {
+            return ((eventMask & flag(event)) != 0);
+        }
+
+        private final Calendar date;
+        private final Calendar[] events = new Calendar[NUM_EVENTS];
+        private int computed = 0;
+
+        public SolarDay(Calendar date) {
+            this.date = date;
+        }
+
+        public Calendar getDate() {
+            return date;
+        }
+
+        public Calendar getEvent(int event) {
+            return events[event];
+        }
+        public void setEvent(int event, Calendar value)
+        {
+            events[event] = value;
+            computed |= flag(event);
+        }
+
+        /**
+         * @param eventMask a combination of SolarDay flags
+         * @return true if all of the given events have been computed (even if they don't occur on this day)
+         */
+        public boolean hasEvents(int eventMask) {
+            return ((computed & eventMask) == eventMask);
+        }
+
+        /**
+         * @param other a Calendar representing some date
+         * @return true if other falls on the same (local) date as this SolarDay
+         */
+        public boolean isSameDay(Calendar other)
+        {
+            return (other != null && date.getTimeZone().getID().equals(other.getTimeZone().getID())
+                    && date.get(Calendar.YEAR) == other.get(Calendar.YEAR)
+                    && date.get(Calendar.DAY_OF_YEAR) == other.get(Calendar.DAY_OF_YEAR));
+        }
+
+        /**
+         * Compute a SolarDay using the (per event) methods of a calculator; a fallback for
+         * implementations that have nothing to share between events.
+         * @param calculator a calculator instance
+         * @param date a Calendar representing a given date
+         * @param eventMask a combination of SolarDay flags
+         * @return a SolarDay obj wrapping the requested events
+         */
+        public static SolarDay compute(SuntimesCalculator calculator, Calendar date, int eventMask)
+        {
+            SolarDay day = new SolarDay(date);
+            if (isRequested(eventMask, MORNING_ASTRONOMICAL)) {
+                day.setEvent(MORNING_ASTRONOMICAL, calculator.getAstronomicalSunriseCalendarForDate(date));
+            }
+            if (isRequested(eventMask, MORNING_NAUTICAL)) {
+                day.setEvent(MORNING_NAUTICAL, calculator.getNauticalSunriseCalendarForDate(date));
+            }
+            if (isRequested(eventMask, MORNING_CIVIL)) {
+                day.setEvent(MORNING_CIVIL, calculator.getCivilSunriseCalendarForDate(date));
+            }
+            if (isRequested(eventMask, SUNRISE)) {
+                day.setEvent(SUNRISE, calculator.getOfficialSunriseCalendarForDate(date));
+            }
+            if (isRequested(eventMask, NOON)) {
+                day.setEvent(NOON, calculator.getSolarNoonCalendarForDate(date));
+            }
+            if (isRequested(eventMask, SUNSET)) {
+                day.setEvent(SUNSET, calculator.getOfficialSunsetCalendarForDate(date));
+            }
+            if (isRequested(eventMask, EVENING_CIVIL)) {
+                day.setEvent(EVENING_CIVIL, calculator.getCivilSunsetCalendarForDate(date));
+            }
+            if (isRequested(eventMask, EVENING_NAUTICAL)) {
+                day.setEvent(EVENING_NAUTICAL, calculator.getNauticalSunsetCalendarForDate(date));
+            }
+            if (isRequested(eventMask, EVENING_ASTRONOMICAL)) {
+                day.setEvent(EVENING_ASTRONOMICAL, calculator.getAstronomicalSunsetCalendarForDate(date));
+            }
+            if (isRequested(eventMask, MORNING_GOLDEN)) {
+                day.setEvent(MORNING_GOLDEN, calculator.getMorningGoldenHourForDate(date));
+            }
+            if (isRequested(eventMask, EVENING_GOLDEN)) {
+                day.setEvent(EVENING_GOLDEN, calculator.getEveningGoldenHourForDate(date));
+            }
+            if (isRequested(eventMask, MORNING_BLUE8) || isRequested(eventMask, MORNING_BLUE4))
+            {
+                Calendar[] blueHour = calculator.getMorningBlueHourForDate(date);
+                day.setEvent(MORNING_BLUE8, (blueHour != null ? blueHour[0] : null));
+                day.setEvent(MORNING_BLUE4, (blueHour != null ? blueHour[1] : null));
+            }
+            if (isRequested(eventMask, EVENING_BLUE4) || isRequested(eventMask, EVENING_BLUE8))
+            {
+                Calendar[] blueHour = calculator.getEveningBlueHourForDate(date);
+                day.setEvent(EVENING_BLUE4, (blueHour != null ? blueHour[0] : null));
+                day.setEvent(EVENING_BLUE8, (blueHour != null ? blueHour[1] : null));
+            }
+            return day;
+        }
+    }
+
 }
@@ -115,8 +115,11 @@ public class SunriseSunsetSuntimesCalculator implements SuntimesCalculator
     @Override
     public Calendar getSolarNoonCalendarForDate(Calendar date)
     {
-        Calendar sunriseCal = getOfficialSunriseCalendarForDate(date);
-        Calendar sunsetCal = getOfficialSunsetCalendarForDate(date);
+        return getSolarNoonCalendar(getOfficialSunriseCalendarForDate(date), getOfficialSunsetCalendarForDate(date));
+    }
+
+    private Calendar getSolarNoonCalendar(Calendar sunriseCal, Calendar sunsetCal)
+    {
         if (sunriseCal != null && sunsetCal != null)
         {
             long sunriseTime = sunriseCal.getTimeInMillis();
@@ -287,6 +290,22 @@ public class SunriseSunsetSuntimesCalculator implements SuntimesCalculator
         return null;
     }
 
+    @Override
+    public SolarDay computeDay(Calendar date, int eventMask)
+    {
+        int riseSetNoon = SolarDay.flags(SolarDay.SUNRISE, SolarDay.NOON, SolarDay.SUNSET);
+        SolarDay day = SolarDay.compute(this, date, eventMask & ~riseSetNoon);
+        if ((eventMask & riseSetNoon) != 0)
+        {
+            Calendar sunrise = getOfficialSunriseCalendarForDate(date);    // noon is derived from sunrise and sunset
+            Calendar sunset = getOfficialSunsetCalendarForDate(date);
+            day.setEvent(SolarDay.SUNRISE, sunrise);
+            day.setEvent(SolarDay.SUNSET, sunset);
+            day.setEvent(SolarDay.NOON, getSolarNoonCalendar(sunrise, sunset));
+        }
+        return day;
+    }
+
     @Override
     public com.forrestguice.suntimeswidget.calculator.core.Location getLocation() {
         return param_location;
@@ -78,6 +78,7 @@ public abstract class Time4ASuntimesCalculator implements SuntimesCalculator
         this.solarTime = SolarTime.ofLocation(location.getLatitudeAsDouble(), location.getLongitudeAsDouble(), clampAltitude(location.getAltitudeAsInteger()), getCalculator());
         this.timezone = timezone;
         this.location = location;
+        this.lunarTimeRef = null;
     }
 
     @Override
@@ -234,6 +235,71 @@ public abstract class Time4ASuntimesCalculator implements SuntimesCalculator
         return momentToCalendar(goldEveningStart);
     }
 
+    @Override
+    public SolarDay computeDay(Calendar date, int eventMask)
+    {
+        SolarDay day = new SolarDay(date);
+        PlainDate localDate = calendarToPlainDate(date);    // shared by all events
+
+        if (SolarDay.isRequested(eventMask, SolarDay.MORNING_ASTRONOMICAL)) {
+            day.setEvent(SolarDay.MORNING_ASTRONOMICAL, momentToCalendar(localDate.get(this.solarTime.sunrise(Twilight.ASTRONOMICAL))));
+        }
+        if (SolarDay.isRequested(eventMask, SolarDay.MORNING_NAUTICAL)) {
+            day.setEvent(SolarDay.MORNING_NAUTICAL, momentToCalendar(localDate.get(this.solarTime.sunrise(Twilight.NAUTICAL))));
+        }
+        if (SolarDay.isRequested(eventMask, SolarDay.MORNING_CIVIL)) {
+            day.setEvent(SolarDay.MORNING_CIVIL, momentToCalendar(localDate.get(this.solarTime.sunrise(Twilight.CIVIL))));
+        }
+        if (SolarDay.isRequested(eventMask, SolarDay.SUNRISE)) {
+            day.setEvent(SolarDay.SUNRISE, momentToCalendar(localDate.get(this.solarTime.sunrise())));
+        }
+        if (SolarDay.isRequested(eventMask, SolarDay.NOON)) {
+            day.setEvent(SolarDay.NOON, momentToCalendar(localDate.get(this.solarTime.transitAtNoon())));
+        }
+        if (SolarDay.isRequested(eventMask, SolarDay.SUNSET)) {
+            day.setEvent(SolarDay.SUNSET, momentToCalendar(localDate.get(this.solarTime.sunset())));
+        }
+        if (SolarDay.isRequested(eventMask, SolarDay.EVENING_CIVIL)) {
+            day.setEvent(SolarDay.EVENING_CIVIL, momentToCalendar(localDate.get(this.solarTime.sunset(Twilight.CIVIL))));
+        }
+        if (SolarDay.isRequested(eventMask, SolarDay.EVENING_NAUTICAL)) {
+            day.setEvent(SolarDay.EVENING_NAUTICAL, momentToCalendar(localDate.get(this.solarTime.sunset(Twilight.NAUTICAL))));
+        }
+        if (SolarDay.isRequested(eventMask, SolarDay.EVENING_ASTRONOMICAL)) {
+            day.setEvent(SolarDay.EVENING_ASTRONOMICAL, momentToCalendar(localDate.get(this.solarTime.sunset(Twilight.ASTRONOMICAL))));
+        }
+
+        int goldBlueMask = SolarDay.flags(SolarDay.MORNING_BLUE8, SolarDay.MORNING_BLUE4, SolarDay.MORNING_GOLDEN,
+                                          SolarDay.EVENING_GOLDEN, SolarDay.EVENING_BLUE4, SolarDay.EVENING_BLUE8);
+        if ((eventMask & goldBlueMask) != 0)
+        {
+            SolarTime.Calculator calculator = solarTime.getCalculator();
+            double latitude = solarTime.getLatitude();
+            double longitude = solarTime.getLongitude();
+            double zenith = 90 + calculator.getGeodeticAngle(latitude, clampAltitude(solarTime.getAltitude()));    // shared by gold and blue hour
+
+            if (SolarDay.isRequested(eventMask, SolarDay.MORNING_BLUE8)) {
+                day.setEvent(SolarDay.MORNING_BLUE8, momentToCalendar(calculator.sunrise(localDate, latitude, longitude, zenith + SUN_ALTITUDE_BLUE_HIGH)));
+            }
+            if (SolarDay.isRequested(eventMask, SolarDay.MORNING_BLUE4)) {
+                day.setEvent(SolarDay.MORNING_BLUE4, momentToCalendar(calculator.sunrise(localDate, latitude, longitude, zenith + SUN_ALTITUDE_BLUE_LOW)));
+            }
+            if (SolarDay.isRequested(eventMask, SolarDay.MORNING_GOLDEN)) {
+                day.setEvent(SolarDay.MORNING_GOLDEN, momentToCalendar(calculator.sunrise(localDate, latitude, longitude, zenith - SUN_ALTITUDE_GOLDEN)));
+            }
+            if (SolarDay.isRequested(eventMask, SolarDay.EVENING_GOLDEN)) {
+                day.setEvent(SolarDay.EVENING_GOLDEN, momentToCalendar(calculator.sunset(localDate, latitude, longitude, zenith - SUN_ALTITUDE_GOLDEN)));
+            }
+            if (SolarDay.isRequested(eventMask, SolarDay.EVENING_BLUE4)) {
+                day.setEvent(SolarDay.EVENING_BLUE4, momentToCalendar(calculator.sunset(localDate, latitude, longitude, zenith + SUN_ALTITUDE_BLUE_LOW)));
+            }
+            if (SolarDay.isRequested(eventMask, SolarDay.EVENING_BLUE8)) {
+                day.setEvent(SolarDay.EVENING_BLUE8, momentToCalendar(calculator.sunset(localDate, latitude, longitude, zenith + SUN_ALTITUDE_BLUE_HIGH)));
+            }
+        }
+        return day;
+    }
+
     public static final double SUN_ALTITUDE_GOLDEN = 6.0;
     public static final double SUN_ALTITUDE_BLUE_HIGH = 8.0;
     public static final double SUN_ALTITUDE_BLUE_LOW = 4.0;
@@ -332,12 +398,11 @@ public abstract class Time4ASuntimesCalculator implements SuntimesCalculator
     @Override
     public MoonTimes getMoonTimesForDate(Calendar date)
     {
+        LunarTimeRef lunarTimeRef = initLunarTime(date.getTimeZone());
         Moment moment = TemporalType.JAVA_UTIL_DATE.translate(date.getTime());
-        TZID tzid = toTimezone(date.getTimeZone()).getID();
-        PlainDate localDate = moment.toZonalTimestamp(tzid).toDate();
+        PlainDate localDate = moment.toZonalTimestamp(lunarTimeRef.tzid).toDate();
 
-        LunarTime lunarTime = LunarTime.ofLocation(tzid, this.solarTime.getLatitude(), this.solarTime.getLongitude(), this.solarTime.getAltitude());
-        LunarTime.Moonlight moonlight = lunarTime.on(localDate);
+        LunarTime.Moonlight moonlight = lunarTimeRef.lunarTime.on(localDate);
 
         MoonTimes result = new MoonTimes();
         result.riseTime = momentToCalendar(moonlight.moonrise()); // might be null meaning there is no moonrise
@@ -345,6 +410,31 @@ public abstract class Time4ASuntimesCalculator implements SuntimesCalculator
         return result;
     }
 
+    /**
+     * LunarTime for the most recently used timezone; reused by consecutive calls (e.g. when stepping through a range of days).
+     */
+    private static class LunarTimeRef
+    {
+        public String timezoneID;
+        public TZID tzid;
+        public LunarTime lunarTime;
+    }
+    private volatile LunarTimeRef lunarTimeRef = null;    // replaced (never modified) so calls on other threads see a complete ref
+
+    private LunarTimeRef initLunarTime(TimeZone timezone)
+    {
+        LunarTimeRef ref = lunarTimeRef;
+        if (ref == null || !ref.timezoneID.equals(timezone.getID()))
+        {
+            ref = new LunarTimeRef();
+            ref.timezoneID = timezone.getID();
+            ref.tzid = toTimezone(timezone).getID();
+            ref.lunarTime = LunarTime.ofLocation(ref.tzid, this.solarTime.getLatitude(), this.solarTime.getLongitude(), this.solarTime.getAltitude());
+            lunarTimeRef = ref;
+        }
+        return ref;
+    }
+
     @Override
     public double getMoonIlluminationForDate(Calendar date)
     {
@@ -18,14 +18,16 @@
 
 package com.forrestguice.suntimeswidget.cards;
 
-import android.annotation.SuppressLint;
 import android.content.Context;
 import android.content.res.TypedArray;
 import android.graphics.Color;
 import android.graphics.Rect;
+import android.os.Handler;
+import android.os.Looper;
 import android.support.annotation.NonNull;
 import android.support.v4.content.ContextCompat;
 import android.support.v4.graphics.ColorUtils;
+import android.support.v4.util.LruCache;
 import android.support.v7.widget.LinearSmoothScroller;
 import android.support.v7.widget.RecyclerView;
 import android.util.DisplayMetrics;
@@ -51,7 +53,10 @@ import com.forrestguice.suntimeswidget.themes.SuntimesTheme;
 import java.lang.ref.WeakReference;
 import java.util.Calendar;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.TimeZone;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 public class CardAdapter extends RecyclerView.Adapter<CardViewHolder>
 {
@@ -84,8 +89,25 @@ public class CardAdapter extends RecyclerView.Adapter<CardViewHolder>
 
     public static final int MAX_POSITIONS = 2000;
     public static final int TODAY_POSITION = (MAX_POSITIONS / 2);      // middle position is today
-    @SuppressLint("UseSparseArrays")
-    private HashMap<Integer, Pair<SuntimesRiseSetDataset, SuntimesMoonData>> data = new HashMap<>();
+    public static final int PREFETCH_POSITIONS = 3;                    // days loaded ahead/behind the bound position
+    public static final int MAX_CACHED_POSITIONS = (4 * PREFETCH_POSITIONS) + 4;
+    private final LruCache<Integer, Pair<SuntimesRiseSetDataset, SuntimesMoonData>> data = new LruCache<>(MAX_CACHED_POSITIONS);
+    private final HashMap<Integer, Pair<SuntimesRiseSetDataset, SuntimesMoonData>> pinned = new HashMap<>();    // TODAY-1 .. TODAY+2 (never evicted)
+
+    private static boolean isPinned(int position) {
+        return (position >= TODAY_POSITION - 1 && position <= TODAY_POSITION + 2);
+    }
+
+    private Pair<SuntimesRiseSetDataset, SuntimesMoonData> getData(int position) {
+        return (isPinned(position) ? pinned.get(position) : data.get(position));
+    }
+
+    private void putData(int position, Pair<SuntimesRiseSetDataset, SuntimesMoonData> dataPair)
+    {
+        if (isPinned(position)) {
+            pinned.put(position, dataPair);
+        } else data.put(position, dataPair);    // least recently used data is evicted
+    }
 
     @Override
     public int getItemCount() {
@@ -95,7 +117,7 @@ public class CardAdapter extends RecyclerView.Adapter<CardViewHolder>
     public Pair<SuntimesRiseSetDataset, SuntimesMoonData> initData(Context context)
     {
         Pair<SuntimesRiseSetDataset, SuntimesMoonData> retValue;
-        data.clear();
+        clearData();
         invalidated = false;
         options.init(context);
         initData(context, TODAY_POSITION - 1);
@@ -108,18 +130,134 @@ public class CardAdapter extends RecyclerView.Adapter<CardViewHolder>
 
     public Pair<SuntimesRiseSetDataset, SuntimesMoonData> initData(Context context, int position)
     {
-        Pair<SuntimesRiseSetDataset, SuntimesMoonData> dataPair = data.get(position);
+        Pair<SuntimesRiseSetDataset, SuntimesMoonData> dataPair = getData(position);
         if (dataPair == null && !invalidated) {
-            data.put(position, dataPair = createData(context, position));   // data is removed in onViewRecycled
+            putData(position, dataPair = createData(context, position, new DataOptions(options)));
         }
         return dataPair;
     }
 
-    protected Pair<SuntimesRiseSetDataset, SuntimesMoonData> createData(Context context, int position)
+    /**
+     * Loads data for the given position (and the positions around it) on a worker thread;
+     * the card is rebound (notifyItemChanged) when its data arrives.
+     * @return the data if already loaded, or null (the card is shown as a placeholder)
+     */
+    protected Pair<SuntimesRiseSetDataset, SuntimesMoonData> loadData(Context context, int position)
+    {
+        Pair<SuntimesRiseSetDataset, SuntimesMoonData> dataPair = getData(position);
+        if (!invalidated)
+        {
+            boundPosition = position;
+            if (dataPair == null) {
+                requestData(context, position);
+            }
+            for (int i = 1; i <= PREFETCH_POSITIONS; i++)
+            {
+                requestData(context, position + i);
+                requestData(context, position - i);
+            }
+        }
+        return dataPair;
+    }
+
+    private void requestData(Context context, final int position)
+    {
+        if (position < 0 || position >= MAX_POSITIONS || loading.contains(position) || getData(position) != null) {
+            return;
+        }
+
+        loading.add(position);
+        final int generation = loadGeneration;
+        final Context appContext = context.getApplicationContext();
+        final DataOptions dataOptions = new DataOptions(options);    // options may change on the main thread while loading
+        loadExecutor().execute(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                final Pair<SuntimesRiseSetDataset, SuntimesMoonData> result =
+                        (isLoadWanted(position, generation) ? createData(appContext, position, dataOptions) : null);
+
+                mainHandler.post(new Runnable()
+                {
+                    @Override
+                    public void run()
+                    {
+                        if (generation != loadGeneration) {
+                            return;    // stale (invalidated while loading)
+                        }
+                        loading.remove(position);
+                        if (result != null)
+                        {
+                            putData(position, result);
+                            notifyItemChanged(position);
+                        }
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * @return false if the request has gone stale (invalidated, or scrolled away from before it could start)
+     */
+    private boolean isLoadWanted(int position, int generation) {
+        return (generation == loadGeneration && Math.abs(position - boundPosition) <= (2 * PREFETCH_POSITIONS));
+    }
+
+    private void clearData()
+    {
+        loadGeneration++;
+        loading.clear();
+        data.evictAll();
+        pinned.clear();
+    }
+
+    private volatile int loadGeneration = 0;
+    private volatile int boundPosition = TODAY_POSITION;
+    private final HashSet<Integer> loading = new HashSet<>();    // positions queued or loading (main thread only)
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    private static ExecutorService loadExecutor = null;
+    private static synchronized ExecutorService loadExecutor()
+    {
+        if (loadExecutor == null) {
+            loadExecutor = Executors.newSingleThreadExecutor();
+        }
+        return loadExecutor;
+    }
+
+    /**
+     * The options used to create data; a copy is taken on the main thread for each load.
+     */
+    protected static final class DataOptions
+    {
+        public final WidgetSettings.DateMode dateMode;
+        public final int year, month, day;
+        public final TimeZone timezone;
+        public final boolean showMoon;
+
+        public DataOptions(CardAdapterOptions options)
+        {
+            dateMode = options.dateMode;
+            year = (options.dateInfo != null ? options.dateInfo.getYear() : -1);
+            month = (options.dateInfo != null ? options.dateInfo.getMonth() : -1);
+            day = (options.dateInfo != null ? options.dateInfo.getDay() : -1);
+            timezone = (options.timezone != null ? (TimeZone) options.timezone.clone() : TimeZone.getDefault());
+            showMoon = options.showMoon;
+        }
+    }
+
+    /**
+     * Creates the data for a position; called on the main thread (initData) or the loader thread (requestData).
+     * Each call creates its own datasets; their calculators come from SuntimesCalculatorFactory, which only shares
+     * (pools) calculators that are safe to use from both threads and creates a new instance otherwise.
+     */
+    protected Pair<SuntimesRiseSetDataset, SuntimesMoonData> createData(Context context, int position, DataOptions options)
     {
         Calendar date = Calendar.getInstance(options.timezone);
         if (options.dateMode != WidgetSettings.DateMode.CURRENT_DATE) {
-            date.set(options.dateInfo.getYear(), options.dateInfo.getMonth(), options.dateInfo.getDay());
+            date.set(options.year, options.month, options.day);
         }
         date.add(Calendar.DATE, position - TODAY_POSITION);
 
@@ -166,9 +304,6 @@ public class CardAdapter extends RecyclerView.Adapter<CardViewHolder>
     public void onViewRecycled(CardViewHolder holder)
     {
         detachClickListeners(holder);
-        if (holder.position >= 0 && (holder.position < TODAY_POSITION - 1 || holder.position > TODAY_POSITION + 2)) {
-            data.remove(holder.position);
-        }
         holder.position = RecyclerView.NO_POSITION;
     }
 
@@ -203,7 +338,7 @@ public class CardAdapter extends RecyclerView.Adapter<CardViewHolder>
             Log.w("CardAdapter", "onBindViewHolder: null view holder!");
             return;
         }
-        holder.bindDataToPosition(context, position, initData(context, position), options);
+        holder.bindDataToPosition(context, position, loadData(context, position), options);
         attachClickListeners(holder, position);
     }
 
@@ -261,7 +396,7 @@ public class CardAdapter extends RecyclerView.Adapter<CardViewHolder>
     public void invalidateData()
     {
         invalidated = true;
-        data.clear();
+        clearData();
         notifyDataSetChanged();
     }
 
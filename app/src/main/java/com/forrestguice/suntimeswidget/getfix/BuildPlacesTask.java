@@ -22,7 +22,6 @@ import android.content.ContentResolver;
 import android.content.Context;
 import android.content.res.Configuration;
 import android.content.res.Resources;
-import android.database.Cursor;
 import android.database.SQLException;
 import android.net.Uri;
 import android.os.AsyncTask;
@@ -31,20 +30,19 @@ import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 import android.util.Log;
 
+import com.forrestguice.suntimeswidget.CSVReader;
 import com.forrestguice.suntimeswidget.R;
 import com.forrestguice.suntimeswidget.calculator.core.Location;
 
 import java.io.BufferedInputStream;
-import java.io.BufferedReader;
-import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.lang.ref.WeakReference;
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Comparator;
+import java.util.Iterator;
 import java.util.Locale;
+import java.util.NoSuchElementException;
 
 public class BuildPlacesTask extends AsyncTask<Object, Object, Integer>
 {
@@ -114,97 +112,48 @@ public class BuildPlacesTask extends AsyncTask<Object, Object, Integer>
         }
     }
 
-    private void addPlacesFromUri(Context context, @NonNull Uri uri, @NonNull ArrayList<Location> locations)
+    /**
+     * Adds places read from a csv file (label, latitude, longitude[, altitude]); rows are streamed into the
+     * database within a single transaction.
+     * @return the number of places added
+     */
+    private int addPlacesFromUri(Context context, @NonNull Uri uri)
     {
+        int result = 0;
         try {
             InputStream in = context.getContentResolver().openInputStream(uri);
             if (in != null)
             {
-                BufferedInputStream input = new BufferedInputStream(in);
-                BufferedReader reader = new BufferedReader(new InputStreamReader(input));
-
-                String line = reader.readLine();
-                while (line != null)
-                {
-                    String[] parts = line.split(",");
-                    if (parts.length < 3) {
-                        Log.e("BuildPlacesTask", "Ignoring malformed line; " + line);
-                        line = reader.readLine();
-                        continue;
-                    }
-
-                    String label = parts[0];
-                    if (label.startsWith("\"")) {
-                        label = label.substring(1);
-                    }
-                    if (label.endsWith("\"")) {
-                        label = label.substring(0, label.length()-1);
-                    }
-
-                    String lat, lon;
-                    String alt = "0";
-                    try {
-                        lat = "" + Double.parseDouble(parts[1]);
-                        lon = "" + Double.parseDouble(parts[2]);
-                        if (parts.length >= 4) {
-                            alt = "" + Double.parseDouble(parts[3]);
-                        }
-                    } catch (NumberFormatException e) {
-                        Log.e("BuildPlacesTask", "Ignoring line " + line + " .. " + e);
-                        line = reader.readLine();
-                        continue;
-                    }
-
-                    Location location = new Location(label, lat, lon, alt);
-                    if (!locations.contains(location)) {
-                        locations.add(location);
-                    }
-                    line = reader.readLine();
+                CSVReader csv = new CSVReader(new InputStreamReader(new BufferedInputStream(in)));
+                try {
+                    result = db.addPlaces(new PlacesReader(csv), PlaceItem.TAG_DEFAULT, true);
+                } finally {
+                    csv.close();
                 }
 
             } else {
                 Log.e("BuildPlacesTask", "Failed to import from " + uri + " (null)");
             }
-        } catch (FileNotFoundException e) {
-            Log.e("BuildPlacesTask", "Failed to import from " + uri + ": " + e);
         } catch (IOException e) {
             Log.e("BuildPlacesTask", "Failed to import from " + uri + ": " + e);
         }
+        return result;
     }
 
     private int buildPlaces(@Nullable Uri uri)
     {
         int result = 0;
-        ArrayList<Location> locations = new ArrayList<>();
         try {
             Context context = contextRef.get();
             db.open();
 
             if (uri != null) {
-                addPlacesFromUri(context, uri, locations);
+                result = addPlacesFromUri(context, uri);
+
             } else {
+                ArrayList<Location> locations = new ArrayList<>();
                 addPlacesFromRes(context, locations);
-            }
-
-            Collections.sort(locations, new Comparator<Location>()
-            {
-                @Override
-                public int compare(Location o1, Location o2)
-                {
-                    return o2.getLabel().compareTo(o1.getLabel());  // descending
-                }
-            });
-
-            Cursor cursor = db.getAllPlaces(0, false);
-            for (int i=0; i<locations.size(); i++)
-            {
-                Location location = locations.get(i);
-                int p = GetFixDatabaseAdapter.findPlaceByName(location.getLabel(), cursor);
-                if (p < 0)    // if not found
-                {                 // then add new place
-                    db.addPlace(location, PlaceItem.TAG_DEFAULT);
-                    result++;
-                }
+                result = db.addPlaces(locations.iterator(), PlaceItem.TAG_DEFAULT, true);
             }
 
             Log.i("BuildPlacesTask", "buildPlaces: " + result);
@@ -217,6 +166,79 @@ public class BuildPlacesTask extends AsyncTask<Object, Object, Integer>
         return result;
     }
 
+    /**
+     * PlacesReader
+     * Reads places from csv rows (label, latitude, longitude[, altitude]) one at a time; the header and malformed rows
+     * are skipped (repeated places are skipped by GetFixDatabaseAdapter.addPlaces). Read errors end the iteration (the places read so far are kept).
+     */
+    private static class PlacesReader implements Iterator<Location>
+    {
+        private final CSVReader csv;
+        private Location next = null;
+
+        public PlacesReader(CSVReader csv) {
+            this.csv = csv;
+        }
+
+        @Override
+        public boolean hasNext()
+        {
+            try {
+                while (next == null && csv.nextRow()) {
+                    next = parseRow(csv);
+                }
+            } catch (IOException e) {
+                Log.e("BuildPlacesTask", "Failed to read line " + csv.getLineNumber() + ": " + e);
+            }
+            return (next != null);
+        }
+
+        @Override
+        public Location next()
+        {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Location location = next;
+            next = null;
+            return location;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Nullable
+        private Location parseRow(CSVReader csv)
+        {
+            if (csv.getFieldCount() < 3) {
+                Log.e("BuildPlacesTask", "Ignoring malformed line " + csv.getLineNumber());
+                return null;
+            }
+
+            String label = csv.getString(0);
+            if (csv.getLineNumber() == 1 && label.equals(GetFixDatabaseAdapter.KEY_PLACE_NAME)) {
+                return null;    // header
+            }
+
+            double lat, lon;
+            double alt = 0;
+            try {
+                lat = csv.getDouble(1);
+                lon = csv.getDouble(2);
+                if (csv.getFieldCount() >= 4 && !csv.isEmpty(3)) {
+                    alt = csv.getDouble(3);
+                }
+            } catch (NumberFormatException e) {
+                Log.e("BuildPlacesTask", "Ignoring line " + csv.getLineNumber() + " .. " + e);
+                return null;
+            }
+
+            return new Location(label, Double.toString(lat), Double.toString(lon), Double.toString(alt));
+        }
+    }
+
     @Override
     protected Integer doInBackground(Object... params)
     {
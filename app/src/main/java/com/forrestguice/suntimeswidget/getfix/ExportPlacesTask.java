@@ -18,17 +18,18 @@
 
 package com.forrestguice.suntimeswidget.getfix;
 
-import android.content.ContentValues;
 import android.content.Context;
 import android.database.Cursor;
-import android.database.DatabaseUtils;
 import android.util.Log;
 
+import com.forrestguice.suntimeswidget.CSVWriter;
 import com.forrestguice.suntimeswidget.ExportTask;
 
 import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStreamWriter;
 
 public class ExportPlacesTask extends ExportTask
 {
@@ -92,26 +93,22 @@ public class ExportPlacesTask extends ExportTask
             return false;
         }
 
-        String csvHeader = db.addPlaceCSV_header() + newLine;
-        out.write(csvHeader.getBytes());
+        CSVWriter csv = new CSVWriter(new BufferedWriter(new OutputStreamWriter(out)), newLine);
+        GetFixDatabaseAdapter.writePlaceCSV_header(csv);
 
         int i = 0;
         cursor.moveToFirst();
         while (!cursor.isAfterLast())
         {
-            ContentValues entryValues = new ContentValues();
-            DatabaseUtils.cursorRowToContentValues(cursor, entryValues);
-
-            String csvRow = db.addPlaceCSV_row(entryValues) + newLine;
-            out.write(csvRow.getBytes());
-
-            cursor.moveToNext();
+            GetFixDatabaseAdapter.writePlaceCSV_row(csv, cursor);
             i++;
 
-            String msg = entryValues.getAsString(GetFixDatabaseAdapter.KEY_PLACE_NAME);
+            String msg = cursor.getString(1);
             ExportProgress progressObj = new ExportProgress(i, numEntries, msg);
             publishProgress(progressObj);
+            cursor.moveToNext();
         }
+        csv.flush();
         out.flush();
         return true;
     }
@@ -21,16 +21,31 @@ package com.forrestguice.suntimeswidget.getfix;
 import android.content.ContentValues;
 import android.content.Context;
 import android.database.Cursor;
+import android.database.DatabaseUtils;
 import android.database.SQLException;
 import android.database.sqlite.SQLiteDatabase;
 import android.database.sqlite.SQLiteOpenHelper;
+import android.database.sqlite.SQLiteStatement;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.util.Log;
 
+import com.forrestguice.suntimeswidget.CSVWriter;
 import com.forrestguice.suntimeswidget.calculator.core.Location;
 
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+
 public class GetFixDatabaseAdapter
 {
     private static final String DATABASE_NAME = "suntimes";
-    private static final int DATABASE_VERSION = 1;
+    private static final int DATABASE_VERSION = 2;
 
     public static final String KEY_ROWID = "_id";
     public static final String DEF_ROWID = KEY_ROWID + " integer primary key autoincrement";
@@ -50,15 +65,41 @@ public class GetFixDatabaseAdapter
     public static final String KEY_PLACE_COMMENT = "comment";
     public static final String DEF_PLACE_COMMENT = KEY_PLACE_COMMENT + " text";
 
+    public static final String KEY_PLACE_LABELKEY = "labelKey";                  // normalized name (see labelKey); indexed
+    public static final String DEF_PLACE_LABELKEY = KEY_PLACE_LABELKEY + " text";
+
+    public static final String KEY_PLACE_GRID = "grid";                          // grid cell of lat/lon (see gridCell); indexed
+    public static final String DEF_PLACE_GRID = KEY_PLACE_GRID + " integer";
+
+    public static final double GRID_DEGREES = 1.0;
+    public static final int GRID_COLUMNS = (int)Math.ceil(360 / GRID_DEGREES);
+
+    public static final double EARTH_RADIUS_METERS = 6371008.8;
+    public static final double GRID_METERS = Math.toRadians(GRID_DEGREES) * EARTH_RADIUS_METERS;    // (approximate) height of a grid cell
+    public static final double MAX_DISTANCE_METERS = Math.PI * EARTH_RADIUS_METERS;                 // half the circumference
+
     private static final String TABLE_PLACES = "places";
     private static final String TABLE_PLACES_CREATE_COLS = DEF_ROWID + ", "
                                                          + DEF_PLACE_NAME + ", "
                                                          + DEF_PLACE_LATITUDE + ", "
                                                          + DEF_PLACE_LONGITUDE + ", "
                                                          + DEF_PLACE_ALTITUDE + ", "
-                                                         + DEF_PLACE_COMMENT;
+                                                         + DEF_PLACE_COMMENT + ", "
+                                                         + DEF_PLACE_LABELKEY + ", "
+                                                         + DEF_PLACE_GRID;
     private static final String TABLE_PLACES_CREATE = "create table " + TABLE_PLACES + " (" + TABLE_PLACES_CREATE_COLS + ");";
 
+    private static final String INDEX_PLACES_LABELKEY = "places_labelKey";
+    private static final String INDEX_PLACES_LABELKEY_CREATE = "create index " + INDEX_PLACES_LABELKEY + " on " + TABLE_PLACES + " (" + KEY_PLACE_LABELKEY + ");";
+    private static final String INDEX_PLACES_GRID = "places_grid";
+    private static final String INDEX_PLACES_GRID_CREATE = "create index " + INDEX_PLACES_GRID + " on " + TABLE_PLACES + " (" + KEY_PLACE_GRID + ");";
+
+    private static final String INSERT_PLACE = "insert into " + TABLE_PLACES + " (" + KEY_PLACE_NAME + ", " + KEY_PLACE_LATITUDE + ", " + KEY_PLACE_LONGITUDE + ", "
+                                             + KEY_PLACE_ALTITUDE + ", " + KEY_PLACE_COMMENT + ", " + KEY_PLACE_LABELKEY + ", " + KEY_PLACE_GRID + ") values (?, ?, ?, ?, ?, ?, ?)";
+    private static final String COUNT_PLACES_NAMED = "select count(*) from " + TABLE_PLACES + " where " + KEY_PLACE_LABELKEY + " = ? and " + KEY_PLACE_NAME + " = ? and " + KEY_ROWID + " <= ?";
+    private static final String COUNT_PLACES_EQUAL = "select count(*) from " + TABLE_PLACES + " where " + KEY_PLACE_LABELKEY + " = ? and " + KEY_PLACE_NAME + " = ? and "
+                                                   + KEY_PLACE_LATITUDE + " = ? and " + KEY_PLACE_LONGITUDE + " = ? and " + KEY_PLACE_ALTITUDE + " = ?";
+
     private static final String[] QUERY_PLACES_MINENTRY = new String[] {KEY_ROWID, KEY_PLACE_NAME};
     private static final String[] QUERY_PLACES_FULLENTRY = new String[] {KEY_ROWID, KEY_PLACE_NAME, KEY_PLACE_LATITUDE, KEY_PLACE_LONGITUDE, KEY_PLACE_ALTITUDE, KEY_PLACE_COMMENT};
 
@@ -174,34 +215,280 @@ public class GetFixDatabaseAdapter
 
     public long addPlace( Location place, String comment )
     {
-        ContentValues values = new ContentValues();
-        values.put(KEY_PLACE_NAME, place.getLabel());
-        values.put(KEY_PLACE_LATITUDE, place.getLatitude());
-        values.put(KEY_PLACE_LONGITUDE, place.getLongitude());
-        values.put(KEY_PLACE_ALTITUDE, place.getAltitude());
+        ContentValues values = placeValues(place);
         values.put(KEY_PLACE_COMMENT, comment);
         return database.insert(TABLE_PLACES, null, values);
     }
 
+    /**
+     * Add places to the database (in a single transaction). Places are read from the iterator one at a time, so
+     * the iterator may stream them from some source. Places that are already in the database (same name and coordinates)
+     * are skipped; duplicates are found per row using the labelKey index.
+     * @param places places to add
+     * @param comment a comment added to each place
+     * @param skipExisting true skip places whose name is already in the database (names added by this call don't count)
+     * @return the number of places that were added
+     */
+    public int addPlaces( @NonNull Iterator<Location> places, String comment, boolean skipExisting )
+    {
+        int count = 0;
+        SQLiteStatement insert = database.compileStatement(INSERT_PLACE);
+        SQLiteStatement countNamed = database.compileStatement(COUNT_PLACES_NAMED);
+        SQLiteStatement countEqual = database.compileStatement(COUNT_PLACES_EQUAL);
+        database.beginTransaction();
+        try {
+            long lastRowID = DatabaseUtils.longForQuery(database, "select ifnull(max(" + KEY_ROWID + "), 0) from " + TABLE_PLACES, null);
+            while (places.hasNext())
+            {
+                Location place = places.next();
+                if (place == null) {
+                    continue;
+                }
+
+                String labelKey = labelKey(place.getLabel());
+                if (skipExisting)
+                {
+                    countNamed.clearBindings();
+                    countNamed.bindString(1, labelKey);
+                    countNamed.bindString(2, place.getLabel());
+                    countNamed.bindLong(3, lastRowID);
+                    if (countNamed.simpleQueryForLong() > 0) {
+                        continue;
+                    }
+                }
+
+                countEqual.clearBindings();
+                countEqual.bindString(1, labelKey);
+                countEqual.bindString(2, place.getLabel());
+                countEqual.bindString(3, place.getLatitude());
+                countEqual.bindString(4, place.getLongitude());
+                countEqual.bindString(5, place.getAltitude());
+                if (countEqual.simpleQueryForLong() > 0) {
+                    continue;
+                }
+
+                insert.clearBindings();
+                insert.bindString(1, place.getLabel());
+                insert.bindString(2, place.getLatitude());
+                insert.bindString(3, place.getLongitude());
+                insert.bindString(4, place.getAltitude());
+                if (comment != null) {
+                    insert.bindString(5, comment);
+                } else insert.bindNull(5);
+                insert.bindString(6, labelKey);
+                Long cell = gridCell(place);
+                if (cell != null) {
+                    insert.bindLong(7, cell);
+                } else insert.bindNull(7);
+
+                if (insert.executeInsert() != -1) {
+                    count++;
+                }
+            }
+            database.setTransactionSuccessful();
+
+        } finally {
+            database.endTransaction();
+            insert.close();
+            countNamed.close();
+            countEqual.close();
+        }
+        return count;
+    }
+
+    /**
+     * Get places whose normalized name starts with the given text (uses the labelKey index).
+     * @param prefix some text (normalized by labelKey)
+     * @param n get first n results (n <= 0 for complete list)
+     * @param fullEntry true get all place data, false get display name only
+     * @return a Cursor into the database (ordered by name)
+     */
+    public Cursor getPlacesByPrefix(@NonNull String prefix, int n, boolean fullEntry)
+    {
+        String[] QUERY = (fullEntry) ? QUERY_PLACES_FULLENTRY : QUERY_PLACES_MINENTRY;
+        String key = labelKey(prefix);
+        String selection;
+        String[] selectionArgs;
+        if (key.isEmpty())
+        {
+            selection = null;
+            selectionArgs = null;
+
+        } else {
+            selection = KEY_PLACE_LABELKEY + " >= ? AND " + KEY_PLACE_LABELKEY + " < ?";
+            selectionArgs = new String[] { key, key.substring(0, key.length() - 1) + (char)(key.charAt(key.length() - 1) + 1) };
+        }
+        Cursor cursor = database.query(TABLE_PLACES, QUERY, selection, selectionArgs, null, null, KEY_PLACE_LABELKEY, (n > 0 ? n + "" : null));
+        if (cursor != null) {
+            cursor.moveToFirst();
+        }
+        return cursor;
+    }
+
+    /**
+     * Finds the places nearest to the given coordinates (searching the grid cells around them).
+     * @param latitude latitude (degrees)
+     * @param longitude longitude (degrees)
+     * @param k the maximum number of places to return
+     * @param maxDistance the maximum distance (meters) from the coordinates (or <= 0 for no limit)
+     * @return up to k places ordered by distance (nearest first)
+     */
+    @NonNull
+    public List<PlaceItem> findNearestPlaces(double latitude, double longitude, int k, double maxDistance)
+    {
+        ArrayList<PlaceItem> nearest = new ArrayList<>();
+        final HashMap<PlaceItem, Double> distances = new HashMap<>();
+        if (k <= 0) {
+            return nearest;
+        }
+
+        double radius = (maxDistance > 0 ? Math.min(maxDistance, GRID_METERS) : GRID_METERS);
+        while (true)
+        {
+            nearest.clear();
+            distances.clear();
+
+            Cursor cursor = database.query(TABLE_PLACES, QUERY_PLACES_FULLENTRY, gridSelection(latitude, longitude, radius), null, null, null, null);
+            if (cursor != null)
+            {
+                while (cursor.moveToNext())
+                {
+                    try {
+                        double distance = distance(latitude, longitude, Double.parseDouble(cursor.getString(2)), Double.parseDouble(cursor.getString(3)));
+                        if (distance <= radius)
+                        {
+                            PlaceItem item = new PlaceItem(cursor.getLong(0), new Location(cursor.getString(1), cursor.getString(2), cursor.getString(3), cursor.getString(4)));
+                            distances.put(item, distance);
+                            nearest.add(item);
+                        }
+                    } catch (NumberFormatException e) {
+                        Log.w("GetFixDatabaseAdapter", "findNearestPlaces: skipping " + cursor.getString(1) + ": " + e);
+                    }
+                }
+                cursor.close();
+            }
+
+            boolean searchedAll = (radius >= MAX_DISTANCE_METERS || (maxDistance > 0 && radius >= maxDistance));
+            if (nearest.size() >= k || searchedAll) {
+                break;                // every place within radius is known, so the nearest k are among them
+            }
+            radius = (maxDistance > 0 ? Math.min(maxDistance, radius * 4) : Math.min(MAX_DISTANCE_METERS, radius * 4));
+        }
+
+        Collections.sort(nearest, new Comparator<PlaceItem>() {
+            @Override
+            public int compare(PlaceItem o1, PlaceItem o2) {
+                return Double.compare(distances.get(o1), distances.get(o2));
+            }
+        });
+        return (nearest.size() > k ? new ArrayList<>(nearest.subList(0, k)) : nearest);
+    }
+
+    /**
+     * @return a selection of the grid cells that cover a circle of the given radius (or null if it covers every cell)
+     */
+    @Nullable
+    protected static String gridSelection(double latitude, double longitude, double radius)
+    {
+        double dLat = Math.toDegrees(radius / EARTH_RADIUS_METERS);
+        double minLat = latitude - dLat, maxLat = latitude + dLat;
+        if (minLat <= -90 || maxLat >= 90) {
+            return (dLat >= 180 ? null : gridRows(Math.max(-90, minLat), Math.min(90, maxLat), 0, GRID_COLUMNS - 1));
+        }
+
+        double dLon = Math.toDegrees(radius / (EARTH_RADIUS_METERS * Math.cos(Math.toRadians(Math.max(Math.abs(minLat), Math.abs(maxLat))))));
+        if (dLon >= 180) {
+            return gridRows(minLat, maxLat, 0, GRID_COLUMNS - 1);
+        }
+
+        int column0 = (int)(gridCell(0, longitude - dLon) % GRID_COLUMNS);
+        int column1 = (int)(gridCell(0, longitude + dLon) % GRID_COLUMNS);
+        if (column0 <= column1) {
+            return gridRows(minLat, maxLat, column0, column1);
+        } else {
+            return gridRows(minLat, maxLat, column0, GRID_COLUMNS - 1) + " OR " + gridRows(minLat, maxLat, 0, column1);    // crosses 180
+        }
+    }
+
+    private static String gridRows(double minLat, double maxLat, int column0, int column1)
+    {
+        long row0 = gridCell(minLat, 0) / GRID_COLUMNS;
+        long row1 = gridCell(maxLat, 0) / GRID_COLUMNS;
+        StringBuilder selection = new StringBuilder();
+        for (long row = row0; row <= row1; row++)
+        {
+            if (selection.length() > 0) {
+                selection.append(" OR ");
+            }
+            selection.append("(").append(KEY_PLACE_GRID).append(" BETWEEN ").append(row * GRID_COLUMNS + column0).append(" AND ").append(row * GRID_COLUMNS + column1).append(")");
+        }
+        return selection.toString();
+    }
+
+    /**
+     * @return the great-circle distance between two points (meters)
+     */
+    public static double distance(double lat1, double lon1, double lat2, double lon2)
+    {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                 + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * EARTH_RADIUS_METERS * Math.atan2(Math.sqrt(a), Math.sqrt(Math.max(0, 1 - a)));
+    }
+
     public void updatePlace( Location place )
     {
-        ContentValues values = new ContentValues();
-        values.put(KEY_PLACE_NAME, place.getLabel());
-        values.put(KEY_PLACE_LATITUDE, place.getLatitude());
-        values.put(KEY_PLACE_LONGITUDE, place.getLongitude());
-        values.put(KEY_PLACE_ALTITUDE, place.getAltitude());
+        ContentValues values = placeValues(place);
         database.update(TABLE_PLACES, values,  "name = ?", new String[] { place.getLabel() });
     }
 
     public void updatePlace( long rowID, Location place )
     {
-        ContentValues values = new ContentValues();
+        ContentValues values = placeValues(place);
         values.put(KEY_ROWID, rowID);
+        database.update(TABLE_PLACES, values,  "rowID = ?", new String[] { Long.toString(rowID) });
+    }
+
+    private static ContentValues placeValues( Location place )
+    {
+        ContentValues values = new ContentValues();
         values.put(KEY_PLACE_NAME, place.getLabel());
         values.put(KEY_PLACE_LATITUDE, place.getLatitude());
         values.put(KEY_PLACE_LONGITUDE, place.getLongitude());
         values.put(KEY_PLACE_ALTITUDE, place.getAltitude());
-        database.update(TABLE_PLACES, values,  "rowID = ?", new String[] { Long.toString(rowID) });
+        values.put(KEY_PLACE_LABELKEY, labelKey(place.getLabel()));
+        values.put(KEY_PLACE_GRID, gridCell(place));
+        return values;
+    }
+
+    /**
+     * @param label a place name
+     * @return the normalized name (lower case, trimmed) used by the labelKey index
+     */
+    @NonNull
+    public static String labelKey(@Nullable String label) {
+        return (label != null ? label.toLowerCase(Locale.ROOT).trim() : "");
+    }
+
+    /**
+     * @return the grid cell (GRID_DEGREES square) containing the place, or null if its coordinates are invalid
+     */
+    @Nullable
+    public static Long gridCell(@NonNull Location place)
+    {
+        try {
+            return gridCell(Double.parseDouble(place.getLatitude()), Double.parseDouble(place.getLongitude()));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    public static long gridCell(double latitude, double longitude)
+    {
+        int row = (int)Math.floor((Math.max(-90, Math.min(90, latitude)) + 90) / GRID_DEGREES);
+        int column = (int)Math.floor((((longitude + 180) % 360 + 360) % 360) / GRID_DEGREES);
+        return (long)row * GRID_COLUMNS + Math.min(column, GRID_COLUMNS - 1);
     }
 
     public void updateComment( long rowID, String comment )
@@ -231,32 +518,31 @@ public class GetFixDatabaseAdapter
         return position;
     }
 
-    public String addPlaceCSV_header()
+    /**
+     * Writes the csv header (name, latitude, longitude, altitude, comment); this and writePlaceCSV_row define the places csv format.
+     */
+    public static void writePlaceCSV_header(CSVWriter csv) throws IOException
     {
-        String separator = ", ";
-        //noinspection UnnecessaryLocalVariable
-        String line = KEY_PLACE_NAME + separator +
-                KEY_PLACE_LATITUDE + separator +
-                KEY_PLACE_LONGITUDE + separator +
-                KEY_PLACE_ALTITUDE + separator +
-                KEY_PLACE_COMMENT;
-        return line;
+        csv.writeField(KEY_PLACE_NAME).writeField(KEY_PLACE_LATITUDE).writeField(KEY_PLACE_LONGITUDE).writeField(KEY_PLACE_ALTITUDE).writeField(KEY_PLACE_COMMENT);
+        csv.endRow();
     }
-    public String addPlaceCSV_row( ContentValues place )
+
+    /**
+     * Writes the cursor's current place as a csv row; the place name (and comment) are always quoted.
+     * @param cursor a cursor from getAllPlaces (fullEntry)
+     */
+    public static void writePlaceCSV_row(CSVWriter csv, Cursor cursor) throws IOException
     {
-        String quote = "\"";
-        String separator = ", ";
-        //noinspection UnnecessaryLocalVariable
-        String line = quote + place.getAsString(KEY_PLACE_NAME) + quote + separator +
-                      place.getAsString(KEY_PLACE_LATITUDE) + separator +
-                      place.getAsString(KEY_PLACE_LONGITUDE) + separator +
-                      place.getAsString(KEY_PLACE_ALTITUDE) + separator;
-
-        String comment = place.getAsString(KEY_PLACE_COMMENT);
-        if (!comment.isEmpty())
-            line += quote + comment + quote;
-
-        return line;
+        csv.writeQuoted(cursor.getString(1))
+           .writeField(cursor.getString(2))
+           .writeField(cursor.getString(3))
+           .writeField(cursor.getString(4));
+
+        String comment = cursor.getString(5);
+        if (comment != null && !comment.isEmpty()) {
+            csv.writeQuoted(comment);
+        } else csv.writeField("");
+        csv.endRow();
     }
 
     /**
@@ -298,6 +584,8 @@ public class GetFixDatabaseAdapter
                 case 0:
                 default:
                     db.execSQL(TABLE_PLACES_CREATE);
+                    db.execSQL(INDEX_PLACES_LABELKEY_CREATE);
+                    db.execSQL(INDEX_PLACES_GRID_CREATE);
                     break;
             }
         }
@@ -305,14 +593,37 @@ public class GetFixDatabaseAdapter
         @Override
         public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion)
         {
-            /**Log.w("GetFixDatabaseAdapter", "Upgrading database from version " + oldVersion + " to " + newVersion);
+            Log.i("GetFixDatabaseAdapter", "Upgrading database from version " + oldVersion + " to " + newVersion);
             switch (oldVersion)
             {
                 case 1:
-                case 2:
-                case 3:
+                    db.execSQL("alter table " + TABLE_PLACES + " add column " + DEF_PLACE_LABELKEY);
+                    db.execSQL("alter table " + TABLE_PLACES + " add column " + DEF_PLACE_GRID);
+                    db.execSQL(INDEX_PLACES_LABELKEY_CREATE);
+                    db.execSQL(INDEX_PLACES_GRID_CREATE);
+                    indexPlaces(db);
                     break;
-            }*/
+            }
+        }
+
+        /**
+         * Fills the labelKey and grid columns of existing places.
+         */
+        private static void indexPlaces(SQLiteDatabase db)
+        {
+            Cursor cursor = db.query(TABLE_PLACES, new String[] { KEY_ROWID, KEY_PLACE_NAME, KEY_PLACE_LATITUDE, KEY_PLACE_LONGITUDE }, null, null, null, null, null);
+            if (cursor != null)
+            {
+                ContentValues values = new ContentValues();
+                while (cursor.moveToNext())
+                {
+                    values.clear();
+                    values.put(KEY_PLACE_LABELKEY, labelKey(cursor.getString(1)));
+                    values.put(KEY_PLACE_GRID, gridCell(new Location(cursor.getString(1), cursor.getString(2), cursor.getString(3))));
+                    db.update(TABLE_PLACES, values, KEY_ROWID + "=" + cursor.getLong(0), null);
+                }
+                cursor.close();
+            }
         }
     }
 }
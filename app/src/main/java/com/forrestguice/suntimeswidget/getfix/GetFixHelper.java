@@ -62,6 +62,7 @@ public class GetFixHelper
     public static final String DIALOGTAG_KEEPTRYING = "keeptrying";
 
     public static final int REQUEST_GETFIX_LOCATION = 1;
+    public static final double NEAREST_PLACE_DISTANCE = 5000;    // fixes are labelled with a place within 5km (see GetFixTask.EXTRA_NEAREST_PLACE)
 
     public GetFixTask getFixTask = null;
     public Location fix = null;
@@ -103,6 +104,7 @@ public class GetFixHelper
 
                     int maxAge = AppSettings.loadPrefGpsMaxAge(prefs, GetFixTask.MAX_AGE);
                     getFixTask.setMaxAge(maxAge);
+                    getFixTask.setNearestPlaceDistance(NEAREST_PLACE_DISTANCE);
 
                     //Log.d("GetFixHelper", "MinElapsed: " + minElapsed);
                     //Log.d("GetFixHelper", "MaxElapsed: " + maxElapsed);
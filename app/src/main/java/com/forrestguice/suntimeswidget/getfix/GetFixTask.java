@@ -19,6 +19,7 @@
 package com.forrestguice.suntimeswidget.getfix;
 
 import android.content.Context;
+import android.database.SQLException;
 import android.location.Location;
 import android.location.LocationListener;
 import android.location.LocationManager;
@@ -51,11 +52,15 @@ public class GetFixTask extends AsyncTask<Object, Location, Location>
     public static final int MAX_AGE_NONE = 0;
     public static final int MAX_AGE_ANY = -1;
 
+    public static final String EXTRA_NEAREST_PLACE = "nearestPlace";    // (String) label of the nearest place (see setNearestPlaceDistance)
+
     private WeakReference<GetFixHelper> helperRef;
+    private Context appContext;
     public GetFixTask(Context parent, GetFixHelper helper)
     {
         locationManager = (LocationManager)parent.getSystemService(Context.LOCATION_SERVICE);
         this.helperRef = new WeakReference<GetFixHelper>(helper);
+        this.appContext = parent.getApplicationContext();
     }
 
     public AsyncTask<Object, Location, Location> executeTask(Object... params)
@@ -106,6 +111,19 @@ public class GetFixTask extends AsyncTask<Object, Location, Location>
         maxAge = timeInMs;
     }
 
+    /**
+     * Property: label the result with the nearest place within this distance (meters); 0 disables the lookup.
+     */
+    private double nearestPlaceDistance = 0;
+    public double getNearestPlaceDistance()
+    {
+        return nearestPlaceDistance;
+    }
+    public void setNearestPlaceDistance( double meters )
+    {
+        nearestPlaceDistance = meters;
+    }
+
     private long startTime, stopTime, elapsedTime;
     private FilteredLocation bestFix;
     private LocationManager locationManager;
@@ -260,7 +278,38 @@ public class GetFixTask extends AsyncTask<Object, Location, Location>
                 break;
             }
         }
-        return ((bestFix != null) ? bestFix.getLocation() : null);
+
+        Location result = ((bestFix != null) ? bestFix.getLocation() : null);
+        if (result != null && nearestPlaceDistance > 0) {
+            findNearestPlace(result);
+        }
+        return result;
+    }
+
+    /**
+     * Puts the label of the nearest place (if any) into the location's extras (EXTRA_NEAREST_PLACE).
+     */
+    private void findNearestPlace(Location location)
+    {
+        GetFixDatabaseAdapter db = new GetFixDatabaseAdapter(appContext);
+        try {
+            db.open();
+            try {
+                List<PlaceItem> places = db.findNearestPlaces(location.getLatitude(), location.getLongitude(), 1, nearestPlaceDistance);
+                if (!places.isEmpty())
+                {
+                    Bundle extras = (location.getExtras() != null ? location.getExtras() : new Bundle());
+                    extras.putString(EXTRA_NEAREST_PLACE, places.get(0).location.getLabel());
+                    location.setExtras(extras);
+                    Log.d(TAG, "nearest place: " + places.get(0).location.getLabel());
+                }
+            } finally {
+                db.close();
+            }
+
+        } catch (SQLException e) {
+            Log.e(TAG, "unable to find nearest place: " + e);
+        }
     }
 
     /**
@@ -66,6 +66,8 @@ import java.lang.ref.WeakReference;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
 
@@ -1203,6 +1205,7 @@ public class PlacesListFragment extends Fragment
         protected ArrayList<PlaceItem> items0, items;
         protected String filterText = "";
         protected ArrayList<Long> filterExceptions;
+        protected final HashMap<Long, String> labelKeys = new HashMap<>();    // normalized labels (by rowID); see GetFixDatabaseAdapter.labelKey
 
         public PlacesListAdapter(Context context)
         {
@@ -1216,6 +1219,10 @@ public class PlacesListFragment extends Fragment
         {
             filterExceptions.clear();
 
+            synchronized (labelKeys) {
+                labelKeys.clear();
+            }
+
             items0.clear();
             items0.addAll(sortItems(values));
 
@@ -1229,6 +1236,9 @@ public class PlacesListFragment extends Fragment
         {
             for (PlaceItem value : values)
             {
+                synchronized (labelKeys) {
+                    labelKeys.remove(value.rowID);
+                }
                 int position = indexOf(value.rowID, items0);
                 if (position >= 0 && position < items0.size())
                 {
@@ -1265,6 +1275,9 @@ public class PlacesListFragment extends Fragment
             if (position0 != -1) {
                 items0.remove(position0);
             }
+            synchronized (labelKeys) {
+                labelKeys.remove(rowID);
+            }
 
             int position1 = indexOf(rowID, items);
             if (position1 != -1)
@@ -1304,6 +1317,21 @@ public class PlacesListFragment extends Fragment
             return array;
         }
 
+        /**
+         * @return the item's normalized label (computed once per item)
+         */
+        protected String labelKey(@NonNull PlaceItem item)
+        {
+            synchronized (labelKeys)
+            {
+                String key = labelKeys.get(item.rowID);
+                if (key == null) {
+                    labelKeys.put(item.rowID, (key = GetFixDatabaseAdapter.labelKey(item.location != null ? item.location.getLabel() : null)));
+                }
+                return key;
+            }
+        }
+
         protected static List<PlaceItem> sortItems(List<PlaceItem> items)
         {
             Collections.sort(items, new Comparator<PlaceItem>() {
@@ -1475,40 +1503,86 @@ public class PlacesListFragment extends Fragment
 
         /**
          * PlacesFilter
+         * The items and filter exceptions are copied when the filter is created (on the UI thread); filtering runs on a worker thread.
          */
         private class PlacesFilter extends Filter
         {
+            private final List<PlaceItem> values0 = new ArrayList<>(items0);    // in sort order
+            private final HashSet<Long> exceptions = new HashSet<>(filterExceptions);
+
             @Override
             protected FilterResults performFiltering(CharSequence constraint)
             {
                 FilterResults results = new FilterResults();
-                results.values = new ArrayList<>((constraint.length() > 0) ? getFilteredValues(constraint.toString().toLowerCase(Locale.ROOT)) : items0);
+                results.values = (constraint.length() > 0) ? getFilteredValues(constraint.toString()) : values0;
                 return results;
             }
 
+            /**
+             * Places whose name starts with the constraint are found using the labelKey index, then places whose name contains it
+             * are added; results are listed as exceptions (recently changed items), exact matches, prefix matches, then other matches
+             * (each in sort order).
+             */
             protected List<PlaceItem> getFilteredValues(String constraint)
             {
-                List<PlaceItem> values0  = new ArrayList<>();
-                List<PlaceItem> values1  = new ArrayList<>();
-                for (PlaceItem item : items0)
+                String key = GetFixDatabaseAdapter.labelKey(constraint);
+                HashSet<Long> prefixMatches = findPrefixMatches(key);
+
+                List<PlaceItem> values = new ArrayList<>();
+                List<PlaceItem> values1 = new ArrayList<>();
+                List<PlaceItem> values2 = new ArrayList<>();
+                int n = 0;
+                for (PlaceItem item : values0)
                 {
-                    String label = item.location.getLabel().toLowerCase(Locale.ROOT).trim();
-
-                    if (label.equals(constraint) || filterExceptions.contains(item.rowID)) {
-                        values0.add(0, item);
+                    if (exceptions.contains(item.rowID)) {
+                        values.add(n++, item);
 
-                    } else if (label.startsWith(constraint)) {
-                        values0.add(item);
+                    } else if (prefixMatches.contains(item.rowID)) {
+                        if (labelKey(item).equals(key)) {
+                            values.add(item);
+                        } else values1.add(item);
 
-                    } else if (label.contains(constraint)) {
-                        values1.add(item);
+                    } else if (labelKey(item).contains(key)) {
+                        values2.add(item);
                     }
                 }
-                List<PlaceItem> values = new ArrayList<>(values0);
                 values.addAll(values1);
+                values.addAll(values2);
                 return values;
             }
 
+            /**
+             * @param key normalized text (see GetFixDatabaseAdapter.labelKey)
+             * @return rowIDs of places whose labelKey starts with key
+             */
+            protected HashSet<Long> findPrefixMatches(String key)
+            {
+                HashSet<Long> rowIDs = new HashSet<>();
+                Context context = contextRef.get();
+                if (context == null) {
+                    return rowIDs;
+                }
+
+                GetFixDatabaseAdapter database = new GetFixDatabaseAdapter(context.getApplicationContext());
+                database.open();
+                try {
+                    Cursor cursor = database.getPlacesByPrefix(key, 0, false);
+                    if (cursor != null)
+                    {
+                        int rowIDColumn = cursor.getColumnIndex(GetFixDatabaseAdapter.KEY_ROWID);
+                        while (!cursor.isAfterLast())
+                        {
+                            rowIDs.add(cursor.getLong(rowIDColumn));
+                            cursor.moveToNext();
+                        }
+                        cursor.close();
+                    }
+                } finally {
+                    database.close();
+                }
+                return rowIDs;
+            }
+
             @SuppressWarnings("unchecked")
             @Override
             protected void publishResults(CharSequence constraint, FilterResults results)
@@ -111,7 +111,7 @@ public class MoonLayout_2x1_0 extends MoonLayout
     @Override
     public void prepareForUpdate(Context context, int appWidgetId, SuntimesMoonData data)
     {
-        order = WidgetSettings.loadRiseSetOrderPref(context, appWidgetId);
+        order = WidgetSettings.loadSnapshot(context, appWidgetId).riseSetOrder();
         this.layoutID = chooseMoonLayout(R.layout.layout_widget_moon_2x1_0, R.layout.layout_widget_moon_2x1_01, data, order);
     }
 }
@@ -61,7 +61,7 @@ public class SunLayout_1x1_0 extends SunLayout
     @Override
     public void prepareForUpdate(Context context, int appWidgetID, SuntimesRiseSetData data)
     {
-        order = WidgetSettings.loadRiseSetOrderPref(context, appWidgetID);
+        order = WidgetSettings.loadSnapshot(context, appWidgetID).riseSetOrder();
         this.layoutID = chooseSunLayout(R.layout.layout_widget_1x1_0, R.layout.layout_widget_1x1_01, data, order);
     }
 
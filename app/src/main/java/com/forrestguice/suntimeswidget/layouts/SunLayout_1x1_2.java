@@ -58,7 +58,7 @@ public class SunLayout_1x1_2 extends SunLayout
     {
         super.updateViews(context, appWidgetId, views, data);
         boolean showSeconds = WidgetSettings.loadShowSecondsPref(context, appWidgetId);
-        WidgetSettings.RiseSetOrder order = WidgetSettings.loadRiseSetOrderPref(context, appWidgetId);
+        WidgetSettings.RiseSetOrder order = WidgetSettings.loadSnapshot(context, appWidgetId).riseSetOrder();
 
         Calendar event = data.sunsetCalendar(1);
         if (order != WidgetSettings.RiseSetOrder.TODAY)
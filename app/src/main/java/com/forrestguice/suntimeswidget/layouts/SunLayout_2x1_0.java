@@ -48,7 +48,7 @@ public class SunLayout_2x1_0 extends SunLayout
     @Override
     public void prepareForUpdate(Context context, int appWidgetID, SuntimesRiseSetData data)
     {
-        order = WidgetSettings.loadRiseSetOrderPref(context, appWidgetID);
+        order = WidgetSettings.loadSnapshot(context, appWidgetID).riseSetOrder();
         this.layoutID = chooseSunLayout(R.layout.layout_widget_2x1_0, R.layout.layout_widget_2x1_01, data, order);
     }
 
@@ -96,7 +96,7 @@ public class WorldMapEquiazimuthal extends WorldMapTask.WorldMapProjection
         double v0, v1, v2;
         double sunIntensity, moonIntensity;
         int[] pixels = new int[w * h];
-        double[] m = getMatrix();
+        float[] m = getMatrix();
 
         for (int j = 0; j < h; j++)
         {
@@ -137,7 +137,6 @@ public class WorldMapEquiazimuthal extends WorldMapTask.WorldMapProjection
         return pixels;
     }
 
-    protected boolean paintInitialized = false;
     protected Paint paintScaled = null;
     protected Paint paintBackground = null;
     protected Paint paintForeground = null;
@@ -208,10 +207,6 @@ public class WorldMapEquiazimuthal extends WorldMapTask.WorldMapProjection
             return null;
         }
 
-        if (matrix == null) {
-            matrix = initMatrix();
-        }
-
         double[] mid = new double[2];
         mid[0] = w/2d;
         mid[1] = h/2d;
@@ -341,11 +336,11 @@ public class WorldMapEquiazimuthal extends WorldMapTask.WorldMapProjection
         return masked;
     }
 
-    private static double[] matrix = null;    // [x * y * v(3)]
+    public static final String PROJECTION_ID = "equiazimuthal";
 
     @Override
-    public double[] getMatrix() {
-        return matrix;
+    public float[] getMatrix() {
+        return WorldMapGeometry.getMatrix(PROJECTION_ID, this);
     }
 
     @Override
@@ -355,14 +350,14 @@ public class WorldMapEquiazimuthal extends WorldMapTask.WorldMapProjection
     }
 
     @Override
-    public double[] initMatrix()
+    public float[] initMatrix()
     {
         long bench_start = System.nanoTime();
 
         int[] size = matrixSize();
         int w = size[0];
         int h = size[1];
-        double[] v = new double[w * h * 3];
+        float[] v = new float[w * h * 3];
 
         double radLon, cosLon, sinLon;
         double radLat, cosLat;
@@ -395,9 +390,9 @@ public class WorldMapEquiazimuthal extends WorldMapTask.WorldMapProjection
                 cosLat = Math.cos(radLat);
                 cosLon = Math.cos(radLon);
 
-                v[i + (360 * j)] = cosLon * cosLat;
-                v[i + (360 * (360 + j))] = sinLon * cosLat;
-                v[i + (360 * (720 + j))] = Math.sin(radLat);
+                v[i + (360 * j)] = (float)(cosLon * cosLat);
+                v[i + (360 * (360 + j))] = (float)(sinLon * cosLat);
+                v[i + (360 * (720 + j))] = (float)Math.sin(radLat);
             }
         }
 
@@ -53,22 +53,22 @@ public class WorldMapEquiazimuthal1 extends WorldMapEquiazimuthal
         return polar;
     }
 
-    private static double[] matrix = null;    // [x * y * v(3)]
+    public static final String PROJECTION_ID = "equiazimuthal1";
 
     @Override
-    public double[] getMatrix() {
-        return matrix;
+    public float[] getMatrix() {
+        return WorldMapGeometry.getMatrix(PROJECTION_ID, this);
     }
 
     @Override
-    public double[] initMatrix()
+    public float[] initMatrix()
     {
         long bench_start = System.nanoTime();
 
         int[] size = matrixSize();
         int w = size[0];
         int h = size[1];
-        double[] v = new double[w * h * 3];
+        float[] v = new float[w * h * 3];
 
         double squareR = (0.5 * w + 1) * (0.5 * w + 1);
         double negPiOver2 = -0.5 * Math.PI;
@@ -108,9 +108,9 @@ public class WorldMapEquiazimuthal1 extends WorldMapEquiazimuthal
                 cosLon = Math.cos(radLon);
                 sinLon = Math.sin(radLon);
 
-                v[i + (360 * j)] = cosLon * cosLat;
-                v[i + (360 * (360 + j))] = sinLon * cosLat;
-                v[i + (360 * (720 + j))] = Math.sin(radLat);
+                v[i + (360 * j)] = (float)(cosLon * cosLat);
+                v[i + (360 * (360 + j))] = (float)(sinLon * cosLat);
+                v[i + (360 * (720 + j))] = (float)Math.sin(radLat);
             }
         }
 
@@ -128,10 +128,6 @@ public class WorldMapEquiazimuthal1 extends WorldMapEquiazimuthal
             return null;
         }
 
-        if (matrix == null) {
-            matrix = initMatrix();
-        }
-
         double[] mid = new double[2];
         mid[0] = w/2d;
         mid[1] = h/2d;
@@ -27,7 +27,9 @@ import android.graphics.Paint;
 import android.graphics.PathEffect;
 import android.graphics.PorterDuff;
 import android.graphics.PorterDuffXfermode;
-import android.support.annotation.Nullable;
+import android.graphics.Rect;
+import android.graphics.drawable.Drawable;
+import android.support.annotation.NonNull;
 import android.util.Log;
 
 import com.forrestguice.suntimeswidget.calculator.core.SuntimesCalculator;
@@ -35,7 +37,19 @@ import com.forrestguice.suntimeswidget.calculator.SuntimesRiseSetDataset;
 import com.forrestguice.suntimeswidget.calculator.core.Location;
 import com.forrestguice.suntimeswidget.settings.WidgetTimezones;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Calendar;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
 
 /**
  * WorldMapEquirectangular
@@ -51,7 +65,6 @@ public class WorldMapEquirectangular extends WorldMapTask.WorldMapProjection
         return r;
     }
 
-    protected boolean paintInitialized = false;
     protected Paint paintBackground = null;
     protected Paint paintForeground = null;
     protected Paint paintMoonlight = null;
@@ -76,6 +89,7 @@ public class WorldMapEquirectangular extends WorldMapTask.WorldMapProjection
 
         paintMask_srcOver = new Paint(Paint.ANTI_ALIAS_FLAG);    // to create a mask
         paintMask_srcOver.setColor(Color.WHITE);
+        paintMask_srcOver.setFilterBitmap(true);
         paintMask_srcOver.setXfermode(new PorterDuffXfermode(PorterDuff.Mode.SRC_OVER));
 
         paintMask_srcIn = new Paint(Paint.ANTI_ALIAS_FLAG);      // to apply a mask
@@ -126,10 +140,6 @@ public class WorldMapEquirectangular extends WorldMapTask.WorldMapProjection
             return null;
         }
 
-        if (matrix == null) {
-            matrix = initMatrix();
-        }
-
         double[] mid = new double[2];
         mid[0] = w/2d;
         mid[1] = h/2d;
@@ -200,80 +210,47 @@ public class WorldMapEquirectangular extends WorldMapTask.WorldMapProjection
                 if (sunMaskBitmap == null || moonMaskBitmap == null) {
                     initBitmap(size[0], size[1]);
                 }
+                FrameBuffers buffers = initFrameBitmaps(w, h);
 
-                int z = 0;
-                int k0, k1, k2;
-                double v0, v1, v2;
-                double sunIntensity, moonIntensity;
-                int[] sun_pixels = new int[size[0] * size[1]];
-                int[] moon_pixels = new int[size[0] * size[1]];
-                for (int j = 0; j < size[1]; j++)
-                {
-                    k0 = size[0] * j;
-                    k1 = size[0] * (size[1] + j);
-                    k2 = size[0] * ((size[1] * 2) + j);
-
-                    for (int i = 0; i < size[0]; i++)
-                    {
-                        v0 = matrix[i + k0];
-                        v1 = matrix[i + k1];
-                        v2 = matrix[i + k2];
-
-                        if (options.showSunShadow)
-                        {
-                            sunIntensity = (sunUp[0] * v0) + (sunUp[1] * v1) + (sunUp[2] * v2);    // intensity = up.dotProduct(v)
-                            if (sunIntensity <= 0) {
-                                sun_pixels[z] = Color.WHITE;
-                            }
-                        }
-
-                        if (options.showMoonLight)
-                        {
-                            moonIntensity = (moonUp[0] * v0) + (moonUp[1] * v1) + (moonUp[2] * v2);
-                            if (moonIntensity > 0) {
-                                moon_pixels[z] = Color.WHITE;
-                            }
-                        }
-                        z++;
-                    }
+                if (!shadeRows(size[0], size[1], sunUp, moonUp, options)) {
+                    Log.w(WorldMapView.LOGTAG, "makeBitmap: interrupted; discarding frame");
+                    return null;
                 }
                 sunMaskBitmap.setPixels(sun_pixels, 0, size[0], 0, 0, size[0], size[1]);
                 moonMaskBitmap.setPixels(moon_pixels, 0, size[0], 0, 0, size[0], size[1]);
 
+                Rect src = new Rect(0, 0, size[0], size[1]);
+                Rect dst = new Rect(0, 0, w, h);
+
                 // draw sun shadow
-                Bitmap sunMask = Bitmap.createScaledBitmap(sunMaskBitmap, w, h, true);
-                Bitmap shadowBitmap = Bitmap.createBitmap(w, h, Bitmap.Config.ARGB_8888);
-                Canvas shadowCanvas = new Canvas(shadowBitmap);
-                shadowCanvas.drawBitmap(sunMask, 0, 0, paintMask_srcOver);
+                buffers.shadowBitmap.eraseColor(Color.TRANSPARENT);
+                buffers.shadowCanvas.drawBitmap(sunMaskBitmap, src, dst, paintMask_srcOver);
 
                 if (options.map_night != null)
                 {
-                    Bitmap nightBitmap = Bitmap.createBitmap(w, h, Bitmap.Config.ARGB_8888);
-                    Canvas nightCanvas = new Canvas(nightBitmap);
-                    options.map_night.setBounds(0, 0, nightCanvas.getWidth(), nightCanvas.getHeight());
-                    options.map_night.draw(nightCanvas);
-
-                    shadowCanvas.drawBitmap(nightBitmap, 0, 0, paintMask_srcIn);
-                    nightBitmap.recycle();
+                    if (buffers.nightBitmap == null || buffers.nightDrawable != options.map_night)
+                    {
+                        if (buffers.nightBitmap == null) {
+                            buffers.nightBitmap = Bitmap.createBitmap(w, h, Bitmap.Config.ARGB_8888);
+                        } else buffers.nightBitmap.eraseColor(Color.TRANSPARENT);
+
+                        Canvas nightCanvas = new Canvas(buffers.nightBitmap);
+                        options.map_night.setBounds(0, 0, nightCanvas.getWidth(), nightCanvas.getHeight());
+                        options.map_night.draw(nightCanvas);
+                        buffers.nightDrawable = options.map_night;
+                    }
+                    buffers.shadowCanvas.drawBitmap(buffers.nightBitmap, 0, 0, paintMask_srcIn);
 
                 } else {
-                    shadowCanvas.drawPaint(paintSunshadow);
+                    buffers.shadowCanvas.drawPaint(paintSunshadow);
                 }
-
-                c.drawBitmap(shadowBitmap, 0, 0, paintMask_srcOver);
-                shadowBitmap.recycle();
-                sunMask.recycle();
+                c.drawBitmap(buffers.shadowBitmap, 0, 0, paintMask_srcOver);
 
                 // draw moon light
-                Bitmap moonMask = Bitmap.createScaledBitmap(moonMaskBitmap, w, h, true);
-                Bitmap moonBitmap = Bitmap.createBitmap(w, h, Bitmap.Config.ARGB_8888);
-                Canvas moonCanvas = new Canvas(moonBitmap);
-                moonCanvas.drawBitmap(moonMask, 0, 0, paintMask_srcOver);
-                moonCanvas.drawPaint(paintMoonlight);
-
-                c.drawBitmap(moonBitmap, 0, 0, paintMask_srcOver);
-                moonBitmap.recycle();
-                moonMask.recycle();
+                buffers.moonBitmap.eraseColor(Color.TRANSPARENT);
+                buffers.moonCanvas.drawBitmap(moonMaskBitmap, src, dst, paintMask_srcOver);
+                buffers.moonCanvas.drawPaint(paintMoonlight);
+                c.drawBitmap(buffers.moonBitmap, 0, 0, paintMask_srcOver);
             }
 
             ////////////////
@@ -310,15 +287,15 @@ public class WorldMapEquirectangular extends WorldMapTask.WorldMapProjection
         return b;
     }
 
-    private static double[] matrix = null;    // [x * y * v(3)]
+    public static final String PROJECTION_ID = "equirectangular";
 
     @Override
-    public double[] initMatrix()
+    public float[] initMatrix()
     {
         long bench_start = System.nanoTime();
 
         int[] size = matrixSize();
-        double[] v = new double[size[0] * size[1] * 3];
+        float[] v = new float[size[0] * size[1] * 3];
         double iw0 = (1d / size[0]) * 360d;
         double ih0 = (1d / size[1]) * 180d;
 
@@ -336,9 +313,9 @@ public class WorldMapEquirectangular extends WorldMapTask.WorldMapProjection
                 radLat = Math.toRadians(-1 * (((double) j * ih0) - 90d));      // j in [0,h] to [0,180] to [-90,90] (inverted to canvas)
                 cosLat = Math.cos(radLat);
 
-                v[i + (size[0] * j)] = cosLon * cosLat;
-                v[i + (size[0] * (size[1] + j))] = sinLon * cosLat;
-                v[i + (size[0] * ((size[1] * 2) + j))] = Math.sin(radLat);
+                v[i + (size[0] * j)] = (float)(cosLon * cosLat);
+                v[i + (size[0] * (size[1] + j))] = (float)(sinLon * cosLat);
+                v[i + (size[0] * ((size[1] * 2) + j))] = (float)Math.sin(radLat);
             }
         }
 
@@ -349,11 +326,237 @@ public class WorldMapEquirectangular extends WorldMapTask.WorldMapProjection
 
     private Bitmap sunMaskBitmap = null;
     private Bitmap moonMaskBitmap = null;
+    private int[] sun_pixels = null, moon_pixels = null;      // reused between frames
+    private double[] sinLat = null, cosLat = null;            // per row (matrix rows)
 
     private void initBitmap(int w, int h)
     {
         sunMaskBitmap = Bitmap.createBitmap(w, h, Bitmap.Config.ARGB_4444);
         moonMaskBitmap = Bitmap.createBitmap(w, h, Bitmap.Config.ARGB_4444);
+        sun_pixels = new int[w * h];
+        moon_pixels = new int[w * h];
+
+        sinLat = new double[h];
+        cosLat = new double[h];
+        double ih0 = (1d / h) * 180d;
+        for (int j = 0; j < h; j++)
+        {
+            double radLat = Math.toRadians(-1 * (((double) j * ih0) - 90d));    // j in [0,h] to [0,180] to [-90,90] (inverted to canvas); @see initMatrix
+            sinLat[j] = Math.sin(radLat);
+            cosLat[j] = Math.cos(radLat);
+        }
+    }
+
+    /**
+     * FrameBuffers
+     * Bitmaps reused between frames of the same size (w x h).
+     */
+    private static class FrameBuffers
+    {
+        public final Bitmap shadowBitmap, moonBitmap;
+        public final Canvas shadowCanvas, moonCanvas;
+        public Bitmap nightBitmap = null;
+        public Drawable nightDrawable = null;
+
+        public FrameBuffers(int w, int h)
+        {
+            shadowBitmap = Bitmap.createBitmap(w, h, Bitmap.Config.ARGB_8888);
+            shadowCanvas = new Canvas(shadowBitmap);
+            moonBitmap = Bitmap.createBitmap(w, h, Bitmap.Config.ARGB_8888);
+            moonCanvas = new Canvas(moonBitmap);
+        }
+
+        public void recycle()
+        {
+            shadowBitmap.recycle();
+            moonBitmap.recycle();
+            if (nightBitmap != null) {
+                nightBitmap.recycle();
+            }
+        }
+    }
+
+    public static final int MAX_FRAME_BUFFERS = 2;    // full frames and previews (see WorldMapTask)
+    private final LinkedHashMap<String, FrameBuffers> frameBuffers = new LinkedHashMap<String, FrameBuffers>(MAX_FRAME_BUFFERS + 1, 0.75f, true)
+    {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, FrameBuffers> eldest)
+        {
+            if (size() > MAX_FRAME_BUFFERS) {
+                eldest.getValue().recycle();
+                return true;
+            }
+            return false;
+        }
+    };
+
+    private FrameBuffers initFrameBitmaps(int w, int h)
+    {
+        String key = w + "x" + h;
+        FrameBuffers buffers = frameBuffers.get(key);
+        if (buffers == null) {
+            frameBuffers.put(key, (buffers = new FrameBuffers(w, h)));
+        }
+        return buffers;
+    }
+
+    /**
+     * Fills sun_pixels (white where in shadow) and moon_pixels (white where lit); the rows are split
+     * between the threads of the shading executor.
+     * @return false if interrupted (the pixels are incomplete), true otherwise
+     */
+    private boolean shadeRows(final int w, final int h, double[] sunUp, double[] moonUp, final WorldMapTask.WorldMapOptions options)
+    {
+        final double[] sunTerminator = terminator(sunUp);
+        final double[] moonTerminator = terminator(moonUp);
+
+        int numTasks = Math.min(SHADING_THREADS, h);
+        if (numTasks <= 1)
+        {
+            shadeRows(0, h, w, sunTerminator, moonTerminator, options);
+            return !Thread.currentThread().isInterrupted();
+        }
+
+        ArrayList<Callable<Void>> tasks = new ArrayList<>(numTasks);
+        int rowsPerTask = (int)Math.ceil(h / (double)numTasks);
+        for (int j = 0; j < h; j += rowsPerTask)
+        {
+            final int j0 = j;
+            final int j1 = Math.min(j + rowsPerTask, h);
+            tasks.add(new Callable<Void>()
+            {
+                @Override
+                public Void call() throws Exception
+                {
+                    shadeRows(j0, j1, w, sunTerminator, moonTerminator, options);
+                    return null;
+                }
+            });
+        }
+
+        List<Future<Void>> results = new ArrayList<>(numTasks);
+        try {
+            ExecutorService executor = shadingExecutor();
+            for (Callable<Void> task : tasks) {
+                results.add(executor.submit(task));
+            }
+            for (Future<Void> result : results) {
+                result.get();
+            }
+            return true;
+
+        } catch (InterruptedException e) {
+            cancelAll(results);
+            Thread.currentThread().interrupt();
+            return false;
+
+        } catch (ExecutionException | RejectedExecutionException e) {
+            Log.w(WorldMapView.LOGTAG, "shadeRows: failed to shade in parallel; " + e);
+            cancelAll(results);    // stop the remaining tasks before writing the same rows serially
+            shadeRows(0, h, w, sunTerminator, moonTerminator, options);
+            return !Thread.currentThread().isInterrupted();
+        }
+    }
+
+    private static void cancelAll(List<Future<Void>> results)
+    {
+        for (Future<Void> result : results) {
+            result.cancel(true);
+        }
+    }
+
+    /**
+     * Fills rows [j0, j1); each row has a single lit span (the intensity along a line of latitude is a
+     * sinusoid of longitude) so the terminator is solved once per row instead of testing every cell.
+     */
+    private void shadeRows(int j0, int j1, int w, double[] sunTerminator, double[] moonTerminator, WorldMapTask.WorldMapOptions options)
+    {
+        for (int j = j0; j < j1; j++)
+        {
+            if (Thread.currentThread().isInterrupted()) {
+                return;    // cancelled
+            }
+            int offset = w * j;
+            if (options.showSunShadow)
+            {
+                Arrays.fill(sun_pixels, offset, offset + w, Color.WHITE);    // intensity <= 0 (shadow) ...
+                fillLitSpan(sun_pixels, offset, w, j, sunTerminator, Color.TRANSPARENT);    // ... except where intensity > 0
+            } else Arrays.fill(sun_pixels, offset, offset + w, Color.TRANSPARENT);
+
+            Arrays.fill(moon_pixels, offset, offset + w, Color.TRANSPARENT);
+            if (options.showMoonLight) {
+                fillLitSpan(moon_pixels, offset, w, j, moonTerminator, Color.WHITE);
+            }
+        }
+    }
+
+    /**
+     * @param up unit vector toward the sun (or moon)
+     * @return { horizontal magnitude, longitude of the sub-point (degrees), vertical component }
+     */
+    private static double[] terminator(double[] up) {
+        return new double[] { Math.sqrt(up[0] * up[0] + up[1] * up[1]), Math.toDegrees(Math.atan2(up[1], up[0])), up[2] };
+    }
+
+    /**
+     * Fills the cells of row j where intensity > 0; intensity = r * cos(lat) * cos(lon - lon0) + z * sin(lat)
+     */
+    private void fillLitSpan(int[] pixels, int offset, int w, int j, double[] terminator, int color)
+    {
+        double a = terminator[0] * cosLat[j];
+        double b = terminator[2] * sinLat[j];
+        if (a < 1e-12)
+        {
+            if (b > 0) {
+                Arrays.fill(pixels, offset, offset + w, color);
+            }
+            return;
+        }
+
+        double cosLimit = -b / a;
+        if (cosLimit >= 1) {
+            return;                                                  // never lit
+        } else if (cosLimit < -1) {
+            Arrays.fill(pixels, offset, offset + w, color);          // always lit
+            return;
+        }
+
+        double halfSpan = Math.toDegrees(Math.acos(cosLimit));
+        double iw0 = 360d / w;                                       // lon = (i * iw0) - 180; @see initMatrix
+        int i0 = (int)Math.floor((terminator[1] - halfSpan + 180d) / iw0) + 1;
+        int i1 = (int)Math.ceil((terminator[1] + halfSpan + 180d) / iw0) - 1;
+
+        int n = Math.min(i1 - i0 + 1, w);
+        if (n <= 0) {
+            return;
+        }
+        int start = ((i0 % w) + w) % w;
+        if (start + n <= w) {
+            Arrays.fill(pixels, offset + start, offset + start + n, color);
+        } else {
+            Arrays.fill(pixels, offset + start, offset + w, color);                // wraps around the antimeridian
+            Arrays.fill(pixels, offset, offset + (start + n - w), color);
+        }
+    }
+
+    private static final int SHADING_THREADS = Math.max(1, Runtime.getRuntime().availableProcessors());
+    private static ExecutorService shadingExecutor = null;
+    private static synchronized ExecutorService shadingExecutor()
+    {
+        if (shadingExecutor == null)
+        {
+            shadingExecutor = Executors.newFixedThreadPool(SHADING_THREADS, new ThreadFactory()
+            {
+                @Override
+                public Thread newThread(@NonNull Runnable r)
+                {
+                    Thread thread = new Thread(r, "WorldMapShading");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+        }
+        return shadingExecutor;
     }
 
     @Override
@@ -363,8 +566,8 @@ public class WorldMapEquirectangular extends WorldMapTask.WorldMapProjection
     }
 
     @Override
-    public double[] getMatrix() {
-        return matrix;
+    public float[] getMatrix() {
+        return WorldMapGeometry.getMatrix(PROJECTION_ID, this);
     }
 
     @Override
@@ -0,0 +1,212 @@
+/**
+    Copyright (C) 2020 Forrest Guice
+    This file is part of SuntimesWidget.
+
+    SuntimesWidget is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    SuntimesWidget is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with SuntimesWidget.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package com.forrestguice.suntimeswidget.map;
+
+import android.graphics.Bitmap;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.support.v4.util.LruCache;
+import android.util.Log;
+
+import com.forrestguice.suntimeswidget.calculator.SuntimesRiseSetDataset;
+
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * WorldMapFrameCache
+ * A bounded (LRU) cache of rendered world map frames, keyed by (projection, size, offsetMinutes, options).
+ * Frames ahead of the playback (or seek) direction can be prefetched on a background thread.
+ */
+public class WorldMapFrameCache
+{
+    public static final int PREVIEW_SCALE = 4;                 // preview frames are 1/4 the size of full frames
+    public static final int DEFAULT_PREFETCH_FRAMES = 4;
+
+    private final LruCache<String, Bitmap> frames;
+    private SuntimesRiseSetDataset data = null;
+
+    public WorldMapFrameCache() {
+        this(defaultMaxBytes());
+    }
+
+    public WorldMapFrameCache(int maxBytes)
+    {
+        frames = new LruCache<String, Bitmap>(maxBytes)
+        {
+            @Override
+            protected int sizeOf(String key, Bitmap frame) {
+                return frame.getRowBytes() * frame.getHeight();
+            }
+        };
+    }
+
+    /**
+     * @return 1/8 of the available heap (up to 32 MB)
+     */
+    public static int defaultMaxBytes() {
+        return (int)Math.min(Runtime.getRuntime().maxMemory() / 8, 32 * 1024 * 1024);
+    }
+
+    /**
+     * Frames are only valid for the dataset that rendered them; changing the dataset clears the cache.
+     * @param data the dataset frames are rendered from
+     */
+    public void setData(@Nullable SuntimesRiseSetDataset data)
+    {
+        if (this.data != data)
+        {
+            this.data = data;
+            clear();
+        }
+    }
+
+    public void clear()
+    {
+        prefetchGeneration++;
+        frames.evictAll();
+    }
+
+    /**
+     * @return a frame key, or null if the frame can't be keyed yet (options.now is unassigned)
+     */
+    @Nullable
+    public static String frameKey(@NonNull WorldMapTask.WorldMapProjection projection, int w, int h, @NonNull WorldMapTask.WorldMapOptions options)
+    {
+        if (options.now < 0) {
+            return null;
+        }
+        return projection.getClass().getName() + "_" + w + "x" + h + "_" + options.offsetMinutes + "_" + optionsHash(options);
+    }
+
+    /**
+     * @return a hash of the options that change the appearance of a frame (excludes offsetMinutes and animation settings)
+     */
+    public static int optionsHash(@NonNull WorldMapTask.WorldMapOptions options)
+    {
+        Object[] values = new Object[] {
+                options.now, System.identityHashCode(options.map), System.identityHashCode(options.map_night),
+                options.backgroundColor, options.foregroundColor, options.hasTransparentBaseMap,
+                options.showGrid, options.gridXColor, options.gridYColor,
+                options.showMajorLatitudes, Arrays.hashCode(options.latitudeColors), Arrays.deepHashCode(options.latitudeLinePatterns), options.latitudeLineScale,
+                options.showSunPosition, options.sunFillColor, options.sunStrokeColor, options.sunScale, options.sunStrokeScale,
+                options.showSunShadow, options.sunShadowColor,
+                options.showMoonPosition, options.moonFillColor, options.moonStrokeColor, options.moonScale, options.moonStrokeScale,
+                options.showMoonLight, options.moonLightColor,
+                options.translateToLocation,
+                Arrays.deepHashCode(options.locations), options.locationFillColor, options.locationStrokeColor, options.locationScale
+        };
+        return Arrays.hashCode(values);
+    }
+
+    @Nullable
+    public Bitmap get(@Nullable String key) {
+        return (key != null ? frames.get(key) : null);
+    }
+
+    public void put(@Nullable String key, @Nullable Bitmap frame)
+    {
+        if (key != null && frame != null) {
+            frames.put(key, frame);
+        }
+    }
+
+    public boolean contains(@Nullable String key) {
+        return (key != null && frames.get(key) != null);
+    }
+
+    public int hitCount() {
+        return frames.hitCount();
+    }
+    public int missCount() {
+        return frames.missCount();
+    }
+
+    /**
+     * Renders (in the background) frames that follow offsetMinutes in the direction of stepMinutes.
+     * Prefetching is abandoned when the cache is cleared or another prefetch is started.
+     * @param projection the projection used by the view (calls to makeBitmap are synchronized on the projection)
+     * @param options map options (copied)
+     * @param stepMinutes minutes between frames; negative values prefetch backward
+     * @param numFrames number of frames to prefetch
+     */
+    public void prefetch(@NonNull final SuntimesRiseSetDataset data, final int w, final int h, @NonNull final WorldMapTask.WorldMapProjection projection,
+                         @NonNull WorldMapTask.WorldMapOptions options, final long stepMinutes, final int numFrames)
+    {
+        if (stepMinutes == 0 || numFrames <= 0 || options.now < 0) {
+            return;
+        }
+
+        final int generation = ++prefetchGeneration;
+        final WorldMapTask.WorldMapOptions prefetchOptions = options.copy();
+        prefetchExecutor().execute(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                long offset = prefetchOptions.offsetMinutes;
+                for (int i = 0; i < numFrames && generation == prefetchGeneration; i++)
+                {
+                    offset += stepMinutes;
+                    prefetchOptions.offsetMinutes = offset;
+                    String key = frameKey(projection, w, h, prefetchOptions);
+                    if (!contains(key))
+                    {
+                        Bitmap frame;
+                        synchronized (projection) {
+                            frame = projection.makeBitmap(data, w, h, prefetchOptions);
+                        }
+                        if (generation == prefetchGeneration) {
+                            put(key, frame);
+                        }
+                    }
+                }
+                Log.d(WorldMapView.LOGTAG, "prefetch :: " + numFrames + " frames; hits: " + hitCount() + ", misses: " + missCount());
+            }
+        });
+    }
+
+    public void cancelPrefetch() {
+        prefetchGeneration++;
+    }
+
+    private volatile int prefetchGeneration = 0;
+
+    private static ExecutorService prefetchExecutor = null;
+    private static synchronized ExecutorService prefetchExecutor()
+    {
+        if (prefetchExecutor == null)
+        {
+            prefetchExecutor = Executors.newSingleThreadExecutor(new ThreadFactory()
+            {
+                @Override
+                public Thread newThread(@NonNull Runnable r)
+                {
+                    Thread thread = new Thread(r, "WorldMapPrefetch");
+                    thread.setDaemon(true);
+                    thread.setPriority(Thread.MIN_PRIORITY);
+                    return thread;
+                }
+            });
+        }
+        return prefetchExecutor;
+    }
+}
@@ -0,0 +1,168 @@
+/**
+    Copyright (C) 2020 Forrest Guice
+    This file is part of SuntimesWidget.
+
+    SuntimesWidget is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    SuntimesWidget is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with SuntimesWidget.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package com.forrestguice.suntimeswidget.map;
+
+import android.content.Context;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.util.Log;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.util.HashMap;
+
+/**
+ * WorldMapGeometry
+ * A process-wide cache of projection matrices (unit vectors as floats), keyed by projection and
+ * matrix size. Matrices are built once per process; when a cache dir is set they are also written
+ * to (and read back from) that dir so later processes can skip building them.
+ */
+public class WorldMapGeometry
+{
+    public static final int VERSION = 1;    // increment when the matrix layout (or a projection) changes
+    public static final String FILE_PREFIX = "worldmap_matrix_";
+
+    private static final HashMap<String, float[]> matrices = new HashMap<>();
+    private static File cacheDir = null;
+
+    /**
+     * @param context a context used to access the cache dir (matrices are persisted there)
+     */
+    public static synchronized void initCacheDir(@Nullable Context context)
+    {
+        if (context != null && cacheDir == null) {
+            cacheDir = context.getCacheDir();
+        }
+    }
+
+    public static String matrixKey(String projectionID, int[] size) {
+        return projectionID + "_" + size[0] + "x" + size[1] + "_" + VERSION;
+    }
+
+    /**
+     * @param projectionID an id unique to the projection
+     * @param projection the projection (used to build the matrix if it isn't cached)
+     * @return a flattened matrix [lon][lat][v(3)]
+     */
+    public static synchronized float[] getMatrix(@NonNull String projectionID, @NonNull WorldMapTask.WorldMapProjection projection)
+    {
+        int[] size = projection.matrixSize();
+        String key = matrixKey(projectionID, size);
+        float[] matrix = matrices.get(key);
+        if (matrix == null)
+        {
+            int length = size[0] * size[1] * 3;
+            File file = (cacheDir != null ? new File(cacheDir, FILE_PREFIX + key) : null);
+            matrix = readMatrix(file, length);
+            if (matrix == null)
+            {
+                matrix = projection.initMatrix();
+                writeMatrix(file, matrix);
+            }
+            matrices.put(key, matrix);
+        }
+        return matrix;
+    }
+
+    public static synchronized void clearMatrices() {
+        matrices.clear();
+    }
+
+    @Nullable
+    private static float[] readMatrix(@Nullable File file, int length)
+    {
+        if (file == null || !file.exists() || file.length() != (length * 4L)) {
+            return null;
+        }
+
+        long bench_start = System.nanoTime();
+        FileInputStream in = null;
+        try {
+            in = new FileInputStream(file);
+            FileChannel channel = in.getChannel();
+            ByteBuffer buffer = ByteBuffer.allocate(length * 4).order(ByteOrder.nativeOrder());
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer) < 0) {
+                    return null;
+                }
+            }
+            buffer.flip();
+
+            float[] matrix = new float[length];
+            buffer.asFloatBuffer().get(matrix);
+
+            long bench_end = System.nanoTime();
+            Log.d(WorldMapView.LOGTAG, "readMatrix :: " + ((bench_end - bench_start) / 1000000.0) + " ms; " + file.getName());
+            return matrix;
+
+        } catch (IOException e) {
+            Log.w(WorldMapView.LOGTAG, "readMatrix: failed to read " + file + "; " + e);
+            return null;
+
+        } finally {
+            close(in);
+        }
+    }
+
+    private static void writeMatrix(@Nullable File file, float[] matrix)
+    {
+        if (file == null) {
+            return;
+        }
+
+        FileOutputStream out = null;
+        try {
+            ByteBuffer buffer = ByteBuffer.allocate(matrix.length * 4).order(ByteOrder.nativeOrder());
+            buffer.asFloatBuffer().put(matrix);
+
+            out = new FileOutputStream(file);
+            FileChannel channel = out.getChannel();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+
+        } catch (IOException e) {
+            Log.w(WorldMapView.LOGTAG, "writeMatrix: failed to write " + file + "; " + e);
+            if (!file.delete()) {
+                Log.w(WorldMapView.LOGTAG, "writeMatrix: failed to delete " + file);
+            }
+
+        } finally {
+            close(out);
+        }
+    }
+
+    private static void close(@Nullable Closeable stream)
+    {
+        if (stream != null)
+        {
+            try {
+                stream.close();
+            } catch (IOException e) {
+                Log.w(WorldMapView.LOGTAG, "failed to close stream; " + e);
+            }
+        }
+    }
+}
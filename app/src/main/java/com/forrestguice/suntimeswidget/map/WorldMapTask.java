@@ -95,7 +95,26 @@ public class WorldMapTask extends AsyncTask<Object, Bitmap, Bitmap>
             if (isCancelled()) {
                 break;
             }
-            frame = makeBitmap(data, w, h, options);
+
+            frame = (frameCache != null ? frameCache.get(WorldMapFrameCache.frameKey(projection, w, h, options)) : null);
+            if (frame == null)
+            {
+                if (previewEnabled && numFrames == 1)
+                {
+                    preview = makeBitmap(data, Math.max(1, w / WorldMapFrameCache.PREVIEW_SCALE), Math.max(1, h / WorldMapFrameCache.PREVIEW_SCALE), options);
+                    if (preview != null) {
+                        publishProgress(preview);    // low-res preview while the full frame renders
+                    }
+                }
+
+                frame = makeBitmap(data, w, h, options);
+                if (frame == null && isCancelled()) {
+                    break;    // interrupted while rendering
+                }
+                if (frameCache != null) {
+                    frameCache.put(WorldMapFrameCache.frameKey(projection, w, h, options), frame);    // options.now is assigned after the first frame
+                }
+            }
 
             long time1 = System.nanoTime();
             while ((time1 - time0) < frameDuration) {
@@ -116,7 +135,9 @@ public class WorldMapTask extends AsyncTask<Object, Bitmap, Bitmap>
 
     public Bitmap makeBitmap(SuntimesRiseSetDataset data, int w, int h, WorldMapOptions options)
     {
-        return projection.makeBitmap(data, w, h, options);
+        synchronized (projection) {    // the projection (and its buffers) may be shared with WorldMapFrameCache.prefetch
+            return projection.makeBitmap(data, w, h, options);
+        }
     }
 
     @Override
@@ -132,8 +153,11 @@ public class WorldMapTask extends AsyncTask<Object, Bitmap, Bitmap>
     {
         if (listener != null)
         {
-            for (int i=0; i<frames.length; i++) {
-                listener.onFrame(frames[i], options.offsetMinutes);
+            for (int i=0; i<frames.length; i++)
+            {
+                if (frames[i] == preview) {
+                    listener.onPreview(frames[i], options.offsetMinutes);
+                } else listener.onFrame(frames[i], options.offsetMinutes);
             }
         }
     }
@@ -156,10 +180,21 @@ public class WorldMapTask extends AsyncTask<Object, Bitmap, Bitmap>
         this.listener = listener;
     }
 
+    private WorldMapFrameCache frameCache = null;
+    public void setFrameCache( WorldMapFrameCache cache ) {
+        frameCache = cache;
+    }
+
+    private boolean previewEnabled = false;
+    private volatile Bitmap preview = null;
+    public void setPreviewEnabled( boolean value ) {
+        previewEnabled = value;
+    }
+
     /**
      * WorldMapOptions
      */
-    public static class WorldMapOptions
+    public static class WorldMapOptions implements Cloneable
     {
         public boolean modified = false;
 
@@ -208,6 +243,18 @@ public class WorldMapTask extends AsyncTask<Object, Bitmap, Bitmap>
 
         public int anim_frameLengthMs = 100;         // frames shown for 100 ms
         public int anim_frameOffsetMinutes = 3;      // each frame 3 minutes apart
+
+        /**
+         * @return a shallow copy of these options (drawables and arrays are shared)
+         */
+        public WorldMapOptions copy()
+        {
+            try {
+                return (WorldMapOptions) clone();
+            } catch (CloneNotSupportedException e) {
+                throw new AssertionError(e);    // unreachable; WorldMapOptions is Cloneable
+            }
+        }
     }
 
     /**
@@ -215,13 +262,22 @@ public class WorldMapTask extends AsyncTask<Object, Bitmap, Bitmap>
      */
     public static abstract class WorldMapProjection
     {
+        protected volatile boolean paintInitialized = false;
+
+        /**
+         * Paints are recreated from the options passed to the next call to makeBitmap.
+         */
+        public void invalidatePaint() {
+            paintInitialized = false;
+        }
+
         /**
          * algorithm described at https://gis.stackexchange.com/questions/17184/method-to-shade-or-overlay-a-raster-map-to-reflect-time-of-day-and-ambient-light
          */
         public abstract Bitmap makeBitmap(SuntimesRiseSetDataset data, int w, int h, WorldMapTask.WorldMapOptions options);
         public abstract void initPaint(WorldMapTask.WorldMapOptions options);
-        public abstract double[] initMatrix();            // creates flattened multi-dimensional array; [lon][lat][v(3)]
-        public abstract double[] getMatrix();
+        public abstract float[] initMatrix();             // creates flattened multi-dimensional array; [lon][lat][v(3)]
+        public abstract float[] getMatrix();              // @see WorldMapGeometry
         public abstract int[] matrixSize();               // [width(lon), height(lat)]
         protected abstract int k(int x, int y, int z);    // returns index into flattened array
         public abstract int[] toBitmapCoords(int w, int h, double[] mid, double lat, double lon);
@@ -397,6 +453,7 @@ public class WorldMapTask extends AsyncTask<Object, Bitmap, Bitmap>
     {
         public void onStarted() {}
         public void onFrame(Bitmap frame, long offsetMinutes ) {}
+        public void onPreview(Bitmap preview, long offsetMinutes ) {}
         public void afterFrame(Bitmap frame, long offsetMinutes ) {}
         public void onFinished( Bitmap result ) {}
     }
@@ -55,6 +55,7 @@ public class WorldMapView extends android.support.v7.widget.AppCompatImageView
     private WorldMapTask drawTask;
     private WorldMapTask.WorldMapOptions options = new WorldMapTask.WorldMapOptions();
     private WorldMapWidgetSettings.WorldMapWidgetMode mode = WorldMapWidgetSettings.WorldMapWidgetMode.EQUIRECTANGULAR_SIMPLE;
+    private WorldMapTask.WorldMapProjection projection = null;    // one instance per mode; shared by the draw task and prefetching
 
     private SuntimesRiseSetDataset data = null;
     private long lastUpdate = 0;
@@ -98,6 +99,7 @@ public class WorldMapView extends android.support.v7.widget.AppCompatImageView
             setBackgroundColor(Color.WHITE);
             setImageBitmap(Bitmap.createBitmap(256, 256, Bitmap.Config.ARGB_8888));
         }
+        WorldMapGeometry.initCacheDir(context);
         setMapMode(context, mode);
         themeViews(context);
     }
@@ -110,6 +112,9 @@ public class WorldMapView extends android.support.v7.widget.AppCompatImageView
     @SuppressLint("ResourceType")
     public void setMapMode(Context context, WorldMapWidgetSettings.WorldMapWidgetMode mode )
     {
+        if (projection == null || this.mode != mode) {
+            projection = createProjection(mode);    // kept (with its buffers) until the mode changes
+        } else projection.invalidatePaint();
         this.mode = mode;
         switch (mode)
         {
@@ -152,6 +157,7 @@ public class WorldMapView extends android.support.v7.widget.AppCompatImageView
     public void setOptions( WorldMapTask.WorldMapOptions options )
     {
         this.options = options;
+        projection.invalidatePaint();
     }
 
     public int getMaxUpdateRate()
@@ -285,6 +291,8 @@ public class WorldMapView extends android.support.v7.widget.AppCompatImageView
     {
         boolean sameData = (this.data == data);
         this.data = data;
+        frameCache.setData(data);
+        frameCache.cancelPrefetch();
 
         boolean wasCancelled = false;
         if (drawTask != null && drawTask.getStatus() == AsyncTask.Status.RUNNING)
@@ -296,13 +304,14 @@ public class WorldMapView extends android.support.v7.widget.AppCompatImageView
 
         int w = getWidth();
         int h = getHeight();
-        WorldMapTask.WorldMapProjection projection;
+        if (options.modified) {
+            projection.invalidatePaint();
+        }
         switch (mode)
         {
             case EQUIAZIMUTHAL_SIMPLE:
             case EQUIAZIMUTHAL_SIMPLE1:
                 Log.d("DEBUG", "matchHeight: " + matchHeight);
-                projection = (mode == WorldMapWidgetSettings.WorldMapWidgetMode.EQUIAZIMUTHAL_SIMPLE1 ? new WorldMapEquiazimuthal1() : new WorldMapEquiazimuthal());
                 if (w > 0)
                 {
                     if (h > 0)
@@ -327,7 +336,6 @@ public class WorldMapView extends android.support.v7.widget.AppCompatImageView
             case EQUIRECTANGULAR_BLUEMARBLE:
             case EQUIRECTANGULAR_SIMPLE:
             default:
-                projection = new WorldMapEquirectangular();
                 w = getWidth();
                 h = (int)(w * ((double)options.map.getIntrinsicHeight() / (double)options.map.getIntrinsicWidth()));
                 break;
@@ -348,6 +356,9 @@ public class WorldMapView extends android.support.v7.widget.AppCompatImageView
 
             drawTask = new WorldMapTask();
             drawTask.setListener(drawListener);
+            drawTask.setFrameCache(frameCache);
+            drawTask.setPreviewEnabled(seeking);
+            seeking = false;
 
             Log.w(LOGTAG, "updateViews: " + w + ", " + h );
             drawTask.execute(data, w, h, options, projection, (animated ? 0 : 1), options.offsetMinutes);
@@ -356,6 +367,37 @@ public class WorldMapView extends android.support.v7.widget.AppCompatImageView
         }
     }
 
+    /**
+     * @return a new projection instance for the given map mode
+     */
+    protected WorldMapTask.WorldMapProjection createProjection(WorldMapWidgetSettings.WorldMapWidgetMode mode)
+    {
+        switch (mode)
+        {
+            case EQUIAZIMUTHAL_SIMPLE1: return new WorldMapEquiazimuthal1();
+            case EQUIAZIMUTHAL_SIMPLE: return new WorldMapEquiazimuthal();
+            case EQUIRECTANGULAR_BLUEMARBLE:
+            case EQUIRECTANGULAR_SIMPLE:
+            default: return new WorldMapEquirectangular();
+        }
+    }
+
+    private final WorldMapFrameCache frameCache = new WorldMapFrameCache();
+    private boolean seeking = false;
+    private long seekStepMinutes = 0;
+
+    /**
+     * Prefetches frames that follow the current frame (in the direction of the last seek).
+     */
+    protected void prefetchFrames()
+    {
+        if (animated || data == null || mapW <= 0 || mapH <= 0) {
+            return;
+        }
+        long stepMinutes = (seekStepMinutes != 0 ? seekStepMinutes : options.anim_frameOffsetMinutes);
+        frameCache.prefetch(data, mapW, mapH, projection, options, stepMinutes, WorldMapFrameCache.DEFAULT_PREFETCH_FRAMES);
+    }
+
     private WorldMapTask.WorldMapTaskListener drawListener = new WorldMapTask.WorldMapTaskListener()
     {
         @Override
@@ -378,6 +420,12 @@ public class WorldMapView extends android.support.v7.widget.AppCompatImageView
             }
         }
 
+        @Override
+        public void onPreview(Bitmap preview, long offsetMinutes)
+        {
+            setImageBitmap(preview);
+        }
+
         @Override
         public void afterFrame(Bitmap frame, long offsetMinutes)
         {
@@ -399,6 +447,7 @@ public class WorldMapView extends android.support.v7.widget.AppCompatImageView
             if (exportTask != null && !drawTask.isCancelled()) {
                 exportTask.setWaitForFrames(false);
             }
+            prefetchFrames();
         }
     };
 
@@ -576,6 +625,7 @@ public class WorldMapView extends android.support.v7.widget.AppCompatImageView
     {
         super.onDetachedFromWindow();
         dismissProgress();
+        frameCache.cancelPrefetch();
         if (drawTask != null) {
             drawTask.cancel(true);
         }
@@ -622,6 +672,10 @@ public class WorldMapView extends android.support.v7.widget.AppCompatImageView
 
     public void setOffsetMinutes( long offsetMinutes )
     {
+        if (offsetMinutes != options.offsetMinutes) {
+            seekStepMinutes = offsetMinutes - options.offsetMinutes;
+        }
+        seeking = !animated;
         options.offsetMinutes = offsetMinutes;
         updateViews(true);
     }
@@ -25,4 +25,13 @@ public abstract class NoteChangedListener
     public static final int TRANSITION_PREV = 2;
 
     public abstract void onNoteChanged( NoteData note, int transition );
+
+    /**
+     * Called when only the countdown (timeText and prefixText) of the current note has changed.
+     * @param note the current note
+     */
+    public void onNoteTimeChanged( NoteData note )
+    {
+        onNoteChanged(note, TRANSITION_NONE);
+    }
 }
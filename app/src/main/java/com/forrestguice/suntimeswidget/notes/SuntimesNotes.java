@@ -35,6 +35,7 @@ import com.forrestguice.suntimeswidget.settings.WidgetSettings;
 import com.forrestguice.suntimeswidget.themes.SuntimesTheme;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Calendar;
 import java.util.Collections;
 import java.util.Comparator;
@@ -50,6 +51,10 @@ public class SuntimesNotes
     private int noteIndex = 0;
     private NoteChangedListener changedListener;
     private NoteData currentNote = null;
+    private SolarEvents choice = null;                // the chosen note (TimeNoteRise pref)
+
+    private long[] transitions = new long[0];         // event times of all notes (ascending); notes change when these are reached
+    private long nextTransition = Long.MIN_VALUE;     // the current note is recomputed at this time (only its countdown before then)
 
     private Context context;
     private SuntimesRiseSetDataset dataset;
@@ -159,9 +164,55 @@ public class SuntimesNotes
             notesList.add(note);
         }
 
+        choice = WidgetSettings.loadTimeNoteRisePref(context, AppWidgetManager.INVALID_APPWIDGET_ID);
+        initTransitions();
         updateNotes(dataset.now());
     }
 
+    /**
+     * Collects the event times of all notes (in order); these are the only times a note's event (and so the
+     * chosen note) can change.
+     */
+    private void initTransitions()
+    {
+        ArrayList<Long> times = new ArrayList<>();
+        for (NoteData note : notesList)
+        {
+            Calendar[] dates = getEventDates(note.noteMode);
+            if (dates != null)
+            {
+                for (Calendar date : dates) {
+                    if (date != null) {
+                        times.add(date.getTimeInMillis());
+                    }
+                }
+            }
+        }
+
+        transitions = new long[times.size()];
+        for (int i=0; i<transitions.length; i++) {
+            transitions[i] = times.get(i);
+        }
+        Arrays.sort(transitions);
+        nextTransition = Long.MIN_VALUE;
+    }
+
+    /**
+     * @param time some time (millis)
+     * @return the first transition at or after time (or Long.MAX_VALUE if there are none)
+     */
+    protected long nextTransition(long time)
+    {
+        int i = Arrays.binarySearch(transitions, time);
+        if (i < 0) {
+            i = -(i + 1);
+        }
+        while (i > 0 && transitions[i - 1] == time) {
+            i--;
+        }
+        return (i < transitions.length ? transitions[i] : Long.MAX_VALUE);
+    }
+
     public boolean isInitialized()
     {
         return (context != null);
@@ -188,8 +239,8 @@ public class SuntimesNotes
             this.noteIndex = noteIndex;
             NoteData note = notesList.get(noteIndex);
             updateNote(note, dataset.now());
+            saveChoice(note.noteMode);
             setNote(note, NoteChangedListener.TRANSITION_NEXT);
-            WidgetSettings.saveTimeNoteRisePref(context, 0, note.noteMode);
             return true;
         }
         return false;
@@ -231,15 +282,13 @@ public class SuntimesNotes
 
         if (dataset.isCalculated())
         {
-            SolarEvents currentNoteMode = WidgetSettings.loadTimeNoteRisePref(context, 0);
-            int currentNote = getNoteIndex(currentNoteMode);
+            int currentNote = getNoteIndex(getChoice());
 
             int nextNote = 0;
             if (currentNote < notesList.size() - 1)
                 nextNote = currentNote + 1;
 
-            SolarEvents nextNoteMode = notesList.get(nextNote).noteMode;
-            WidgetSettings.saveTimeNoteRisePref(context, AppWidgetManager.INVALID_APPWIDGET_ID, nextNoteMode);
+            saveChoice(notesList.get(nextNote).noteMode);
 
             //Log.d("showNextNote", "... current = " + currentNote + ", next = " + nextNote + ", mode = " + nextNoteMode.name());
             updateNote(context, dataset.now(), NoteChangedListener.TRANSITION_NEXT);
@@ -262,8 +311,7 @@ public class SuntimesNotes
 
         if (dataset.isCalculated())
         {
-            SolarEvents currentNoteMode = WidgetSettings.loadTimeNoteRisePref(context, AppWidgetManager.INVALID_APPWIDGET_ID);
-            int currentNote = getNoteIndex(currentNoteMode);
+            int currentNote = getNoteIndex(getChoice());
 
             int prevNote = notesList.size() - 1;
             if (currentNote > 0)
@@ -271,8 +319,7 @@ public class SuntimesNotes
                 prevNote = currentNote - 1;
             }
 
-            SolarEvents prevNoteMode = notesList.get(prevNote).noteMode;
-            WidgetSettings.saveTimeNoteRisePref(context, AppWidgetManager.INVALID_APPWIDGET_ID, prevNoteMode);
+            saveChoice(notesList.get(prevNote).noteMode);
             updateNote(context, dataset.now(), NoteChangedListener.TRANSITION_PREV);
             return true;
 
@@ -521,20 +568,70 @@ public class SuntimesNotes
      * @param now the time to update the note against
      */
     private void updateNote(NoteData note, Calendar now)
+    {
+        Calendar[] dates = getEventDates(note.noteMode);
+        if (dates == null) {
+            return;
+        }
+        Calendar date = dates[0];
+        Calendar dateOther = dates[1];
+
+        Date eventTime = null;
+        Date time = now.getTime();
+
+        boolean afterToday = (date == null || time.after(date.getTime()));
+        if (afterToday)
+        {
+            if (dateOther != null)
+            {
+                eventTime = dateOther.getTime();
+            }
+        } else {
+            eventTime = date.getTime();
+        }
+
+        note.tomorrow = afterToday;
+        note.timeText = utils.timeDeltaDisplayString(time, eventTime);
+        note.prefixText = prefixString(note.noteMode, (note.timeText.getRawValue() < 0));
+        note.time = eventTime;
+    }
+
+    /**
+     * Update the countdown of a note (its time and prefix text) without reconsidering its event.
+     * @param note the note object to be updated
+     * @param now the time to update the note against
+     * @return true if the countdown text has changed
+     */
+    private boolean updateNoteTime(NoteData note, Calendar now)
+    {
+        SuntimesUtils.TimeDisplayText timeText = utils.timeDeltaDisplayString(now.getTime(), note.time);
+        if (note.timeText != null && note.timeText.toString().equals(timeText.toString())) {
+            return false;
+        }
+        note.timeText = timeText;
+        note.prefixText = prefixString(note.noteMode, (timeText.getRawValue() < 0));
+        return true;
+    }
+
+    /**
+     * @param noteMode the note's event
+     * @return [today, other] event dates (either may be null), or null if the data isn't available
+     */
+    private Calendar[] getEventDates(SolarEvents noteMode)
     {
         Calendar date, dateOther;
-        switch (note.noteMode)
+        switch (noteMode)
         {
             case MOONRISE:
                 if (moondata == null) {
-                    return;
+                    return null;
                 }
                 date = moondata.moonriseCalendarToday();
                 dateOther = moondata.moonriseCalendarTomorrow();
                 break;
             case MOONSET:
                 if (moondata == null) {
-                    return;
+                    return null;
                 }
                 date = moondata.moonsetCalendarToday();
                 dateOther = moondata.moonsetCalendarTomorrow();
@@ -542,14 +639,14 @@ public class SuntimesNotes
 
             case MOONNOON:
                 if (moondata == null) {
-                    return;
+                    return null;
                 }
                 date = moondata.getLunarNoonToday();
                 dateOther = moondata.getLunarNoonTomorrow();
                 break;
             case MOONNIGHT:
                 if (moondata == null) {
-                    return;
+                    return null;
                 }
                 date = moondata.getLunarMidnightToday();
                 dateOther = moondata.getLunarMidnightTomorrow();
@@ -619,25 +716,7 @@ public class SuntimesNotes
                 dateOther = dataset.dataAstro.sunsetCalendarOther();
                 break;
         }
-
-        Date eventTime = null;
-        Date time = now.getTime();
-
-        boolean afterToday = (date == null || time.after(date.getTime()));
-        if (afterToday)
-        {
-            if (dateOther != null)
-            {
-                eventTime = dateOther.getTime();
-            }
-        } else {
-            eventTime = date.getTime();
-        }
-
-        note.tomorrow = afterToday;
-        note.timeText = utils.timeDeltaDisplayString(time, eventTime);
-        note.prefixText = prefixString(note.noteMode, (note.timeText.getRawValue() < 0));
-        note.time = eventTime;
+        return new Calendar[] { date, dateOther };
     }
 
     public void resetNoteIndex()
@@ -652,6 +731,7 @@ public class SuntimesNotes
         NoteData nearestNote = notesList.get(0);
         for (NoteData note : notesList)
         {
+            updateNote(note, now);
             if (note.time != null)
             {
                 long timeUntil = note.time.getTime() - time.getTime();
@@ -664,7 +744,24 @@ public class SuntimesNotes
         }
 
         //Log.d("DEBUG", "note reset to " + nearestNote.noteMode);
-        WidgetSettings.saveTimeNoteRisePref(context, 0, nearestNote.noteMode);
+        saveChoice(nearestNote.noteMode);
+    }
+
+    /**
+     * @return the chosen note (TimeNoteRise pref)
+     */
+    public SolarEvents getChoice()
+    {
+        if (choice == null) {
+            choice = WidgetSettings.loadTimeNoteRisePref(context, AppWidgetManager.INVALID_APPWIDGET_ID);
+        }
+        return choice;
+    }
+
+    private void saveChoice(SolarEvents event)
+    {
+        choice = event;
+        WidgetSettings.saveTimeNoteRisePref(context, AppWidgetManager.INVALID_APPWIDGET_ID, event);
     }
 
 
@@ -678,23 +775,43 @@ public class SuntimesNotes
         updateNote(context, now, NoteChangedListener.TRANSITION_NONE);
     }
 
+    /**
+     * Update the current note with respect to given time 'now'. The note is only reconsidered when the choice changes
+     * or a transition is reached (see initTransitions); otherwise only its countdown is updated.
+     */
     public void updateNote(Context context, Calendar now, int transition)
     {
-        SolarEvents choice = WidgetSettings.loadTimeNoteRisePref(context, AppWidgetManager.INVALID_APPWIDGET_ID);
-        NoteData chosenNote = getNote(choice);
+        SolarEvents choice = getChoice();
+        long time = now.getTimeInMillis();
+        if (currentNote != null && currentNote.noteMode == choice && time < nextTransition)
+        {
+            if (updateNoteTime(currentNote, now)) {
+                changedListener.onNoteTimeChanged(currentNote);
+            }
+            return;
+        }
 
+        NoteData chosenNote = getNote(choice);
         if (chosenNote != null)
         {
             NoteData updatedNote = new NoteData(chosenNote);
             updateNote(updatedNote, now);
+            nextTransition = nextTransition(time);
 
-            if (currentNote == null || !currentNote.equals(updatedNote)) {
+            if (currentNote == null || currentNote.noteMode != updatedNote.noteMode || !sameTime(currentNote.time, updatedNote.time)) {
                 //Log.d("updateNote", "changing the note to " + updatedNote.toString() + "[" + choice + "]");
                 setNote(updatedNote, NoteChangedListener.TRANSITION_NEXT);
+
+            } else if (updateNoteTime(currentNote, now)) {
+                changedListener.onNoteTimeChanged(currentNote);
             }
         }
     }
 
+    private static boolean sameTime(Date time0, Date time1) {
+        return (time0 == null ? time1 == null : time0.equals(time1));
+    }
+
     public NoteData getNote(SolarEvents event)
     {
         int i = getNoteIndex(event);
@@ -717,6 +834,7 @@ public class SuntimesNotes
     public void setNote(NoteData note, int transition)
     {
         currentNote = note;
+        nextTransition = (dataset != null ? nextTransition(dataset.now().getTimeInMillis()) : Long.MIN_VALUE);
         changedListener.onNoteChanged(currentNote, transition);
     }
 }
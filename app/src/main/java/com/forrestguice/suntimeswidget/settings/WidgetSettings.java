@@ -49,6 +49,7 @@ import com.forrestguice.suntimeswidget.themes.defaults.DarkTheme;
 import com.forrestguice.suntimeswidget.themes.SuntimesTheme;
 
 import java.util.Calendar;
+import java.util.HashMap;
 import java.util.Locale;
 
 /**
@@ -1063,6 +1064,7 @@ public class WidgetSettings
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_GENERAL;
         prefs.putString(prefs_prefix + PREF_KEY_GENERAL_RISESETORDER, mode.name());
         prefs.apply();
+        invalidateSnapshot(appWidgetId);
     }
     public static RiseSetOrder loadRiseSetOrderPref(Context context, int appWidgetId)
     {
@@ -1087,6 +1089,7 @@ public class WidgetSettings
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_GENERAL;
         prefs.remove(prefs_prefix + PREF_KEY_GENERAL_RISESETORDER);
         prefs.apply();
+        invalidateSnapshot(appWidgetId);
     }
 
     ///////////////////////////////////////////////////////////////////////////////////////////////
@@ -1356,6 +1359,7 @@ public class WidgetSettings
         String key = keyCalculatorModePref(appWidgetId, calculatorName);
         prefs.putString(key, mode.getName());
         prefs.apply();
+        invalidateSnapshot(appWidgetId);
     }
 
     public static String defaultCalculatorModePref(Context context, int appWidgetId, @NonNull String calculatorName)
@@ -1416,6 +1420,7 @@ public class WidgetSettings
         String key = keyCalculatorModePref(appWidgetId, calculatorName);
         prefs.remove(key);
         prefs.apply();
+        invalidateSnapshot(appWidgetId);
     }
 
     ///////////////////////////////////////////////////////////////////////////////////////////////
@@ -1509,6 +1514,7 @@ public class WidgetSettings
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_GENERAL;
         prefs.putString(prefs_prefix + PREF_KEY_GENERAL_TIMEMODE, mode.name());
         prefs.apply();
+        invalidateSnapshot(appWidgetId);
     }
     public static WidgetSettings.TimeMode loadTimeModePref(Context context, int appWidgetId)
     {
@@ -1532,6 +1538,7 @@ public class WidgetSettings
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_GENERAL;
         prefs.remove(prefs_prefix + PREF_KEY_GENERAL_TIMEMODE);
         prefs.apply();
+        invalidateSnapshot(appWidgetId);
     }
 
     ///////////////////////////////////////////////////////////////////////////////////////////////
@@ -1567,6 +1574,7 @@ public class WidgetSettings
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_GENERAL;
         prefs.putString(prefs_prefix + PREF_KEY_GENERAL_TIMEMODE2, mode.name());
         prefs.apply();
+        invalidateSnapshot(appWidgetId);
     }
     public static WidgetSettings.SolsticeEquinoxMode loadTimeMode2Pref(Context context, int appWidgetId)
     {
@@ -1590,6 +1598,7 @@ public class WidgetSettings
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_GENERAL;
         prefs.remove(prefs_prefix + PREF_KEY_GENERAL_TIMEMODE2);
         prefs.apply();
+        invalidateSnapshot(appWidgetId);
     }
 
     ///////////////////////////////////////////////////////////////////////////////////////////////
@@ -1635,6 +1644,7 @@ public class WidgetSettings
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_GENERAL;
         prefs.putString(prefs_prefix + PREF_KEY_TIMEZONE_SOLARMODE, mode.name());
         prefs.apply();
+        invalidateSnapshot(appWidgetId);
     }
     public static WidgetSettings.SolarTimeMode loadSolarTimeModePref(Context context, int appWidgetId)
     {
@@ -1658,6 +1668,7 @@ public class WidgetSettings
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_GENERAL;
         prefs.remove(prefs_prefix + PREF_KEY_TIMEZONE_SOLARMODE);
         prefs.apply();
+        invalidateSnapshot(appWidgetId);
     }
 
     ///////////////////////////////////////////////////////////////////////////////////////////////
@@ -1741,6 +1752,7 @@ public class WidgetSettings
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_LOCATION;
         prefs.putString(prefs_prefix + PREF_KEY_LOCATION_MODE, mode.name());
         prefs.apply();
+        invalidateSnapshot(appWidgetId);
     }
     public static WidgetSettings.LocationMode loadLocationModePref(Context context, int appWidgetId)
     {
@@ -1764,6 +1776,7 @@ public class WidgetSettings
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_LOCATION;
         prefs.remove(prefs_prefix + PREF_KEY_LOCATION_MODE);
         prefs.apply();
+        invalidateSnapshot(appWidgetId);
     }
 
     ///////////////////////////////////////////////////////////////////////////////////////////////
@@ -1775,6 +1788,7 @@ public class WidgetSettings
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_DATE;
         prefs.putString(prefs_prefix + PREF_KEY_DATE_MODE, mode.name());
         prefs.apply();
+        invalidateSnapshot(appWidgetId);
     }
     public static WidgetSettings.DateMode loadDateModePref(Context context, int appWidgetId)
     {
@@ -1798,6 +1812,7 @@ public class WidgetSettings
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_DATE;
         prefs.remove(prefs_prefix + PREF_KEY_DATE_MODE);
         prefs.apply();
+        invalidateSnapshot(appWidgetId);
     }
 
     public static void saveDatePref(Context context, int appWidgetId, DateInfo info )
@@ -1808,6 +1823,7 @@ public class WidgetSettings
         prefs.putInt(prefs_prefix + PREF_KEY_DATE_MONTH, info.getMonth());
         prefs.putInt(prefs_prefix + PREF_KEY_DATE_DAY, info.getDay());
         prefs.apply();
+        invalidateSnapshot(appWidgetId);
     }
     public static WidgetSettings.DateInfo loadDatePref(Context context, int appWidgetId)
     {
@@ -1826,6 +1842,7 @@ public class WidgetSettings
         prefs.remove(prefs_prefix + PREF_KEY_DATE_MONTH);
         prefs.remove(prefs_prefix + PREF_KEY_DATE_DAY);
         prefs.apply();
+        invalidateSnapshot(appWidgetId);
     }
 
     ///////////////////////////////////////////////////////////////////////////////////////////////
@@ -1837,6 +1854,7 @@ public class WidgetSettings
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_TIMEZONE;
         prefs.putString(prefs_prefix + PREF_KEY_TIMEZONE_MODE, mode.name());
         prefs.apply();
+        invalidateSnapshot(appWidgetId);
     }
     public static WidgetSettings.TimezoneMode loadTimezoneModePref(Context context, int appWidgetId)
     {
@@ -1864,6 +1882,7 @@ public class WidgetSettings
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_TIMEZONE;
         prefs.remove(prefs_prefix + PREF_KEY_TIMEZONE_MODE);
         prefs.apply();
+        invalidateSnapshot(appWidgetId);
     }
 
     ///////////////////////////////////////////////////////////////////////////////////////////////
@@ -1878,6 +1897,7 @@ public class WidgetSettings
         prefs.putString(prefs_prefix + PREF_KEY_LOCATION_LATITUDE, location.getLatitude());
         prefs.putString(prefs_prefix + PREF_KEY_LOCATION_LABEL, location.getLabel());
         prefs.apply();
+        invalidateSnapshot(appWidgetId);
     }
     public static Location loadLocationPref(Context context, int appWidgetId)
     {
@@ -1919,6 +1939,7 @@ public class WidgetSettings
         prefs.remove(prefs_prefix + PREF_KEY_LOCATION_LATITUDE);
         prefs.remove(prefs_prefix + PREF_KEY_LOCATION_LABEL);
         prefs.apply();
+        invalidateSnapshot(appWidgetId);
     }
 
     ///////////////////////////////////////////////////////////////////////////////////////////////
@@ -1958,6 +1979,7 @@ public class WidgetSettings
         String key = keyTimezonePref(appWidgetId, slotName);
         prefs.putString(key, timezone);
         prefs.apply();
+        invalidateSnapshot(appWidgetId);
     }
 
     public static String loadTimezonePref(Context context, int appWidgetId) {
@@ -1980,6 +2002,7 @@ public class WidgetSettings
         String key = keyTimezonePref(appWidgetId, slotName);
         prefs.remove(key);
         prefs.apply();
+        invalidateSnapshot(appWidgetId);
     }
 
     public static String keyTimezonePref(int appWidgetId, @NonNull String slotName)
@@ -2055,6 +2078,7 @@ public class WidgetSettings
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_GENERAL;
         prefs.putString(prefs_prefix + PREF_KEY_GENERAL_COMPAREMODE, mode.name());
         prefs.apply();
+        invalidateSnapshot(appWidgetId);
     }
     public static WidgetSettings.CompareMode loadCompareModePref(Context context, int appWidgetId)
     {
@@ -2078,6 +2102,7 @@ public class WidgetSettings
         String prefs_prefix = PREF_PREFIX_KEY + appWidgetId + PREF_PREFIX_KEY_GENERAL;
         prefs.remove(prefs_prefix + PREF_KEY_GENERAL_COMPAREMODE);
         prefs.apply();
+        invalidateSnapshot(appWidgetId);
     }
 
     ///////////////////////////////////////////////////////////////////////////////////////////////
@@ -2413,6 +2438,7 @@ public class WidgetSettings
         PREF_DEF_GENERAL_UNITS_LENGTH = getLengthUnit(context.getString(R.string.default_units_length));
 
         WidgetActions.initDefaults(context);
+        invalidateSnapshots();
     }
 
     public static void initDisplayStrings( Context context )
@@ -2436,4 +2462,180 @@ public class WidgetSettings
 
         WidgetActions.initDisplayStrings(context);
     }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    private static final HashMap<Integer, Snapshot> snapshots = new HashMap<>();
+    private static SharedPreferences.OnSharedPreferenceChangeListener snapshotListener = null;    // strong ref (prefs only keep weak refs to listeners)
+
+    /**
+     * @param context a context used to access shared prefs
+     * @param appWidgetId the widgetID to load settings from (0 for app)
+     * @return the widget's settings; snapshots are kept until the settings they contain are saved or deleted
+     */
+    @NonNull
+    public static Snapshot loadSnapshot(Context context, int appWidgetId)
+    {
+        synchronized (snapshots)
+        {
+            if (snapshotListener == null)
+            {
+                snapshotListener = new SharedPreferences.OnSharedPreferenceChangeListener()
+                {
+                    @Override
+                    public void onSharedPreferenceChanged(SharedPreferences sharedPreferences, String key) {
+                        onSnapshotPrefChanged(key);
+                    }
+                };
+                context.getApplicationContext().getSharedPreferences(PREFS_WIDGET, 0).registerOnSharedPreferenceChangeListener(snapshotListener);
+            }
+
+            Snapshot snapshot = snapshots.get(appWidgetId);
+            if (snapshot == null) {
+                snapshots.put(appWidgetId, (snapshot = new Snapshot(context, appWidgetId)));
+            }
+            return snapshot;
+        }
+    }
+
+    public static void invalidateSnapshot(int appWidgetId)
+    {
+        synchronized (snapshots)
+        {
+            if (appWidgetId == 0) {
+                snapshots.clear();        // widgets fall back to app (0) settings
+            } else snapshots.remove(appWidgetId);
+        }
+    }
+
+    public static void invalidateSnapshots()
+    {
+        synchronized (snapshots) {
+            snapshots.clear();
+        }
+    }
+
+    /**
+     * A backstop for settings that are written without using the save/delete methods (which invalidate the affected
+     * snapshot themselves); invalidates the affected snapshot when one of its settings changes. Other keys (e.g. the
+     * next update time, which is saved by every widget update) are ignored. Only writes made by this process are seen,
+     * and writes from other threads are delivered later (on the main thread).
+     * @param key pref key (PREF_PREFIX_KEY + appWidgetId + ...)
+     */
+    protected static void onSnapshotPrefChanged(String key)
+    {
+        if (key == null || !key.startsWith(PREF_PREFIX_KEY)) {
+            return;
+        }
+        if (!key.contains(PREF_PREFIX_KEY_GENERAL) && !key.contains(PREF_PREFIX_KEY_LOCATION)
+                && !key.contains(PREF_PREFIX_KEY_TIMEZONE) && !key.contains(PREF_PREFIX_KEY_DATE)) {
+            return;
+        }
+
+        int start = PREF_PREFIX_KEY.length();
+        int end = key.indexOf('_', start);
+        try {
+            invalidateSnapshot(Integer.parseInt(key.substring(start, end)));
+
+        } catch (NumberFormatException | IndexOutOfBoundsException e) {
+            invalidateSnapshots();
+        }
+    }
+
+    /**
+     * Snapshot
+     * The settings used to initialize a widget's data (calculators, location, timezone, date, and modes), loaded once.
+     * Snapshots are immutable and shared; location() returns a copy. Use loadSnapshot.
+     */
+    public static final class Snapshot
+    {
+        private final int appWidgetId;
+        private final HashMap<String, SuntimesCalculatorDescriptor> calculators = new HashMap<>();
+        private final Location location;
+        private final LocationMode locationMode;
+        private final String timezone;
+        private final TimezoneMode timezoneMode;
+        private final SolarTimeMode solarTimeMode;
+        private final DateMode dateMode;
+        private final DateInfo date;
+        private final TimeMode timeMode;
+        private final SolsticeEquinoxMode timeMode2;
+        private final CompareMode compareMode;
+        private final RiseSetOrder riseSetOrder;
+
+        private Snapshot(Context context, int appWidgetId)
+        {
+            this.appWidgetId = appWidgetId;
+            for (String[] defaultCalculator : PREF_DEF_GENERAL_CALCULATORS)
+            {
+                if (defaultCalculator != null && defaultCalculator.length == 2) {
+                    calculators.put(defaultCalculator[0], loadCalculatorModePref(context, appWidgetId, defaultCalculator[0]));
+                }
+            }
+            location = loadLocationPref(context, appWidgetId);
+            locationMode = loadLocationModePref(context, appWidgetId);
+            timezone = loadTimezonePref(context, appWidgetId);
+            timezoneMode = loadTimezoneModePref(context, appWidgetId);
+            solarTimeMode = loadSolarTimeModePref(context, appWidgetId);
+            dateMode = loadDateModePref(context, appWidgetId);
+            date = loadDatePref(context, appWidgetId);
+            timeMode = loadTimeModePref(context, appWidgetId);
+            timeMode2 = loadTimeMode2Pref(context, appWidgetId);
+            compareMode = loadCompareModePref(context, appWidgetId);
+            riseSetOrder = loadRiseSetOrderPref(context, appWidgetId);
+        }
+
+        public int appWidgetId() {
+            return appWidgetId;
+        }
+
+        /**
+         * @param calculatorName calculator name ("" for the default, "moon", ...)
+         * @return true if the snapshot includes the named calculator (see PREF_DEF_GENERAL_CALCULATORS)
+         */
+        public boolean hasCalculatorMode(@NonNull String calculatorName) {
+            return calculators.containsKey(calculatorName);
+        }
+        public SuntimesCalculatorDescriptor calculatorMode(@NonNull String calculatorName) {
+            return calculators.get(calculatorName);
+        }
+
+        /**
+         * @return a copy of the location (callers may modify it, e.g. setUseAltitude)
+         */
+        public Location location() {
+            return new Location(location);
+        }
+        public LocationMode locationMode() {
+            return locationMode;
+        }
+        public String timezone() {
+            return timezone;
+        }
+        public TimezoneMode timezoneMode() {
+            return timezoneMode;
+        }
+        public SolarTimeMode solarTimeMode() {
+            return solarTimeMode;
+        }
+        public DateMode dateMode() {
+            return dateMode;
+        }
+        public DateInfo date() {
+            return date;
+        }
+        public TimeMode timeMode() {
+            return timeMode;
+        }
+        public SolsticeEquinoxMode timeMode2() {
+            return timeMode2;
+        }
+        public CompareMode compareMode() {
+            return compareMode;
+        }
+        public RiseSetOrder riseSetOrder() {
+            return riseSetOrder;
+        }
+    }
 }
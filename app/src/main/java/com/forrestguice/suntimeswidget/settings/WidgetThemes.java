@@ -25,6 +25,7 @@ import android.graphics.PorterDuff;
 import android.graphics.drawable.BitmapDrawable;
 import android.os.Build;
 import android.support.annotation.NonNull;
+import android.support.v4.util.LruCache;
 import android.util.Log;
 import android.util.TypedValue;
 import android.view.LayoutInflater;
@@ -211,6 +212,15 @@ public class WidgetThemes
         return themes.get(themeName);
     }
 
+    /**
+     * Parsed themes are kept (by name) until the theme is saved or deleted (see invalidateTheme). Loaded themes
+     * are shared by all callers (the theme picker, widgets, SuntimesThemeProvider) and must not be modified; callers that
+     * edit a theme should edit a copy (see SuntimesTheme(SuntimesTheme)).
+     */
+    public static final int MAX_LOADED_THEMES = 64;
+    private static final LruCache<String, SuntimesTheme> loadedThemes = new LruCache<>(MAX_LOADED_THEMES);
+    private static int loadedGeneration = 0;    // incremented by invalidateTheme; guarded by loadedThemes
+
     public static SuntimesTheme loadTheme(Context context, String themeName)
     {
         if (!initialized)
@@ -218,11 +228,48 @@ public class WidgetThemes
             initThemes(context);
         }
 
+        if (themeName == null)
+        {
+            SuntimesTheme theme = new SuntimesTheme();
+            theme.initTheme(context, PREFS_THEMES, null, defaultTheme);
+            return theme;
+        }
+
+        int generation;
+        synchronized (loadedThemes)
+        {
+            SuntimesTheme theme = loadedThemes.get(themeName);
+            if (theme != null) {
+                return theme;
+            }
+            generation = loadedGeneration;
+        }
+
         SuntimesTheme theme = new SuntimesTheme();
         theme.initTheme(context, PREFS_THEMES, themeName, defaultTheme);
+        synchronized (loadedThemes)
+        {
+            if (generation == loadedGeneration) {    // skip if the theme was saved or deleted while loading
+                loadedThemes.put(themeName, theme);
+            }
+        }
         return theme;
     }
 
+    /**
+     * Discards the parsed theme (called when the theme is saved or deleted).
+     */
+    public static void invalidateTheme(String themeName)
+    {
+        synchronized (loadedThemes)
+        {
+            loadedGeneration++;
+            if (themeName != null) {
+                loadedThemes.remove(themeName);
+            }
+        }
+    }
+
     public static ThemeDescriptor loadDescriptor(Context context, String themeName)
     {
         ThemeDescriptor desc = new ThemeDescriptor(themeName, context, PREFS_THEMES);
@@ -48,11 +48,14 @@ import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.Date;
 import java.util.GregorianCalendar;
+import java.util.LinkedHashMap;
 import java.util.Collections;
 import java.util.Comparator;
 
 import java.util.List;
+import java.util.Map;
 import java.util.TimeZone;
+import java.util.WeakHashMap;
 
 public class WidgetTimezones
 {
@@ -213,6 +216,9 @@ public class WidgetTimezones
         }
 
         private SuntimesCalculator calculator = null;
+        public SuntimesCalculator getCalculator() {
+            return calculator;
+        }
         public void setCalculator(SuntimesCalculator calculator)
         {
             this.calculator = calculator;
@@ -221,9 +227,8 @@ public class WidgetTimezones
         @Override
         public int getOffset(int era, int year, int month, int day, int dayOfWeek, int milliseconds)
         {
-            Calendar calendar = new GregorianCalendar();
-            calendar.set(year, month, day);
-            return getOffset(calendar.getTimeInMillis());
+            long date = EquationOfTimeTable.daysFromCivil((era == GregorianCalendar.BC ? 1 - year : year), month + 1, day) * EquationOfTimeTable.DAY_MILLIS + milliseconds - getRawOffset();
+            return getOffset(date);
         }
 
         /**
@@ -233,7 +238,7 @@ public class WidgetTimezones
         @Override
         public int getOffset( long date )
         {
-            eotOffset = equationOfTimeOffset(date, calculator);
+            eotOffset = EquationOfTimeTable.getTable(calculator).offset(date);
             return getRawOffset() + eotOffset;
         }
 
@@ -317,6 +322,124 @@ public class WidgetTimezones
         private int eotOffset = 0;
     }
 
+    /**
+     * EquationOfTimeTable
+     * Equation of time offsets sampled once per (UTC) day and linearly interpolated between samples; samples are
+     * calculated lazily and the table is shared by all ApparentSolarTime zones using the same calculator. Looking
+     * up a day that was already sampled doesn't allocate.
+     */
+    public static class EquationOfTimeTable
+    {
+        public static final long DAY_MILLIS = 24 * 60 * 60 * 1000L;
+        public static final int BLOCK_DAYS = 366;      // days per block (sampled lazily)
+        public static final int MAX_BLOCKS = 4;        // blocks kept per table; least recently used is evicted
+
+        private static final WeakHashMap<SuntimesCalculator, EquationOfTimeTable> tables = new WeakHashMap<>();
+        private static final EquationOfTimeTable fallbackTable = new EquationOfTimeTable(null);
+
+        /**
+         * @param calculator the calculator (or null to use the fall-back implementation)
+         * @return a table shared by all zones using this calculator
+         */
+        public static EquationOfTimeTable getTable(SuntimesCalculator calculator)
+        {
+            if (calculator == null) {
+                return fallbackTable;
+            }
+            synchronized (tables)
+            {
+                EquationOfTimeTable table = tables.get(calculator);
+                if (table == null) {
+                    tables.put(calculator, (table = new EquationOfTimeTable(calculator)));
+                }
+                return table;
+            }
+        }
+
+        private final WeakReference<SuntimesCalculator> calculatorRef;
+        private final LinkedHashMap<Long, Block> blocks = new LinkedHashMap<Long, Block>(MAX_BLOCKS + 1, 0.75f, true)
+        {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Block> eldest) {
+                return size() > MAX_BLOCKS;
+            }
+        };
+
+        /**
+         * Samples for BLOCK_DAYS consecutive days; dates in different years keep separate blocks so alternating
+         * between them does not discard the samples of either.
+         */
+        private static class Block
+        {
+            public final long firstDay;
+            public final int[] samples = new int[BLOCK_DAYS];
+            public final boolean[] sampled = new boolean[BLOCK_DAYS];
+
+            public Block(long firstDay) {
+                this.firstDay = firstDay;
+            }
+        }
+
+        private EquationOfTimeTable(SuntimesCalculator calculator) {
+            this.calculatorRef = new WeakReference<>(calculator);
+        }
+
+        /**
+         * @param date a given date
+         * @return equation of time correction in milliseconds (interpolated)
+         */
+        public synchronized int offset(long date)
+        {
+            long day = floorDiv(date, DAY_MILLIS);
+            int eot0 = sample(day);
+            int eot1 = sample(day + 1);
+            double fraction = (date - (day * DAY_MILLIS)) / (double) DAY_MILLIS;
+            return eot0 + (int)Math.round((eot1 - eot0) * fraction);
+        }
+
+        private int sample(long day)
+        {
+            long key = floorDiv(day, BLOCK_DAYS);
+            Block block = blocks.get(key);
+            if (block == null) {
+                blocks.put(key, (block = new Block(key * BLOCK_DAYS)));
+            }
+
+            int i = (int)(day - block.firstDay);
+            if (!block.sampled[i])
+            {
+                long date = day * DAY_MILLIS;
+                SuntimesCalculator calculator = calculatorRef.get();
+                block.samples[i] = (calculator != null ? ApparentSolarTime.equationOfTimeOffset(date, calculator) : ApparentSolarTime.equationOfTimeOffset(date));
+                block.sampled[i] = true;
+            }
+            return block.samples[i];
+        }
+
+        private static long floorDiv(long x, long y)
+        {
+            long r = x / y;
+            if ((x % y != 0) && ((x ^ y) < 0)) {
+                r--;
+            }
+            return r;
+        }
+
+        /**
+         * http://howardhinnant.github.io/date_algorithms.html#days_from_civil
+         * @return days since 1970-01-01 (proleptic gregorian)
+         */
+        public static long daysFromCivil(int year, int month, int day)
+        {
+            year -= (month <= 2 ? 1 : 0);
+            long era = (year >= 0 ? year : year - 399) / 400;
+            long yoe = year - era * 400;                                            // [0, 399]
+            long doy = (153 * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1;    // [0, 365]
+            long doe = yoe * 365 + yoe / 4 - yoe / 100 + doy;                       // [0, 146096]
+            return era * 146097 + doe - 719468;
+        }
+    }
+
     ///////////////////////////////////////
     ///////////////////////////////////////
 
@@ -27,6 +27,7 @@ import android.util.Log;
 
 import com.forrestguice.suntimeswidget.R;
 import com.forrestguice.suntimeswidget.settings.WidgetSettings;
+import com.forrestguice.suntimeswidget.settings.WidgetThemes;
 
 import static com.forrestguice.suntimeswidget.themes.SuntimesThemeContract.THEME_ACCENTCOLOR;
 import static com.forrestguice.suntimeswidget.themes.SuntimesThemeContract.THEME_ACTIONCOLOR;
@@ -108,6 +109,11 @@ import static com.forrestguice.suntimeswidget.themes.SuntimesThemeContract.THEME
 import static com.forrestguice.suntimeswidget.themes.SuntimesThemeContract.THEME_VERSION;
 import static com.forrestguice.suntimeswidget.themes.SuntimesThemeContract.THEME_WINTERCOLOR;
 
+/**
+ * SuntimesTheme
+ * Instances returned by WidgetThemes.loadTheme are shared (cached) and must be treated as read-only; use the copy
+ * constructor to get an instance that can be edited.
+ */
 public class SuntimesTheme
 {
     public static final String THEME_KEY = "theme_";
@@ -438,6 +444,7 @@ public class SuntimesTheme
         themePrefs.putBoolean(themePrefix + THEME_TIMEBOLD, this.themeTimeBold);
 
         themePrefs.apply();
+        WidgetThemes.invalidateTheme(this.themeName);
 
         //noinspection UnnecessaryLocalVariable
         ThemeDescriptor themeDescriptor = themeDescriptor();
@@ -526,6 +533,7 @@ public class SuntimesTheme
         themePrefs.remove(themePrefix + THEME_TIMEBOLD);
 
         themePrefs.apply();
+        WidgetThemes.invalidateTheme(this.themeName);
     }
 
     public String themeName()
@@ -1435,7 +1435,7 @@ public class WidgetThemeConfigActivity extends AppCompatActivity
 
         try {
             String themeID = (themeName == null ? WidgetSettings.PREF_DEF_APPEARANCE_THEME : themeName);
-            SuntimesTheme theme = WidgetThemes.loadTheme(this, themeID);
+            SuntimesTheme theme = new SuntimesTheme(WidgetThemes.loadTheme(this, themeID));    // copy; loaded themes are shared
             if (themeName != null)
             {
                 editDisplay.setText((mode == UIMode.ADD_THEME) ? generateThemeDisplayString(theme.themeDisplayString()) : theme.themeDisplayString());